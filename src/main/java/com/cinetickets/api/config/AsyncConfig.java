@@ -0,0 +1,81 @@
+package com.cinetickets.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Habilita {@code @Async} y declara los executors de trabajo en segundo plano.
+ * Cada executor tiene hilos y cola acotados; con la cola llena la tarea se rechaza en lugar de correr en el
+ * hilo que la envía (un webhook de pago o el scheduler no deben quedar esperando un SMTP). El rechazo se registra
+ * en el log y en {@code executor.rejected{name}}, y quien envía decide qué hacer: PostPurchasePipeline la
+ * reprograma. Spring Boot publica el resto de las métricas ({@code executor.*}, con el nombre del bean como tag).
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Executor general (@Async sin calificador, MVC asíncrono). Spring Boot deja de crear el suyo cuando
+     * hay otros executors declarados, así que se arma acá con la misma configuración spring.task.execution.*
+     */
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Trabajo posterior a la compra que usa base de datos: puntos de fidelidad
+     */
+    @Bean
+    public ThreadPoolTaskExecutor postPurchaseExecutor(
+            @Value("${app.post-purchase.threads:4}") int threads,
+            @Value("${app.post-purchase.queue-capacity:1000}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return boundedExecutor("postPurchaseExecutor", "post-purchase-", threads, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Envíos SMTP, separados para que un servidor de correo lento no demore el resto
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor(
+            @Value("${app.mail.threads:2}") int threads,
+            @Value("${app.mail.queue-capacity:1000}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return boundedExecutor("mailExecutor", "mail-", threads, queueCapacity, meterRegistry);
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String name, String threadNamePrefix, int threads,
+                                                          int queueCapacity, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks rejected because the executor queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Executor {} is full ({} queued tasks), rejecting task", name, pool.getQueue().size());
+            throw new RejectedExecutionException("Executor " + name + " is full");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
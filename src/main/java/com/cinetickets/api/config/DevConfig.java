@@ -37,7 +37,7 @@ public class DevConfig {
     @Profile({"dev", "test"})
     public PaymentService paymentServiceMock(MockPaymentService mockService) {
         log.info("Using MOCK Payment Service for development");
-        return new PaymentService(null, null, null) {
+        return new PaymentService(null, null, null, null, null, null) {
             @Override
             public com.cinetickets.api.dto.response.PaymentResponse processPayment(
                     java.util.UUID orderId, 
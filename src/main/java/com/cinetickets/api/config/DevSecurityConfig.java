@@ -60,6 +60,8 @@ public class DevSecurityConfig {
             .authorizeHttpRequests()
                 // Permitir acceso a H2 Console en desarrollo
                 .requestMatchers("/h2-console/**").permitAll()
+                // Sala de espera: el ticket se emite a nombre del usuario
+                .requestMatchers("/api/shows/*/queue").authenticated()
                 // Rutas públicas que no requieren autenticación
                 .requestMatchers(
                     "/api/auth/**",
@@ -0,0 +1,60 @@
+package com.cinetickets.api.controller;
+
+import com.cinetickets.api.dto.response.ApiResponse;
+import com.cinetickets.api.dto.response.QueueTicketResponse;
+import com.cinetickets.api.security.UserPrincipal;
+import com.cinetickets.api.service.queue.AdmissionQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AdmissionQueueController {
+
+    private final AdmissionQueueService admissionQueueService;
+
+    // Endpoints de usuario - el ticket queda atado a quien entra a la cola; se atienden desde memoria
+
+    @PostMapping("/api/shows/{id}/queue")
+    public ResponseEntity<QueueTicketResponse> joinQueue(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        return ResponseEntity.ok(admissionQueueService.join(id, currentUser.getId()));
+    }
+
+    @GetMapping("/api/shows/{id}/queue")
+    public ResponseEntity<QueueTicketResponse> getQueueStatus(
+            @PathVariable UUID id,
+            @RequestParam String ticket,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        return ResponseEntity.ok(admissionQueueService.getStatus(id, ticket, currentUser.getId()));
+    }
+
+    // Endpoints administrativos - requieren autenticación y rol ADMIN
+
+    @PutMapping("/api/admin/shows/{id}/queue")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ApiResponse> activateQueue(
+            @PathVariable UUID id,
+            @RequestParam int admitsPerMinute) {
+        
+        log.debug("Admin activating admission queue for show id: {}", id);
+        admissionQueueService.activate(id, admitsPerMinute);
+        return ResponseEntity.ok(new ApiResponse(true, "Admission queue activated successfully"));
+    }
+
+    @DeleteMapping("/api/admin/shows/{id}/queue")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ApiResponse> deactivateQueue(@PathVariable UUID id) {
+        log.debug("Admin deactivating admission queue for show id: {}", id);
+        admissionQueueService.deactivate(id);
+        return ResponseEntity.ok(new ApiResponse(true, "Admission queue deactivated successfully"));
+    }
+}
@@ -1,12 +1,16 @@
 package com.cinetickets.api.controller;
 
 import com.cinetickets.api.dto.request.TicketValidationRequest;
-import com.cinetickets.api.dto.response.ApiResponse;
 import com.cinetickets.api.dto.response.OrderDetailsResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
+import com.cinetickets.api.dto.response.TicketValidationResponse;
+import com.cinetickets.api.exception.InvalidFilterException;
 import com.cinetickets.api.service.OrderService;
 import com.cinetickets.api.service.QrCodeService;
 import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.gate.TicketAdmission;
+import com.cinetickets.api.service.gate.TicketAdmissionLedger;
+import com.cinetickets.api.service.qr.TicketTokenCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +18,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -24,40 +33,41 @@ import java.util.List;
 public class GateController {
 
     private final QrCodeService qrCodeService;
+    private final TicketAdmissionLedger ticketAdmissionLedger;
     private final OrderService orderService;
     private final ShowService showService;
 
     /**
-     * Valida un código QR de entrada
+     * Valida un código QR de entrada y la marca como usada. Todas las respuestas son 200: el estado indica
+     * si pasa, si ya se usó, si es de otra función o si todavía no abrieron las puertas
      */
     @PostMapping("/validate")
-    public ResponseEntity<ApiResponse> validateTicket(
+    public ResponseEntity<TicketValidationResponse> validateTicket(
             @Valid @RequestBody TicketValidationRequest request) {
         
-        log.info("Validating ticket: {}", request.getQrContent());
+        log.debug("Validating ticket: {}", request.getQrContent());
         
-        // Validar el código QR
-        boolean isValid = qrCodeService.validateQrCode(request.getQrContent());
+        // Validar el código QR (formato y firma)
+        Optional<TicketTokenCodec.TicketToken> ticket = qrCodeService.decodeTicket(request.getQrContent());
         
-        if (!isValid) {
-            return ResponseEntity.ok(new ApiResponse(false, "Invalid QR code"));
+        if (ticket.isEmpty()) {
+            return ResponseEntity.ok(TicketValidationResponse.builder()
+                    .success(false)
+                    .status(TicketAdmission.Status.INVALID.name())
+                    .message("Invalid QR code")
+                    .build());
         }
         
-        // Actualizar estado de uso del ticket si es necesario
-        String[] parts = request.getQrContent().split("\\|");
-        if (parts.length >= 2) {
-            try {
-                String orderId = parts[0];
-                // Aquí se podría implementar la lógica para marcar como usado
-                
-                return ResponseEntity.ok(new ApiResponse(true, "Valid ticket"));
-            } catch (Exception e) {
-                log.error("Error validating ticket", e);
-                return ResponseEntity.ok(new ApiResponse(false, "Error validating ticket"));
-            }
-        }
-        
-        return ResponseEntity.ok(new ApiResponse(false, "Invalid QR format"));
+        TicketAdmission admission = ticketAdmissionLedger.admit(ticket.get(), parseShowId(request.getShowId()));
+        return ResponseEntity.ok(TicketValidationResponse.builder()
+                .success(admission.getStatus() == TicketAdmission.Status.ADMITTED)
+                .status(admission.getStatus().name())
+                .message(messageFor(admission.getStatus()))
+                .orderId(admission.getOrderId())
+                .showId(admission.getShowId())
+                .admittedAt(toZoned(admission.getAdmittedAt()))
+                .doorsOpenAt(toZoned(admission.getDoorsOpenAt()))
+                .build());
     }
 
     /**
@@ -77,4 +87,31 @@ public class GateController {
         List<ShowResponse> shows = showService.getCurrentlyPlayingShows();
         return ResponseEntity.ok(shows);
     }
+
+    private static UUID parseShowId(String showId) {
+        if (showId == null || showId.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(showId);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterException("Invalid show id: " + showId);
+        }
+    }
+
+    private static String messageFor(TicketAdmission.Status status) {
+        return switch (status) {
+            case ADMITTED -> "Valid ticket";
+            case ALREADY_USED -> "Ticket already used";
+            case WRONG_SHOW -> "Ticket is for another show";
+            case TOO_EARLY -> "Doors are not open yet for this show";
+            case EXPIRED -> "Show has already ended";
+            case NOT_PAID -> "Order is not paid";
+            case INVALID -> "Invalid QR code";
+        };
+    }
+
+    private static ZonedDateTime toZoned(Instant instant) {
+        return instant != null ? instant.atZone(ZoneId.systemDefault()) : null;
+    }
 }
\ No newline at end of file
@@ -2,23 +2,35 @@ package com.cinetickets.api.controller;
 
 import com.cinetickets.api.dto.request.MovieRequest;
 import com.cinetickets.api.dto.response.ApiResponse;
+import com.cinetickets.api.dto.response.CatalogBrowseResponse;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.MovieDetailResponse;
 import com.cinetickets.api.dto.response.MovieResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
 import com.cinetickets.api.service.MovieService;
 import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.catalog.Billboard;
+import com.cinetickets.api.service.catalog.BillboardSnapshot;
+import com.cinetickets.api.service.catalog.CatalogFacet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -32,17 +44,48 @@ public class MovieController {
     // Endpoints públicos - no requieren autenticación
 
     @GetMapping("/api/movies")
-    public ResponseEntity<List<MovieResponse>> getAllMoviesCurrentlyShowing() {
+    public ResponseEntity<byte[]> getAllMoviesCurrentlyShowing(WebRequest request) {
         log.debug("Fetching all movies currently showing");
-        List<MovieResponse> movies = movieService.getAllCurrentlyShowing();
-        return ResponseEntity.ok(movies);
+        return billboardResponse(movieService.getBillboard(Billboard.CURRENTLY_SHOWING), request);
     }
 
     @GetMapping("/api/movies/coming-soon")
-    public ResponseEntity<List<MovieResponse>> getAllComingSoonMovies() {
+    public ResponseEntity<byte[]> getAllComingSoonMovies(WebRequest request) {
         log.debug("Fetching all coming soon movies");
-        List<MovieResponse> movies = movieService.getAllComingSoon();
-        return ResponseEntity.ok(movies);
+        return billboardResponse(movieService.getBillboard(Billboard.COMING_SOON), request);
+    }
+
+    /**
+     * Escribe el JSON ya serializado de la cartelera, o 304 si el cliente tiene el mismo ETag
+     */
+    private ResponseEntity<byte[]> billboardResponse(BillboardSnapshot snapshot, WebRequest request) {
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.getJson());
+    }
+
+    /**
+     * Cartelera filtrada por facetas (genre, language, is3d, subtitled, rating, roomType), con el
+     * conteo de cada valor. Cada parámetro acepta varios valores.
+     */
+    @GetMapping("/api/movies/browse")
+    public ResponseEntity<CatalogBrowseResponse> browseMovies(@RequestParam MultiValueMap<String, String> params) {
+        Map<CatalogFacet, List<String>> filters = new EnumMap<>(CatalogFacet.class);
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            List<String> values = params.get(facet.getParam());
+            if (values != null) {
+                filters.put(facet, values);
+            }
+        }
+        return ResponseEntity.ok(movieService.browseMovies(filters));
     }
 
     @GetMapping("/api/movies/{id}")
@@ -79,6 +122,14 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
 
+    @GetMapping("/api/movies/suggest")
+    public ResponseEntity<List<MovieResponse>> suggestMovies(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        return ResponseEntity.ok(movieService.suggestMovies(query, limit));
+    }
+
     // Endpoints administrativos - requieren autenticación y rol ADMIN
 
     @GetMapping("/api/admin/movies")
@@ -89,6 +140,15 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
 
+    @GetMapping("/api/admin/movies/cursor")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<CursorPageResponse<MovieResponse>> getAllMoviesAdminByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Admin fetching movies by cursor");
+        return ResponseEntity.ok(movieService.getAllMoviesByCursor(cursor, size));
+    }
+
     @PostMapping("/api/admin/movies")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<ApiResponse> createMovie(@Valid @RequestBody MovieRequest movieRequest) {
@@ -2,21 +2,28 @@ package com.cinetickets.api.controller;
 
 import com.cinetickets.api.dto.request.OrderRequest;
 import com.cinetickets.api.dto.response.ApiResponse;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.OrderDetailsResponse;
 import com.cinetickets.api.dto.response.OrderResponse;
 import com.cinetickets.api.security.UserPrincipal;
 import com.cinetickets.api.service.OrderService;
+import com.cinetickets.api.service.qr.TicketQrRenderer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
@@ -24,6 +31,7 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final TicketQrRenderer ticketQrRenderer;
 
     /**
      * Crea una nueva orden a partir de una reserva existente
@@ -71,6 +79,37 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * Imagen del QR de las entradas (png o svg), generada a pedido desde el contenido firmado de la orden.
+     * La imagen de una orden no cambia: el cliente la guarda un día y revalida con su ETag.
+     */
+    @GetMapping("/api/orders/{id}/qr")
+    public ResponseEntity<byte[]> getOrderQr(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestParam(defaultValue = "" + TicketQrRenderer.DEFAULT_SIZE) int size,
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            WebRequest request) {
+        
+        UUID userId = currentUser != null ? currentUser.getId() : null;
+        String token = orderService.getTicketToken(id, userId);
+        TicketQrRenderer.QrImage image =
+                ticketQrRenderer.render(token, TicketQrRenderer.QrFormat.parse(format), size);
+        
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+        if (request.checkNotModified(image.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(image.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getMediaType()))
+                .eTag(image.getEtag())
+                .cacheControl(cacheControl)
+                .body(image.getBytes());
+    }
+
     /**
      * Obtiene el historial de órdenes del usuario actual
      */
@@ -87,6 +126,22 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Historial de órdenes del usuario actual por cursor, sin costo extra en páginas profundas
+     */
+    @GetMapping("/api/users/me/orders/cursor")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getUserOrdersByCursor(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        return ResponseEntity.ok(orderService.getUserOrdersByCursor(currentUser.getId(), cursor, size));
+    }
+
     /**
      * Endpoint administrativo para obtener todas las órdenes
      */
@@ -101,6 +156,18 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Endpoint administrativo para recorrer todas las órdenes por cursor
+     */
+    @GetMapping("/api/admin/orders/cursor")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getAllOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        return ResponseEntity.ok(orderService.getAllOrdersByCursor(cursor, size));
+    }
+
     /**
      * Cancela una orden (solo administradores)
      */
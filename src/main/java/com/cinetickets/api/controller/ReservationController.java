@@ -1,10 +1,12 @@
 package com.cinetickets.api.controller;
 
+import com.cinetickets.api.dto.request.BestAvailableReservationRequest;
 import com.cinetickets.api.dto.request.ReservationRequest;
 import com.cinetickets.api.dto.response.ApiResponse;
 import com.cinetickets.api.dto.response.ReservationResponse;
 import com.cinetickets.api.security.UserPrincipal;
 import com.cinetickets.api.service.ReservationService;
+import com.cinetickets.api.service.queue.AdmissionQueueService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,14 +23,35 @@ import java.util.UUID;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final AdmissionQueueService admissionQueueService;
 
     @PostMapping
     public ResponseEntity<ReservationResponse> createReservation(
             @Valid @RequestBody ReservationRequest reservationRequest,
+            @RequestHeader(value = AdmissionQueueService.ADMISSION_HEADER, required = false) String admissionToken,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         
         UUID userId = currentUser != null ? currentUser.getId() : null;
-        ReservationResponse reservation = reservationService.createReservation(reservationRequest, userId);
+        // Si la función tiene sala de espera activa se exige un token admitido, que la reserva consume
+        ReservationResponse reservation = admissionQueueService.withAdmission(reservationRequest.getShowId(),
+                admissionToken, userId, () -> reservationService.createReservation(reservationRequest, userId));
+        
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentContextPath().path("/api/reservations/{id}")
+                .buildAndExpand(reservation.getId()).toUri();
+        
+        return ResponseEntity.created(location).body(reservation);
+    }
+
+    @PostMapping("/best-available")
+    public ResponseEntity<ReservationResponse> createBestAvailableReservation(
+            @Valid @RequestBody BestAvailableReservationRequest request,
+            @RequestHeader(value = AdmissionQueueService.ADMISSION_HEADER, required = false) String admissionToken,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        UUID userId = currentUser != null ? currentUser.getId() : null;
+        ReservationResponse reservation = admissionQueueService.withAdmission(request.getShowId(),
+                admissionToken, userId, () -> reservationService.createBestAvailableReservation(request, userId));
         
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath().path("/api/reservations/{id}")
@@ -0,0 +1,53 @@
+package com.cinetickets.api.controller;
+
+import com.cinetickets.api.dto.request.BulkShowRequest;
+import com.cinetickets.api.dto.request.ShowFilterRequest;
+import com.cinetickets.api.dto.response.BulkShowResponse;
+import com.cinetickets.api.dto.response.ShowResponse;
+import com.cinetickets.api.service.ShowService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ShowAdminController {
+
+    private final ShowService showService;
+
+    /**
+     * Funciones filtradas por cine, película, rango de fechas (hasta 31 días), estado y formato
+     */
+    @GetMapping("/api/admin/shows")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Page<ShowResponse>> getShows(ShowFilterRequest filter, Pageable pageable) {
+        log.debug("Admin fetching shows with filter: {}", filter);
+        return ResponseEntity.ok(showService.getAllShowsByFilter(filter, pageable));
+    }
+
+    /**
+     * Programa varias funciones (por ejemplo, la semana completa de todas las salas) en una sola
+     * transacción: si alguna se superpone con la agenda de su sala o con otra del pedido, no se crea ninguna
+     */
+    @PostMapping("/api/admin/shows/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<BulkShowResponse> createShows(@Valid @RequestBody BulkShowRequest request) {
+        log.debug("Admin scheduling {} shows in bulk", request.getShows().size());
+        List<UUID> showIds = showService.createShows(request.getShows());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(BulkShowResponse.builder()
+                        .created(showIds.size())
+                        .showIds(showIds)
+                        .build());
+    }
+}
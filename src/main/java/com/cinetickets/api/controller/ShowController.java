@@ -0,0 +1,43 @@
+package com.cinetickets.api.controller;
+
+import com.cinetickets.api.dto.response.SeatResponse;
+import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.inventory.SeatInventoryService;
+import com.cinetickets.api.service.inventory.SeatMapStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/shows")
+@RequiredArgsConstructor
+public class ShowController {
+
+    private final ShowService showService;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapStreamService seatMapStreamService;
+
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<List<SeatResponse>> getSeatsForShow(@PathVariable UUID id) {
+        log.debug("Fetching seat map for show id: {}", id);
+        return ResponseEntity.ok(showService.getAvailableSeatsForShow(id));
+    }
+
+    /**
+     * Stream SSE del mapa de asientos: una foto inicial y luego los cambios de estado
+     */
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatsForShow(@PathVariable UUID id) {
+        log.debug("Opening seat map stream for show id: {}", id);
+        // Cargar el inventario antes de abrir el stream para responder 404 si la función no existe
+        seatInventoryService.getInventory(id);
+        return seatMapStreamService.subscribe(id);
+    }
+}
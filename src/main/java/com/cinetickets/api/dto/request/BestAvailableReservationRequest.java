@@ -0,0 +1,33 @@
+package com.cinetickets.api.dto.request;
+
+import com.cinetickets.api.entity.Seat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestAvailableReservationRequest {
+    
+    @NotNull(message = "Show ID is required")
+    private UUID showId;
+    
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "At least one seat must be requested")
+    @Max(value = 10, message = "No more than 10 seats can be requested together")
+    private Integer quantity;
+    
+    @NotNull(message = "Ticket type ID is required")
+    private UUID ticketTypeId;
+    
+    // Opcional: restringir a un tipo de asiento (REGULAR, VIP, ACCESSIBLE)
+    private Seat.SeatType seatType;
+}
@@ -0,0 +1,22 @@
+package com.cinetickets.api.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShowRequest {
+    
+    @NotEmpty(message = "At least one show is required")
+    @Size(max = 2000, message = "A bulk schedule cannot have more than 2000 shows")
+    private List<@Valid ShowRequest> shows;
+}
@@ -0,0 +1,44 @@
+package com.cinetickets.api.dto.request;
+
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Show;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filtros del listado de funciones. Todos son opcionales; el rango de fechas se acota en el servicio.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowFilterRequest {
+    
+    private UUID cinemaId;
+    
+    private UUID movieId;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    
+    // Día final inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    
+    private List<Show.ShowStatus> status;
+    
+    private Boolean is3d;
+    
+    private Boolean isSubtitled;
+    
+    private String language;
+    
+    private Room.RoomType roomType;
+}
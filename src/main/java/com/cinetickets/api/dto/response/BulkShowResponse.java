@@ -0,0 +1,20 @@
+package com.cinetickets.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShowResponse {
+    
+    private Integer created;
+    // En el mismo orden que las funciones del pedido
+    private List<UUID> showIds;
+}
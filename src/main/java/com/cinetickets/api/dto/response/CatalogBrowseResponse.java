@@ -0,0 +1,21 @@
+package com.cinetickets.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogBrowseResponse {
+    
+    private List<MovieResponse> movies;
+    private Integer total;
+    // Faceta -> valor -> cantidad de películas que quedarían al sumar ese valor a los filtros actuales
+    private Map<String, Map<String, Integer>> facets;
+}
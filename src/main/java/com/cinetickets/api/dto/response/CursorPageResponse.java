@@ -0,0 +1,23 @@
+package com.cinetickets.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de un listado por cursor: nextCursor se envía tal cual en el siguiente pedido
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasNext;
+}
@@ -0,0 +1,21 @@
+package com.cinetickets.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueTicketResponse {
+    
+    private UUID showId;
+    private String ticket;
+    private Long position;
+    private Long estimatedWaitSeconds;
+    private Boolean admitted;
+}
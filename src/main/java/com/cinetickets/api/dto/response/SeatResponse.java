@@ -14,9 +14,11 @@ import java.util.UUID;
 public class SeatResponse {
     
     private UUID id;
+    private Integer index;
     private String rowName;
     private String number;
     private String seatType;
     private String status;
     private Boolean isAvailable;
+    private String state;
 }
\ No newline at end of file
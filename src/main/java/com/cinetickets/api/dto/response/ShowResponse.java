@@ -9,7 +9,7 @@ import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShowResponse {
@@ -29,4 +29,9 @@ public class ShowResponse {
     private Boolean isSubtitled;
     private String language;
     private String status;
+    private Integer capacity;
+    private Integer seatsSold;
+    private Integer seatsHeld;
+    private Integer seatsAvailable;
+    private Double occupancyPercent;
 }
\ No newline at end of file
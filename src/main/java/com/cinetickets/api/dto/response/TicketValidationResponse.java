@@ -0,0 +1,25 @@
+package com.cinetickets.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketValidationResponse {
+    
+    private Boolean success;
+    private String message;
+    // ADMITTED, ALREADY_USED, WRONG_SHOW, TOO_EARLY, EXPIRED, NOT_PAID o INVALID
+    private String status;
+    private UUID orderId;
+    private UUID showId;
+    private ZonedDateTime admittedAt;
+    private ZonedDateTime doorsOpenAt;
+}
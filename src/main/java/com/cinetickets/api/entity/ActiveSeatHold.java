@@ -0,0 +1,59 @@
+package com.cinetickets.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Asiento ocupado (retenido o vendido) en una función.
+ * La clave primaria (show_id, seat_id) hace que la base de datos rechace un segundo
+ * reclamo del mismo asiento aunque provenga de otro nodo de la API.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ActiveSeatHold.SeatHoldId.class)
+@Table(name = "active_seat_holds", indexes = {
+        @Index(name = "idx_active_seat_holds_reservation", columnList = "reservation_id"),
+        @Index(name = "idx_active_seat_holds_show_status", columnList = "show_id, status")
+})
+public class ActiveSeatHold {
+
+    @Id
+    @Column(name = "show_id", nullable = false)
+    private UUID showId;
+
+    @Id
+    @Column(name = "seat_id", nullable = false)
+    private UUID seatId;
+
+    @Column(name = "reservation_id", nullable = false)
+    private UUID reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    public enum HoldStatus {
+        HELD, SOLD
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatHoldId implements Serializable {
+        private UUID showId;
+        private UUID seatId;
+    }
+}
@@ -21,7 +21,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+        @Index(name = "idx_movies_status_release", columnList = "status, release_date"),
+        @Index(name = "idx_movies_created_id", columnList = "created_at, id")
+})
 public class Movie {
 
     @Id
@@ -21,7 +21,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_orders_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_reservation", columnList = "reservation_id"),
+        @Index(name = "idx_orders_payment_reference", columnList = "payment_reference"),
+        @Index(name = "idx_orders_qr_code", columnList = "qr_code")
+})
 public class Order {
 
     @Id
@@ -74,6 +81,18 @@ public class Order {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Versión de la lista de precios con la que se cotizaron los items
+    @Column(name = "price_book_version")
+    private Long priceBookVersion;
+
+    // Puntos de fidelidad acreditados por la orden; null mientras no se acreditaron
+    @Column(name = "loyalty_points")
+    private Integer loyaltyPoints;
+
+    // Momento en que las entradas se usaron en la puerta; null mientras no se usaron (ver AdmissionLedger)
+    @Column(name = "admitted_at")
+    private ZonedDateTime admittedAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -39,6 +39,10 @@ public class OrderItem {
     @Column(name = "item_id", nullable = false)
     private UUID itemId;
 
+    // Nombre del producto o combo al momento de la compra; no cambia si después se renombra
+    @Column(name = "item_name")
+    private String itemName;
+
     @Column(nullable = false)
     private Integer quantity;
 
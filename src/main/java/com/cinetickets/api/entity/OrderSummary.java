@@ -0,0 +1,92 @@
+package com.cinetickets.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Resumen desnormalizado de una orden para los listados: película, función, cine, sala y cantidad de
+ * asientos copiados al crearla, y estados actualizados en la misma transacción que la orden.
+ * Cada listado es un rango de uno de sus índices, sin joins.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "idx_order_summaries_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_order_summaries_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_order_summaries_cinema_created", columnList = "cinema_id, created_at, id"),
+        @Index(name = "idx_order_summaries_status_created", columnList = "order_status, created_at, id")
+})
+public class OrderSummary {
+
+    // Mismo id que la orden
+    @Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "reservation_id")
+    private UUID reservationId;
+
+    @Column(name = "cinema_id")
+    private UUID cinemaId;
+
+    @Column(name = "movie_title")
+    private String movieTitle;
+
+    @Column(name = "show_date_time")
+    private ZonedDateTime showDateTime;
+
+    @Column(name = "cinema_name")
+    private String cinemaName;
+
+    @Column(name = "room_name")
+    private String roomName;
+
+    @Column(name = "number_of_seats", nullable = false)
+    private int numberOfSeats;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal discount;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal tax;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private Order.PaymentStatus paymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false)
+    private Order.OrderType orderType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false)
+    private Order.OrderStatus orderStatus;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+}
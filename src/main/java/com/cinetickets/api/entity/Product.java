@@ -21,7 +21,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_active", columnList = "category_id, is_active")
+})
 public class Product {
 
     @Id
@@ -19,7 +19,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "promotions")
+@Table(name = "promotions", indexes = {
+        @Index(name = "idx_promotions_active_dates", columnList = "is_active, start_date, end_date")
+})
 public class Promotion {
 
     @Id
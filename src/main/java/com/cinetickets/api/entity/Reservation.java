@@ -20,7 +20,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_reservations_show_status", columnList = "show_id, status"),
+        @Index(name = "idx_reservations_user_status", columnList = "user_id, status")
+})
 public class Reservation {
 
     @Id
@@ -22,6 +22,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "seats", uniqueConstraints = {
         @UniqueConstraint(name = "uk_seats_room_row_number", columnNames = { "room_id", "row_name", "number" })
+}, indexes = {
+        @Index(name = "idx_seats_room_status", columnList = "room_id, status")
 })
 public class Seat {
 
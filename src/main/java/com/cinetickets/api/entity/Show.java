@@ -20,7 +20,12 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "shows")
+@Table(name = "shows", indexes = {
+        @Index(name = "idx_shows_movie_start", columnList = "movie_id, start_time"),
+        @Index(name = "idx_shows_room_start", columnList = "room_id, start_time"),
+        @Index(name = "idx_shows_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_shows_end_time", columnList = "end_time")
+})
 public class Show {
 
     @Id
@@ -55,6 +60,15 @@ public class Show {
     @Column(nullable = false)
     private ShowStatus status;
 
+    // Contadores de ocupación, actualizados periódicamente desde el inventario en memoria
+    private Integer capacity;
+
+    @Column(name = "seats_sold")
+    private Integer seatsSold;
+
+    @Column(name = "seats_held")
+    private Integer seatsHeld;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private ZonedDateTime createdAt;
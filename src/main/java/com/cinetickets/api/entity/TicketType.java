@@ -21,7 +21,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ticket_types")
+@Table(name = "ticket_types", indexes = {
+        @Index(name = "idx_ticket_types_cinema_active", columnList = "cinema_id, is_active")
+})
 public class TicketType {
 
     @Id
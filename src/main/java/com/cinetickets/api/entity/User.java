@@ -18,7 +18,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_auth_provider", columnList = "auth_provider, auth_provider_id")
+})
 public class User {
 
     @Id
@@ -0,0 +1,12 @@
+package com.cinetickets.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AdmissionRequiredException extends RuntimeException {
+
+    public AdmissionRequiredException(String message) {
+        super(message);
+    }
+}
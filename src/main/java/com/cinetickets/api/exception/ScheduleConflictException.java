@@ -0,0 +1,12 @@
+package com.cinetickets.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ScheduleConflictException extends RuntimeException {
+
+    public ScheduleConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cinetickets.api.job;
+
+import com.cinetickets.api.service.gate.TicketAdmissionLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Precarga en el registro de admisión las funciones con puertas por abrir y escribe en la base las entradas
+ * usadas en la puerta
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionLedgerJob {
+
+    private final TicketAdmissionLedger ticketAdmissionLedger;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLedger() {
+        ticketAdmissionLedger.preload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.gate.preload-interval-ms:60000}",
+            initialDelayString = "${app.gate.preload-interval-ms:60000}")
+    public void preloadShows() {
+        ticketAdmissionLedger.preload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.gate.flush-interval-ms:500}")
+    public void flushAdmissions() {
+        ticketAdmissionLedger.flush();
+    }
+}
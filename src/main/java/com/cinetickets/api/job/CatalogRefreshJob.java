@@ -0,0 +1,49 @@
+package com.cinetickets.api.job;
+
+import com.cinetickets.api.service.MovieService;
+import com.cinetickets.api.service.catalog.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Mantiene al día las carteleras y sus facetas: al iniciar, después de cada cambio confirmado del
+ * catálogo, a la medianoche local y periódicamente, porque las funciones que ya empezaron dejan de contar
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogRefreshJob {
+
+    private final MovieService movieService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        movieService.refreshCatalog();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("Catalog changed for movie {}, refreshing facets", event.getMovieId());
+        movieService.refreshCatalog();
+    }
+
+    /**
+     * A la medianoche local cambian las películas en cartel y por estrenarse
+     */
+    @Scheduled(cron = "0 0 0 * * *", zone = "${app.catalog.zone:America/Argentina/Buenos_Aires}")
+    public void rollBillboardsAtMidnight() {
+        log.info("Rebuilding billboards for the new day");
+        movieService.refreshCatalog();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:900000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:900000}")
+    public void refreshCatalog() {
+        movieService.refreshCatalog();
+    }
+}
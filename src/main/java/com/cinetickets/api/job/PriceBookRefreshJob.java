@@ -0,0 +1,40 @@
+package com.cinetickets.api.job;
+
+import com.cinetickets.api.service.pricing.PriceBookChangedEvent;
+import com.cinetickets.api.service.pricing.PriceBookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Recarga la lista de precios al iniciar, después de cada cambio confirmado de productos o combos y
+ * periódicamente, para tomar los cambios hechos desde otro nodo o directamente en la base (tipos de entrada)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceBookRefreshJob {
+
+    private final PriceBookService priceBookService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPriceBook() {
+        priceBookService.reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceBookChanged(PriceBookChangedEvent event) {
+        log.debug("Price book changed ({}), reloading", event.getReason());
+        priceBookService.reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.reload-interval-ms:300000}",
+            initialDelayString = "${app.pricing.reload-interval-ms:300000}")
+    public void reloadPriceBook() {
+        priceBookService.reload();
+    }
+}
@@ -1,34 +1,61 @@
-// package com.cinetickets.api.job;
+package com.cinetickets.api.job;
 
-// import com.cinetickets.api.repository.ReservationRepository;
-// import lombok.RequiredArgsConstructor;
-// import lombok.extern.slf4j.Slf4j;
-// import org.springframework.scheduling.annotation.Scheduled;
-// import org.springframework.stereotype.Component;
-// import org.springframework.transaction.annotation.Transactional;
+import com.cinetickets.api.repository.ReservationRepository;
+import com.cinetickets.api.service.ReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
 
-// import java.time.ZonedDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
 
-// @Slf4j
-// @Component
-// @RequiredArgsConstructor
-// public class ReservationExpirationJob {
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationExpirationJob {
 
-//     private final ReservationRepository reservationRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
+    private final ReservationExpiryWheel expiryWheel;
 
-//     /**
-//      * Trabajo programado que se ejecuta cada minuto para expirar reservas que hayan superado su tiempo de expiración
-//      */
-//     @Scheduled(fixedRate = 60000) // Ejecutar cada minuto
-//     @Transactional
-//     public void expireReservations() {
-//         ZonedDateTime now = ZonedDateTime.now();
-//         log.debug("Executing reservation expiration job at {}", now);
-        
-//         int expiredCount = reservationRepository.expireReservations(now);
-        
-//         if (expiredCount > 0) {
-//             log.info("Expired {} reservations", expiredCount);
-//         }
-//     }
-// }
\ No newline at end of file
+    /**
+     * Reconstruye la rueda de vencimientos con las reservas pendientes al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingReservations() {
+        List<Object[]> pending = reservationRepository.findPendingExpirations();
+        for (Object[] row : pending) {
+            expiryWheel.schedule((UUID) row[0], (ZonedDateTime) row[1]);
+        }
+        log.info("Scheduled {} pending reservations for expiration", pending.size());
+    }
+
+    /**
+     * Avanza la rueda cada segundo y expira las reservas vencidas, devolviendo sus asientos al inventario
+     */
+    @Scheduled(fixedRate = 1000)
+    public void expireDueReservations() {
+        for (UUID reservationId : expiryWheel.pollExpired()) {
+            try {
+                reservationService.expireReservation(reservationId);
+            } catch (Exception e) {
+                log.error("Error expiring reservation {}: {}", reservationId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Barrido de respaldo por el índice (status, expires_at) para las reservas que no estén en la rueda,
+     * por ejemplo las creadas en otro nodo
+     */
+    @Scheduled(fixedDelayString = "${app.reservation.expiration-sweep-interval-ms:600000}",
+            initialDelayString = "${app.reservation.expiration-sweep-interval-ms:600000}")
+    public void sweepExpiredReservations() {
+        log.debug("Executing reservation expiration sweep at {}", ZonedDateTime.now());
+        reservationService.expireReservations();
+    }
+}
@@ -0,0 +1,38 @@
+package com.cinetickets.api.job;
+
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Programa el vencimiento de cada reserva pendiente en una rueda de tiempo en memoria,
+ * con resolución de un segundo.
+ */
+@Component
+public class ReservationExpiryWheel {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final TimingWheel<UUID> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+
+    public void schedule(UUID reservationId, ZonedDateTime expiresAt) {
+        wheel.schedule(reservationId, expiresAt.toInstant().toEpochMilli());
+    }
+
+    public void cancel(UUID reservationId) {
+        wheel.cancel(reservationId);
+    }
+
+    /**
+     * Devuelve las reservas que vencieron hasta el instante actual
+     */
+    public List<UUID> pollExpired() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+}
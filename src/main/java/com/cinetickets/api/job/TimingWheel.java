@@ -0,0 +1,139 @@
+package com.cinetickets.api.job;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rueda de tiempo jerárquica para programar vencimientos con resolución de un tick.
+ * Tiene {@value #LEVELS} niveles de {@value #WHEEL_SIZE} ranuras: el nivel 0 cubre los próximos 64 ticks,
+ * el nivel 1 los próximos 64², y así sucesivamente. Al avanzar, las ranuras de los niveles superiores
+ * se reparten hacia los inferiores, de modo que programar y cancelar cuestan O(1) sin importar
+ * cuántas entradas haya.
+ * <p>
+ * Las entradas más lejanas que el último nivel se guardan en él y se vuelven a ubicar cada vez que
+ * su ranura se reparte. La clase es segura para usar desde varios hilos.
+ */
+public class TimingWheel<K> {
+
+    private static final int LEVELS = 4;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final List<List<Entry<K>>> slots;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Programa (o reprograma) una clave para que venza en el instante indicado.
+     * Nunca vence antes: el instante se redondea hacia arriba al siguiente tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        deadlines.put(key, deadlineTick);
+        insert(new Entry<>(key, deadlineTick), null);
+    }
+
+    /**
+     * Cancela una clave programada. La entrada queda en su ranura y se descarta al alcanzarla.
+     */
+    public synchronized void cancel(K key) {
+        deadlines.remove(key);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y devuelve las claves vencidas
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Repartir primero los niveles superiores para que sus entradas lleguen al nivel 0 en este mismo tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    List<Entry<K>> slot = slot(level, currentTick);
+                    List<Entry<K>> entries = new ArrayList<>(slot);
+                    slot.clear();
+                    for (Entry<K> entry : entries) {
+                        insert(entry, expired);
+                    }
+                }
+            }
+
+            List<Entry<K>> slot = slot(0, currentTick);
+            for (Entry<K> entry : slot) {
+                collect(entry, expired);
+            }
+            slot.clear();
+        }
+        return expired;
+    }
+
+    private void insert(Entry<K> entry, List<K> expired) {
+        long delta = entry.deadlineTick - currentTick;
+
+        if (delta <= 0) {
+            if (expired != null) {
+                collect(entry, expired);
+            } else {
+                // Ya vencida: se entrega en el próximo tick
+                slot(0, currentTick + 1).add(entry);
+            }
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (WHEEL_BITS * (level + 1)))) {
+                slot(level, entry.deadlineTick).add(entry);
+                return;
+            }
+        }
+
+        // Más allá del horizonte: se ubica en la última ranura alcanzable y se reubica al repartirla
+        long horizonTick = currentTick + (1L << (WHEEL_BITS * LEVELS)) - 1;
+        slot(LEVELS - 1, horizonTick).add(entry);
+    }
+
+    private void collect(Entry<K> entry, List<K> expired) {
+        // Descartar entradas canceladas o reprogramadas
+        if (Objects.equals(deadlines.get(entry.key), entry.deadlineTick)) {
+            deadlines.remove(entry.key);
+            expired.add(entry.key);
+        }
+    }
+
+    private List<Entry<K>> slot(int level, long tick) {
+        int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        return slots.get(level * WHEEL_SIZE + index);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
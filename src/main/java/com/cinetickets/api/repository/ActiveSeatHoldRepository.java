@@ -0,0 +1,34 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.ActiveSeatHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ActiveSeatHoldRepository extends JpaRepository<ActiveSeatHold, ActiveSeatHold.SeatHoldId>,
+        ActiveSeatHoldRepositoryCustom {
+
+    @Query("SELECT h.seatId, h.status FROM ActiveSeatHold h WHERE h.showId = :showId")
+    List<Object[]> findSeatStatesByShowId(UUID showId);
+
+    @Modifying
+    @Query("UPDATE ActiveSeatHold h SET h.status = 'SOLD' WHERE h.reservationId = :reservationId")
+    int markSoldByReservationId(UUID reservationId);
+
+    @Modifying
+    @Query("DELETE FROM ActiveSeatHold h WHERE h.reservationId = :reservationId")
+    int deleteByReservationId(UUID reservationId);
+
+    // Las funciones terminadas ya no venden ni retienen: sus filas solo agrandarían la tabla
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ActiveSeatHold h WHERE h.showId IN (SELECT s.id FROM Show s WHERE s.endTime < :endedBefore)")
+    int deleteForShowsEndedBefore(ZonedDateTime endedBefore);
+}
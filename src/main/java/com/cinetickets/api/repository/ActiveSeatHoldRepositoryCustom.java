@@ -0,0 +1,16 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.ActiveSeatHold;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface ActiveSeatHoldRepositoryCustom {
+
+    /**
+     * Inserta las retenciones de todos los asientos de una reserva en una sola sentencia.
+     * Si alguno de los asientos ya está ocupado en la función la sentencia completa falla
+     * con una violación de clave duplicada.
+     */
+    void insertHolds(UUID showId, UUID reservationId, Collection<UUID> seatIds, ActiveSeatHold.HoldStatus status);
+}
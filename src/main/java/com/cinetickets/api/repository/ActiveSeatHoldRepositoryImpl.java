@@ -0,0 +1,44 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.ActiveSeatHold;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+public class ActiveSeatHoldRepositoryImpl implements ActiveSeatHoldRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertHolds(UUID showId, UUID reservationId, Collection<UUID> seatIds, ActiveSeatHold.HoldStatus status) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+
+        // INSERT multi-fila: un único viaje a la base de datos y atómico como sentencia
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < seatIds.size(); i++) {
+            values.add("(:showId, :seatId" + i + ", :reservationId, :status, :createdAt)");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "INSERT INTO active_seat_holds (show_id, seat_id, reservation_id, status, created_at) VALUES " + values);
+        query.setParameter("showId", showId);
+        query.setParameter("reservationId", reservationId);
+        query.setParameter("status", status.name());
+        query.setParameter("createdAt", ZonedDateTime.now());
+
+        int i = 0;
+        for (UUID seatId : seatIds) {
+            query.setParameter("seatId" + i++, seatId);
+        }
+
+        query.executeUpdate();
+    }
+}
@@ -0,0 +1,35 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.Cinema;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Repository
+public interface CinemaRepository extends JpaRepository<Cinema, UUID> {
+
+    @Query("SELECT c.name FROM Cinema c WHERE c.id = :id")
+    Optional<String> findNameById(UUID id);
+
+    @Query("SELECT c.id, c.name FROM Cinema c WHERE c.id IN :ids")
+    List<Object[]> findIdAndNameByIdIn(Collection<UUID> ids);
+
+    /**
+     * Resuelve los nombres de varios cines en una sola consulta
+     */
+    default Map<UUID, String> findNamesById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return findIdAndNameByIdIn(ids).stream()
+                .filter(row -> row[1] != null)
+                .collect(Collectors.toMap(row -> (UUID) row[0], row -> (String) row[1]));
+    }
+}
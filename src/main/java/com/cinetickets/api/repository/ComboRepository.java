@@ -4,6 +4,7 @@ import com.cinetickets.api.entity.Combo;
 import com.cinetickets.api.entity.Promotion;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
@@ -15,4 +16,8 @@ public interface ComboRepository extends JpaRepository<Combo, UUID> {
     List<Promotion> findByIsActiveTrue();
     List<Promotion> findByIsActiveTrueAndStartDateBeforeAndEndDateAfter(
             ZonedDateTime now, ZonedDateTime now2);
+    
+    // Combos con sus componentes para la lista de precios
+    @Query("SELECT DISTINCT c FROM Combo c LEFT JOIN FETCH c.items")
+    List<Combo> findAllWithItems();
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package com.cinetickets.api.repository;
 
 import com.cinetickets.api.entity.Movie;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,19 +16,27 @@ public interface MovieRepository extends JpaRepository<Movie, UUID> {
 
     List<Movie> findByStatus(Movie.MovieStatus status);
     
+    // La fecha llega desde la cartelera (zona local del cine), no del reloj de la base de datos
     @Query("SELECT m FROM Movie m WHERE m.status = 'ACTIVE' AND " +
-           "(m.releaseDate IS NULL OR m.releaseDate <= CURRENT_DATE) AND " +
-           "(m.endDate IS NULL OR m.endDate >= CURRENT_DATE)")
-    List<Movie> findAllCurrentlyShowing();
+           "(m.releaseDate IS NULL OR m.releaseDate <= :today) AND " +
+           "(m.endDate IS NULL OR m.endDate >= :today) ORDER BY m.title")
+    List<Movie> findAllCurrentlyShowing(LocalDate today);
     
-    @Query("SELECT m FROM Movie m WHERE m.status = 'UPCOMING' OR " +
-           "(m.status = 'ACTIVE' AND m.releaseDate > CURRENT_DATE)")
-    List<Movie> findAllComingSoon();
+    // El IN inicial permite recorrer idx_movies_status_release en lugar de toda la tabla
+    @Query("SELECT m FROM Movie m WHERE m.status IN ('UPCOMING', 'ACTIVE') AND " +
+           "(m.status = 'UPCOMING' OR m.releaseDate > :today) ORDER BY m.releaseDate, m.title")
+    List<Movie> findAllComingSoon(LocalDate today);
     
-    Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+    // Listado administrativo por cursor sobre (createdAt, id), sin OFFSET ni COUNT
+    @Query("SELECT m FROM Movie m ORDER BY m.createdAt DESC, m.id DESC")
+    List<Movie> findFirstPage(Pageable pageable);
     
-    @Query("SELECT DISTINCT m FROM Movie m JOIN Show s ON m.id = s.movie.id " +
-           "WHERE s.room.cinema.id = :cinemaId AND s.startTime >= CURRENT_TIMESTAMP " +
-           "AND m.status = 'ACTIVE' ORDER BY s.startTime")
+    @Query("SELECT m FROM Movie m WHERE m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Movie> findPageAfter(ZonedDateTime createdAt, UUID id, Pageable pageable);
+    
+    @Query("SELECT m FROM Movie m JOIN Show s ON m.id = s.movie.id " +
+           "WHERE s.room.cinemaId = :cinemaId AND s.startTime >= CURRENT_TIMESTAMP " +
+           "AND m.status = 'ACTIVE' GROUP BY m ORDER BY MIN(s.startTime)")
     List<Movie> findAllActiveInCinema(UUID cinemaId);
 }
\ No newline at end of file
@@ -1,14 +1,14 @@
 package com.cinetickets.api.repository;
 
 import com.cinetickets.api.entity.Order;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,26 +16,63 @@ import java.util.UUID;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
+       // Los finders por usuario o reserva filtran por la FK: el derivado hace LEFT JOIN y recorre orders completa
+
+       @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
        List<Order> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
-       Page<Order> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+       // Los listados de OrderResponse se leen de OrderSummaryRepository, sin joins
 
+       @Query("SELECT o FROM Order o WHERE o.id = :id AND o.user.id = :userId")
        Optional<Order> findByIdAndUserId(UUID id, UUID userId);
 
+       // Detalle de la orden con sus items; los asientos se cargan aparte para no multiplicar filas
+
+       @Query("SELECT o FROM Order o LEFT JOIN FETCH o.user JOIN FETCH o.reservation r JOIN FETCH r.show s " +
+                     "JOIN FETCH s.movie JOIN FETCH s.room LEFT JOIN FETCH o.items WHERE o.id = :id")
+       Optional<Order> findDetailsById(UUID id);
+
+       @Query("SELECT o FROM Order o LEFT JOIN FETCH o.user u JOIN FETCH o.reservation r JOIN FETCH r.show s " +
+                     "JOIN FETCH s.movie JOIN FETCH s.room LEFT JOIN FETCH o.items WHERE o.id = :id AND u.id = :userId")
+       Optional<Order> findDetailsByIdAndUserId(UUID id, UUID userId);
+
+       @Query("SELECT o FROM Order o WHERE o.reservation.id = :reservationId")
        Optional<Order> findByReservationId(UUID reservationId);
 
+       // Marca los puntos de la orden como acreditados solo si no lo estaban: reintentar no los suma dos veces
+
+       @Modifying
+       @Query("UPDATE Order o SET o.loyaltyPoints = :points WHERE o.id = :id AND o.loyaltyPoints IS NULL")
+       int awardLoyaltyPoints(UUID id, int points);
+
+       // Entradas pagadas de las funciones que se cargan en el registro de admisión de la puerta:
+       // id de la orden, id de la función y momento de admisión (null si todavía no se usaron)
+
+       @Query("SELECT o.id, r.show.id, o.admittedAt FROM Order o JOIN o.reservation r " +
+                     "WHERE r.show.id IN :showIds AND o.paymentStatus = 'PAID'")
+       List<Object[]> findPaidTicketsByShowIds(Collection<UUID> showIds);
+
+       @Query("SELECT o.id, r.show.id, o.admittedAt FROM Order o JOIN o.reservation r " +
+                     "WHERE o.id = :id AND o.paymentStatus = 'PAID'")
+       List<Object[]> findPaidTicketById(UUID id);
+
+       // Solo completa las que no estaban marcadas: un reintento o una admisión desde otro nodo no la pisa
+       @Modifying
+       @Query("UPDATE Order o SET o.admittedAt = :admittedAt WHERE o.id IN :ids AND o.admittedAt IS NULL")
+       int markAdmitted(Collection<UUID> ids, ZonedDateTime admittedAt);
+
        Optional<Order> findByQrCode(String qrCode);
 
        Optional<Order> findByPaymentReference(String paymentReference);
 
-       @Query("SELECT o FROM Order o WHERE o.reservation.show.room.cinema.id = :cinemaId " +
+       @Query("SELECT o FROM Order o WHERE o.reservation.show.room.cinemaId = :cinemaId " +
                      "AND o.createdAt BETWEEN :startDate AND :endDate AND o.status = 'COMPLETED'")
-       List<Order> findCompletedOrdersByCinemaAndDateRange(ZonedDateTime startDate,
+       List<Order> findCompletedOrdersByCinemaAndDateRange(UUID cinemaId, ZonedDateTime startDate,
                      ZonedDateTime endDate);
 
-       @Query("SELECT SUM(o.total) FROM Order o WHERE o.reservation.show.room.cinema.id = :cinemaId " +
+       @Query("SELECT SUM(o.total) FROM Order o WHERE o.reservation.show.room.cinemaId = :cinemaId " +
                      "AND o.createdAt BETWEEN :startDate AND :endDate AND o.status = 'COMPLETED' AND o.paymentStatus = 'PAID'")
-       Optional<BigDecimal> calculateTotalSalesByCinemaAndDateRange(ZonedDateTime startDate,
+       Optional<BigDecimal> calculateTotalSalesByCinemaAndDateRange(UUID cinemaId, ZonedDateTime startDate,
                      ZonedDateTime endDate);
 
        @Query(value = "SELECT DAYOFWEEK(o.created_at) as day_of_week, COUNT(*) as order_count " +
@@ -47,5 +84,5 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
                      "AND o.created_at BETWEEN :startDate AND :endDate " +
                      "GROUP BY DAYOFWEEK(o.created_at) " +
                      "ORDER BY order_count DESC", nativeQuery = true)
-       List<Object[]> findMostPopularDaysOfWeek(ZonedDateTime startDate, ZonedDateTime endDate);
+       List<Object[]> findMostPopularDaysOfWeek(UUID cinemaId, ZonedDateTime startDate, ZonedDateTime endDate);
 }
\ No newline at end of file
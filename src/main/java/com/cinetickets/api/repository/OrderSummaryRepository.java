@@ -0,0 +1,55 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.OrderSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, UUID> {
+
+       // Listados paginados: cada uno recorre su índice (filtro, created_at, id) en una sola tabla
+
+       Page<OrderSummary> findByUserIdOrderByCreatedAtDescIdDesc(UUID userId, Pageable pageable);
+
+       Page<OrderSummary> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+       Page<OrderSummary> findByCinemaIdOrderByCreatedAtDescIdDesc(UUID cinemaId, Pageable pageable);
+
+       Page<OrderSummary> findByOrderStatusOrderByCreatedAtDescIdDesc(Order.OrderStatus orderStatus, Pageable pageable);
+
+       Page<OrderSummary> findByCinemaIdAndOrderStatusOrderByCreatedAtDescIdDesc(UUID cinemaId,
+                     Order.OrderStatus orderStatus, Pageable pageable);
+
+       // Paginación por cursor sobre (createdAt, id): sin OFFSET ni COUNT, cada página lee solo sus filas
+
+       @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId ORDER BY s.createdAt DESC, s.id DESC")
+       List<OrderSummary> findFirstPageByUserId(UUID userId, Pageable pageable);
+
+       @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId AND (s.createdAt < :createdAt " +
+                     "OR (s.createdAt = :createdAt AND s.id < :id)) ORDER BY s.createdAt DESC, s.id DESC")
+       List<OrderSummary> findPageByUserIdAfter(UUID userId, ZonedDateTime createdAt, UUID id, Pageable pageable);
+
+       @Query("SELECT s FROM OrderSummary s ORDER BY s.createdAt DESC, s.id DESC")
+       List<OrderSummary> findFirstPage(Pageable pageable);
+
+       @Query("SELECT s FROM OrderSummary s WHERE s.createdAt < :createdAt " +
+                     "OR (s.createdAt = :createdAt AND s.id < :id) ORDER BY s.createdAt DESC, s.id DESC")
+       List<OrderSummary> findPageAfter(ZonedDateTime createdAt, UUID id, Pageable pageable);
+
+       // Cambio de estado de la orden en una sola sentencia, sin leer el resumen
+
+       @Modifying
+       @Query("UPDATE OrderSummary s SET s.paymentStatus = :paymentStatus, s.orderStatus = :orderStatus, " +
+                     "s.updatedAt = :updatedAt WHERE s.id = :id")
+       int updateStatuses(UUID id, Order.PaymentStatus paymentStatus, Order.OrderStatus orderStatus,
+                     ZonedDateTime updatedAt);
+}
@@ -4,6 +4,7 @@ import com.cinetickets.api.entity.Product;
 import com.cinetickets.api.entity.Promotion;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
@@ -12,6 +13,7 @@ import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isActive = true")
     List<Product> findByCategoryIdAndIsActiveTrue(UUID categoryId);
     List<Promotion> findByIsActiveTrue();
     List<Promotion> findByIsActiveTrueAndStartDateBeforeAndEndDateAfter(
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,18 +15,53 @@ import java.util.UUID;
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
     
+    // Los finders por usuario o función filtran por la FK: el derivado hace LEFT JOIN y puede recorrer la tabla
+    
+    @Query("SELECT r FROM Reservation r WHERE r.user.id = :userId AND r.status IN :statuses")
     List<Reservation> findByUserIdAndStatusIn(UUID userId, List<Reservation.ReservationStatus> statuses);
     
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id AND r.user.id = :userId")
     Optional<Reservation> findByIdAndUserId(UUID id, UUID userId);
     
+    // Reserva completa para ReservationResponse: la orden inversa y los asientos vienen en el mismo SELECT
+    
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user JOIN FETCH r.show s JOIN FETCH s.movie " +
+           "JOIN FETCH s.room LEFT JOIN FETCH r.order LEFT JOIN FETCH r.reservedSeats rs " +
+           "LEFT JOIN FETCH rs.seat LEFT JOIN FETCH rs.ticketType WHERE r.id = :id")
+    Optional<Reservation> findDetailsById(UUID id);
+    
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user u JOIN FETCH r.show s JOIN FETCH s.movie " +
+           "JOIN FETCH s.room LEFT JOIN FETCH r.order LEFT JOIN FETCH r.reservedSeats rs " +
+           "LEFT JOIN FETCH rs.seat LEFT JOIN FETCH rs.ticketType WHERE r.id = :id AND u.id = :userId")
+    Optional<Reservation> findDetailsByIdAndUserId(UUID id, UUID userId);
+    
+    /**
+     * Inicializa los asientos de una reserva ya cargada, con su butaca y tipo de entrada
+     */
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.reservedSeats rs " +
+           "LEFT JOIN FETCH rs.seat LEFT JOIN FETCH rs.ticketType WHERE r.id = :id")
+    Optional<Reservation> fetchReservedSeats(UUID id);
+    
+    @Query("SELECT rs.reservation.id, COUNT(rs) FROM ReservedSeat rs " +
+           "WHERE rs.reservation.id IN :reservationIds GROUP BY rs.reservation.id")
+    List<Object[]> countSeatsByReservationIds(Collection<UUID> reservationIds);
+    
+    @Query("SELECT r.show.id FROM Reservation r WHERE r.id = :id")
+    Optional<UUID> findShowIdById(UUID id);
+    
+    @Query("SELECT r FROM Reservation r WHERE r.show.id = :showId AND r.status IN :statuses")
     List<Reservation> findByShowIdAndStatusIn(UUID showId, List<Reservation.ReservationStatus> statuses);
     
-    @Query("SELECT r FROM Reservation r WHERE r.expiresAt < :now AND r.status = 'PENDING'")
-    List<Reservation> findExpiredReservations(ZonedDateTime now);
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = 'PENDING' AND r.expiresAt < :now")
+    List<UUID> findExpiredReservationIds(ZonedDateTime now);
+    
+    @Query("SELECT r.id, r.expiresAt FROM Reservation r WHERE r.status = 'PENDING'")
+    List<Object[]> findPendingExpirations();
     
     @Modifying
-    @Query("UPDATE Reservation r SET r.status = 'EXPIRED' WHERE r.expiresAt < :now AND r.status = 'PENDING'")
-    int expireReservations(ZonedDateTime now);
+    @Query("UPDATE Reservation r SET r.status = 'EXPIRED', r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status = 'PENDING' AND r.expiresAt <= :now")
+    int expireIfPending(UUID id, ZonedDateTime now);
     
     @Query("SELECT COUNT(rs) FROM ReservedSeat rs WHERE rs.reservation.show.id = :showId " +
            "AND rs.seat.id = :seatId AND rs.reservation.status IN ('PENDING', 'CONFIRMED')")
@@ -11,8 +11,12 @@ import java.util.UUID;
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, UUID> {
     
+    // Filtrar por la FK directamente: el finder derivado hace LEFT JOIN a rooms y recorre seats completa
+    
+    @Query("SELECT s FROM Seat s WHERE s.room.id = :roomId")
     List<Seat> findByRoomId(UUID roomId);
     
+    @Query("SELECT s FROM Seat s WHERE s.room.id = :roomId AND s.status = :status")
     List<Seat> findByRoomIdAndStatus(UUID roomId, Seat.SeatStatus status);
 
     @Query("SELECT rs.seat.id FROM ReservedSeat rs " +
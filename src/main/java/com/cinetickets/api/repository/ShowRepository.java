@@ -1,35 +1,75 @@
 package com.cinetickets.api.repository;
 
 import com.cinetickets.api.entity.Show;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ShowRepository extends JpaRepository<Show, UUID> {
+public interface ShowRepository extends JpaRepository<Show, UUID>, JpaSpecificationExecutor<Show> {
     
-    List<Show> findByMovieIdAndStartTimeGreaterThanEqualOrderByStartTime(UUID movieId, ZonedDateTime startTime);
+    // Las consultas que alimentan ShowResponse traen película y sala en el mismo SELECT
     
+    @EntityGraph(attributePaths = { "movie", "room" })
+    Optional<Show> findWithMovieAndRoomById(UUID id);
+    
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.room " +
+           "WHERE s.movie.id = :movieId AND s.status = 'SCHEDULED' " +
+           "AND s.startTime >= :startTime AND s.startTime < :endTime ORDER BY s.startTime")
+    List<Show> findAllActiveForMovieInDateRange(UUID movieId, ZonedDateTime startTime, ZonedDateTime endTime);
+    
+    @Query("SELECT s FROM Show s WHERE s.room.id = :roomId AND s.startTime BETWEEN :start AND :end")
     List<Show> findByRoomIdAndStartTimeBetween(UUID roomId, ZonedDateTime start, ZonedDateTime end);
     
-    @Query("SELECT s FROM Show s WHERE s.room.cinema.id = :cinemaId AND s.status = 'SCHEDULED' " +
+    // Franjas ocupadas de una sala para el índice de agenda: id, inicio y fin de las funciones programadas
+    @Query("SELECT s.id, s.startTime, s.endTime FROM Show s WHERE s.room.id = :roomId " +
+           "AND s.status = 'SCHEDULED' AND s.endTime >= :from")
+    List<Object[]> findScheduledIntervalsForRoom(UUID roomId, ZonedDateTime from);
+    
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.room r " +
+           "WHERE r.cinemaId = :cinemaId AND s.status = 'SCHEDULED' " +
            "AND s.startTime >= :startTime AND s.startTime <= :endTime ORDER BY s.startTime")
     List<Show> findAllActiveInCinemaForDateRange(UUID cinemaId, ZonedDateTime startTime, ZonedDateTime endTime);
     
-    @Query("SELECT s FROM Show s WHERE s.room.cinema.id = :cinemaId AND s.movie.id = :movieId " + 
-           "AND s.status = 'SCHEDULED' AND s.startTime >= CURRENT_TIMESTAMP ORDER BY s.startTime")
-    List<Show> findAllActiveInCinemaForMovie(UUID cinemaId, UUID movieId);
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie m JOIN FETCH s.room r " +
+           "WHERE r.cinemaId = :cinemaId AND m.id = :movieId " + 
+           "AND s.status = 'SCHEDULED' AND s.startTime >= :startTime AND s.startTime < :endTime " +
+           "ORDER BY s.startTime")
+    List<Show> findAllActiveInCinemaForMovieInDateRange(UUID cinemaId, UUID movieId, ZonedDateTime startTime,
+                                                        ZonedDateTime endTime);
     
-    @Query("SELECT s FROM Show s WHERE s.status = 'SCHEDULED' AND s.startTime >= :startTime " +
-           "AND s.startTime <= :endTime ORDER BY s.room.cinema.id, s.startTime")
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.room r " +
+           "WHERE s.status = 'SCHEDULED' AND s.startTime >= :startTime " +
+           "AND s.startTime <= :endTime ORDER BY r.cinemaId, s.startTime")
     List<Show> findAllActiveForDateRange(ZonedDateTime startTime, ZonedDateTime endTime);
     
-    @Query("SELECT s FROM Show s " +
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.room " +
            "WHERE s.status = 'SCHEDULED' AND s.startTime <= CURRENT_TIMESTAMP " +
            "AND s.endTime >= CURRENT_TIMESTAMP")
     List<Show> findAllShowsCurrentlyPlaying();
+    
+    // Funciones que empiezan dentro del rango y todavía no terminaron, para el registro de admisión de la puerta
+    @Query("SELECT s FROM Show s WHERE s.status = 'SCHEDULED' AND s.startTime >= :startsFrom " +
+           "AND s.startTime <= :startsBefore AND s.endTime >= :endsAfter")
+    List<Show> findAllForAdmission(ZonedDateTime startsFrom, ZonedDateTime startsBefore, ZonedDateTime endsAfter);
+    
+    // Atributos de las funciones programadas para las facetas de la cartelera: película, tipo de sala, 3D,
+    // subtítulos e idioma
+    @Query("SELECT s.movie.id, r.roomType, s.is3d, s.isSubtitled, s.language FROM Show s JOIN s.room r " +
+           "WHERE s.status = 'SCHEDULED' AND s.startTime >= :from")
+    List<Object[]> findFacetAttributesFrom(ZonedDateTime from);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Show s SET s.capacity = :capacity, s.seatsSold = :sold, s.seatsHeld = :held WHERE s.id = :id")
+    int updateOccupancy(UUID id, int capacity, int sold, int held);
 }
\ No newline at end of file
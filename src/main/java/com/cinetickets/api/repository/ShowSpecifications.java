@@ -0,0 +1,67 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Show;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filtro dinámico de funciones para {@link ShowRepository#findAll(Specification,
+ * org.springframework.data.domain.Pageable)}. El rango de inicio y los estados siempre se aplican, así
+ * la consulta usa idx_shows_movie_start, idx_shows_room_start o idx_shows_status_start según el filtro.
+ * Los criterios null no filtran.
+ */
+public final class ShowSpecifications {
+
+    private ShowSpecifications() {
+    }
+
+    public static Specification<Show> matching(UUID cinemaId, UUID movieId, ZonedDateTime from, ZonedDateTime to,
+                                               Collection<Show.ShowStatus> statuses, Boolean is3d,
+                                               Boolean isSubtitled, String language, Room.RoomType roomType) {
+        return (root, query, cb) -> {
+            // Película y sala en el mismo SELECT; la consulta de conteo solo une la sala
+            Join<Show, Room> room;
+            if (Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType())) {
+                room = root.join("room");
+            } else {
+                root.fetch("movie", JoinType.INNER);
+                Fetch<Show, Room> fetchedRoom = root.fetch("room", JoinType.INNER);
+                room = (Join<Show, Room>) fetchedRoom;
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.greaterThanOrEqualTo(root.get("startTime"), from));
+            predicates.add(cb.lessThan(root.get("startTime"), to));
+            predicates.add(root.get("status").in(statuses));
+            if (cinemaId != null) {
+                predicates.add(cb.equal(room.get("cinemaId"), cinemaId));
+            }
+            if (movieId != null) {
+                predicates.add(cb.equal(root.get("movie").get("id"), movieId));
+            }
+            if (is3d != null) {
+                predicates.add(cb.equal(root.get("is3d"), is3d));
+            }
+            if (isSubtitled != null) {
+                predicates.add(cb.equal(root.get("isSubtitled"), isSubtitled));
+            }
+            if (language != null && !language.isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("language")), language.trim().toLowerCase()));
+            }
+            if (roomType != null) {
+                predicates.add(cb.equal(room.get("roomType"), roomType));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
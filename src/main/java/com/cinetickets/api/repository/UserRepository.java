@@ -2,6 +2,8 @@ package com.cinetickets.api.repository;
 
 import com.cinetickets.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +17,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByEmail(String email);
     
     Optional<User> findByAuthProviderAndAuthProviderId(String authProvider, String authProviderId);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.loyaltyPoints = COALESCE(u.loyaltyPoints, 0) + :points WHERE u.id = :id")
+    int addLoyaltyPoints(UUID id, int points);
 }
\ No newline at end of file
@@ -51,10 +51,14 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
             .authorizeHttpRequests()
+                // Sala de espera: el ticket se emite a nombre del usuario
+                .requestMatchers("/api/shows/*/queue").authenticated()
                 // Rutas públicas que no requieren autenticación
                 .requestMatchers(
                     "/api/auth/**",
                     "/api/movies",
+                    "/api/movies/suggest",
+                    "/api/movies/browse",
                     "/api/movies/*/shows",
                     "/api/shows/**",
                     "/api/products/**",
@@ -2,6 +2,7 @@ package com.cinetickets.api.service;
 
 import com.cinetickets.api.dto.response.OrderDetailsResponse;
 import com.cinetickets.api.entity.User;
+import com.cinetickets.api.service.qr.TicketQrRenderer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +26,7 @@ public class EmailService {
 
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
+    private final TicketQrRenderer ticketQrRenderer;
     
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -35,7 +37,7 @@ public class EmailService {
     /**
      * Envía un correo electrónico de bienvenida al usuario registrado
      */
-    @Async
+    @Async("mailExecutor")
     public void sendWelcomeEmail(User user) {
         try {
             Map<String, Object> variables = new HashMap<>();
@@ -57,40 +59,40 @@ public class EmailService {
     }
 
     /**
-     * Envía un correo electrónico con la confirmación de compra y las entradas
+     * Envía un correo electrónico con la confirmación de compra y las entradas.
+     * No es asíncrono: lo llama el pipeline post-compra desde su executor de correo, que reintenta si falla
      */
-    @Async
     public void sendTicketConfirmationEmail(User user, OrderDetailsResponse order) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", user.getFirstName());
+        variables.put("orderId", order.getId());
+        variables.put("movieTitle", order.getShowDetails().getMovieTitle());
+        variables.put("date", order.getShowDetails().getStartTime());
+        variables.put("cinema", order.getShowDetails().getCinemaName());
+        variables.put("room", order.getShowDetails().getRoomName());
+        variables.put("seats", order.getReservedSeats());
+        variables.put("qrCode", order.getQrCode() != null ? ticketQrRenderer.pngDataUri(order.getQrCode()) : null);
+        variables.put("baseUrl", baseUrl);
+        
+        String htmlContent = processTemplate("ticket-confirmation", variables);
+        
         try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("name", user.getFirstName());
-            variables.put("orderId", order.getId());
-            variables.put("movieTitle", order.getShowDetails().getMovieTitle());
-            variables.put("date", order.getShowDetails().getStartTime());
-            variables.put("cinema", order.getShowDetails().getCinemaName());
-            variables.put("room", order.getShowDetails().getRoomName());
-            variables.put("seats", order.getReservedSeats());
-            variables.put("qrCode", order.getQrCode());
-            variables.put("baseUrl", baseUrl);
-            
-            String htmlContent = processTemplate("ticket-confirmation", variables);
-            
             sendHtmlEmail(
                     user.getEmail(),
                     "Confirmación de Compra - CineTickets",
                     htmlContent
             );
-            
-            log.info("Ticket confirmation email sent to {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending ticket confirmation email to {}", user.getEmail(), e);
+        } catch (MessagingException e) {
+            throw new IllegalStateException("Could not build ticket confirmation email for " + user.getEmail(), e);
         }
+        
+        log.info("Ticket confirmation email sent to {}", user.getEmail());
     }
 
     /**
      * Envía un correo electrónico para recuperar la contraseña
      */
-    @Async
+    @Async("mailExecutor")
     public void sendPasswordResetEmail(User user, String token) {
         try {
             Map<String, Object> variables = new HashMap<>();
@@ -115,7 +117,7 @@ public class EmailService {
     /**
      * Envía un correo electrónico con una encuesta post-servicio
      */
-    @Async
+    @Async("mailExecutor")
     public void sendSurveyEmail(User user, UUID orderId) {
         try {
             Map<String, Object> variables = new HashMap<>();
@@ -1,12 +1,18 @@
 package com.cinetickets.api.service;
 
 import com.cinetickets.api.dto.request.MovieRequest;
+import com.cinetickets.api.dto.response.CatalogBrowseResponse;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.MovieDetailResponse;
 import com.cinetickets.api.dto.response.MovieResponse;
+import com.cinetickets.api.service.catalog.Billboard;
+import com.cinetickets.api.service.catalog.BillboardSnapshot;
+import com.cinetickets.api.service.catalog.CatalogFacet;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface MovieService {
@@ -15,12 +21,22 @@ public interface MovieService {
     
     List<MovieResponse> getAllComingSoon();
     
+    BillboardSnapshot getBillboard(Billboard billboard);
+    
     MovieDetailResponse getMovieById(UUID id);
     
     Page<MovieResponse> getAllMovies(Pageable pageable);
     
+    CursorPageResponse<MovieResponse> getAllMoviesByCursor(String cursor, int size);
+    
     Page<MovieResponse> searchMovies(String query, Pageable pageable);
     
+    List<MovieResponse> suggestMovies(String query, int limit);
+    
+    CatalogBrowseResponse browseMovies(Map<CatalogFacet, List<String>> filters);
+    
+    void refreshCatalog();
+    
     UUID createMovie(MovieRequest movieRequest);
     
     void updateMovie(UUID id, MovieRequest movieRequest);
@@ -1,6 +1,7 @@
 package com.cinetickets.api.service;
 
 import com.cinetickets.api.dto.request.OrderRequest;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.OrderDetailsResponse;
 import com.cinetickets.api.dto.response.OrderResponse;
 import org.springframework.data.domain.Page;
@@ -47,6 +48,14 @@ public interface OrderService {
      */
     OrderDetailsResponse getOrderDetailsWithQrById(UUID orderId, UUID userId);
     
+    /**
+     * Obtiene el contenido firmado de las entradas de una orden pagada, a partir del cual se genera el QR
+     * @param orderId ID de la orden
+     * @param userId ID del usuario (puede ser null para staff)
+     * @return Contenido a codificar en el QR
+     */
+    String getTicketToken(UUID orderId, UUID userId);
+    
     /**
      * Obtiene las órdenes de un usuario paginadas
      * @param userId ID del usuario
@@ -63,6 +72,23 @@ public interface OrderService {
      * @return Página de órdenes
      */
     Page<OrderResponse> getAllOrders(UUID cinemaId, String status, Pageable pageable);
+
+    /**
+     * Historial de órdenes del usuario por cursor, sin contar el total
+     * @param userId ID del usuario
+     * @param cursor Token devuelto por la página anterior (null para la primera)
+     * @param size Cantidad de órdenes por página
+     * @return Página de órdenes con el cursor de la siguiente
+     */
+    CursorPageResponse<OrderResponse> getUserOrdersByCursor(UUID userId, String cursor, int size);
+
+    /**
+     * Todas las órdenes por cursor, de la más reciente a la más antigua
+     * @param cursor Token devuelto por la página anterior (null para la primera)
+     * @param size Cantidad de órdenes por página
+     * @return Página de órdenes con el cursor de la siguiente
+     */
+    CursorPageResponse<OrderResponse> getAllOrdersByCursor(String cursor, int size);
     
     /**
      * Cancela una orden
@@ -5,11 +5,15 @@ import com.cinetickets.api.dto.response.PaymentResponse;
 import com.cinetickets.api.entity.Order;
 import com.cinetickets.api.exception.PaymentProcessingException;
 import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.service.order.OrderPaidEvent;
+import com.cinetickets.api.service.order.OrderRefundedEvent;
+import com.cinetickets.api.service.order.OrderSummaryWriter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -27,6 +31,9 @@ import java.util.UUID;
 public class PaymentService {
 
     private final OrderRepository orderRepository;
+    private final OrderSummaryWriter orderSummaryWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QrCodeService qrCodeService;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
@@ -137,9 +144,26 @@ public class PaymentService {
                 paymentStatus = Order.PaymentStatus.PENDING;
         }
         
+        boolean newlyPaid = paymentStatus == Order.PaymentStatus.PAID
+                && order.getPaymentStatus() != Order.PaymentStatus.PAID;
+        boolean noLongerPaid = paymentStatus != Order.PaymentStatus.PAID
+                && order.getPaymentStatus() == Order.PaymentStatus.PAID;
         order.setPaymentStatus(paymentStatus);
         order.setPaymentReference(paymentId);
+        if (newlyPaid && order.getQrCode() == null) {
+            // Contenido firmado de las entradas; la imagen del QR se genera a pedido
+            order.setQrCode(qrCodeService.generateTicketToken(order.getId(),
+                    order.getReservation().getShow().getId(), System.currentTimeMillis()));
+        }
         orderRepository.save(order);
+        orderSummaryWriter.statusChanged(order);
+        
+        if (newlyPaid) {
+            eventPublisher.publishEvent(new OrderPaidEvent(order.getId()));
+        }
+        if (noLongerPaid) {
+            eventPublisher.publishEvent(new OrderRefundedEvent(order.getId()));
+        }
     }
     
     /**
@@ -204,6 +228,8 @@ public class PaymentService {
             order.setPaymentStatus(Order.PaymentStatus.REFUNDED);
             order.setStatus(Order.OrderStatus.CANCELED);
             orderRepository.save(order);
+            orderSummaryWriter.statusChanged(order);
+            eventPublisher.publishEvent(new OrderRefundedEvent(order.getId()));
             
             log.info("Payment for order {} refunded", orderId);
         } catch (Exception e) {
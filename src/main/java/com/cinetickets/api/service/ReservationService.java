@@ -1,5 +1,6 @@
 package com.cinetickets.api.service;
 
+import com.cinetickets.api.dto.request.BestAvailableReservationRequest;
 import com.cinetickets.api.dto.request.ReservationRequest;
 import com.cinetickets.api.dto.response.ReservationResponse;
 
@@ -15,6 +16,14 @@ public interface ReservationService {
      */
     ReservationResponse createReservation(ReservationRequest request, UUID userId);
     
+    /**
+     * Crea una reserva temporal eligiendo automáticamente los mejores asientos juntos
+     * @param request Solicitud con showId, cantidad de asientos y tipo de entrada
+     * @param userId ID del usuario (puede ser null para usuarios anónimos)
+     * @return Respuesta con los detalles de la reserva
+     */
+    ReservationResponse createBestAvailableReservation(BestAvailableReservationRequest request, UUID userId);
+    
     /**
      * Crea una reserva para punto de venta (taquilla)
      * @param request Solicitud de reserva
@@ -44,6 +53,12 @@ public interface ReservationService {
      */
     void confirmReservation(UUID id);
     
+    /**
+     * Expira una reserva si sigue pendiente y ya venció
+     * @param id ID de la reserva
+     */
+    void expireReservation(UUID id);
+    
     /**
      * Verifica y expira las reservas vencidas
      */
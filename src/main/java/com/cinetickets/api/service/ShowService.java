@@ -1,5 +1,6 @@
 package com.cinetickets.api.service;
 
+import com.cinetickets.api.dto.request.ShowFilterRequest;
 import com.cinetickets.api.dto.request.ShowRequest;
 import com.cinetickets.api.dto.response.SeatResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
@@ -23,10 +24,12 @@ public interface ShowService {
     
     List<ShowResponse> getCurrentlyPlayingShows();
     
-    Page<ShowResponse> getAllShowsByFilter(UUID cinemaId, UUID movieId, String date, Pageable pageable);
+    Page<ShowResponse> getAllShowsByFilter(ShowFilterRequest filter, Pageable pageable);
     
     UUID createShow(ShowRequest showRequest);
     
+    List<UUID> createShows(List<ShowRequest> showRequests);
+    
     void updateShow(UUID id, ShowRequest showRequest);
     
     void cancelShow(UUID id);
@@ -0,0 +1,167 @@
+package com.cinetickets.api.service.cache;
+
+import com.cinetickets.api.dto.response.ShowResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de las carteleras de funciones (listas de ShowResponse) por cine, película y fecha.
+ * Tiene tamaño máximo y vencimiento por tiempo, y se invalida de forma puntual cuando se crea,
+ * modifica, cancela o elimina una función. Las métricas se publican como {@code cache.*{cache=showtimes}}.
+ * <p>
+ * Cada cartelera se guarda junto con la versión de su película y su cine en esa fecha, y invalidar
+ * cambia la versión. Una carga que empezó antes de la invalidación (y leyó el estado anterior) queda
+ * guardada con la versión vieja, que ya nadie consulta, en lugar de pisar la cartelera nueva.
+ */
+@Slf4j
+@Component
+public class ShowtimeCache {
+
+    private static final String CACHE_NAME = "showtimes";
+
+    private final Cache<VersionedKey, List<ShowResponse>> cache;
+    // Versión de las carteleras de cada película y de cada cine por fecha; sin entrada es 0.
+    // Duran más que cualquier cartelera guardada, así cuando una vence ya no queda nada con una versión anterior
+    private final Cache<VersionScope, Long> versions;
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final AtomicLong playingVersion = new AtomicLong();
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    public ShowtimeCache(MeterRegistry meterRegistry,
+                         @Value("${app.cache.showtimes.max-size:2000}") long maxSize,
+                         @Value("${app.cache.showtimes.ttl-minutes:10}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes * 2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Funciones activas de una película en una fecha
+     */
+    public static ShowtimeKey forMovie(UUID movieId, LocalDate date) {
+        return new ShowtimeKey(Scope.MOVIE, null, movieId, date, 0);
+    }
+
+    /**
+     * Funciones activas de una película en un cine en una fecha
+     */
+    public static ShowtimeKey forMovieInCinema(UUID movieId, UUID cinemaId, LocalDate date) {
+        return new ShowtimeKey(Scope.MOVIE_IN_CINEMA, cinemaId, movieId, date, 0);
+    }
+
+    /**
+     * Funciones activas de un cine en una fecha
+     */
+    public static ShowtimeKey forCinema(UUID cinemaId, LocalDate date) {
+        return new ShowtimeKey(Scope.CINEMA, cinemaId, null, date, 0);
+    }
+
+    /**
+     * Funciones en curso. La clave cambia cada minuto para que la lista siga al reloj.
+     */
+    public static ShowtimeKey currentlyPlaying() {
+        return new ShowtimeKey(Scope.PLAYING, null, null, null, System.currentTimeMillis() / 60_000);
+    }
+
+    public List<ShowResponse> get(ShowtimeKey key, Supplier<List<ShowResponse>> loader) {
+        return cache.get(versioned(key), k -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Invalida las carteleras en las que aparece (o aparecería) una función del cine y la película
+     * indicados que empieza en la fecha dada
+     */
+    public void invalidateShow(UUID cinemaId, UUID movieId, LocalDate date) {
+        long version = versionCounter.incrementAndGet();
+        versions.put(new VersionScope(movieId, date), version);
+        versions.put(new VersionScope(cinemaId, date), version);
+        playingVersion.set(version);
+
+        // Las entradas anteriores ya no se consultan; se quitan para liberar memoria
+        cache.asMap().keySet().removeIf(versioned -> {
+            ShowtimeKey key = versioned.getKey();
+            return switch (key.getScope()) {
+                case MOVIE -> key.getMovieId().equals(movieId) && key.getDate().equals(date);
+                case MOVIE_IN_CINEMA -> key.getMovieId().equals(movieId) && key.getCinemaId().equals(cinemaId)
+                        && key.getDate().equals(date);
+                case CINEMA -> key.getCinemaId().equals(cinemaId) && key.getDate().equals(date);
+                case PLAYING -> true;
+            };
+        });
+        log.debug("Invalidated showtimes for cinema {}, movie {} on {}", cinemaId, movieId, date);
+    }
+
+    public void invalidateAll() {
+        // Con una versión global nueva, ninguna carga en curso queda visible
+        globalVersion.set(versionCounter.incrementAndGet());
+        cache.invalidateAll();
+    }
+
+    private VersionedKey versioned(ShowtimeKey key) {
+        long movieVersion = key.getMovieId() != null ? versionOf(key.getMovieId(), key.getDate()) : 0;
+        long cinemaVersion = key.getCinemaId() != null ? versionOf(key.getCinemaId(), key.getDate()) : 0;
+        if (key.getScope() == Scope.PLAYING) {
+            movieVersion = playingVersion.get();
+        }
+        return new VersionedKey(key, globalVersion.get(), movieVersion, cinemaVersion);
+    }
+
+    private long versionOf(UUID id, LocalDate date) {
+        Long version = versions.getIfPresent(new VersionScope(id, date));
+        return version != null ? version : 0;
+    }
+
+    public enum Scope {
+        MOVIE, MOVIE_IN_CINEMA, CINEMA, PLAYING
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static class ShowtimeKey {
+        private final Scope scope;
+        private final UUID cinemaId;
+        private final UUID movieId;
+        private final LocalDate date;
+        private final long minute;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class VersionedKey {
+        private final ShowtimeKey key;
+        private final long globalVersion;
+        private final long movieVersion;
+        private final long cinemaVersion;
+    }
+
+    // Película o cine (los ids no se repiten entre ambos) en una fecha
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class VersionScope {
+        private final UUID id;
+        private final LocalDate date;
+    }
+}
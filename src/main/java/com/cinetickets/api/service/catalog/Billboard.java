@@ -0,0 +1,9 @@
+package com.cinetickets.api.service.catalog;
+
+/**
+ * Listados públicos de la cartelera que se sirven como snapshots
+ */
+public enum Billboard {
+    CURRENTLY_SHOWING,
+    COMING_SOON
+}
@@ -0,0 +1,22 @@
+package com.cinetickets.api.service.catalog;
+
+import com.cinetickets.api.dto.response.MovieResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Cartelera inmutable ya serializada, con su ETag fuerte calculado sobre el JSON.
+ * El arreglo json no debe modificarse: se escribe tal cual en cada respuesta.
+ */
+@Getter
+@AllArgsConstructor
+public class BillboardSnapshot {
+
+    private final List<MovieResponse> movies;
+    private final byte[] json;
+    private final String etag;
+    private final ZonedDateTime builtAt;
+}
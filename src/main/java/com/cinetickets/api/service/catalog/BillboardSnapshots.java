@@ -0,0 +1,78 @@
+package com.cinetickets.api.service.catalog;
+
+import com.cinetickets.api.dto.response.MovieResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Carteleras de "en cartel" y "próximamente" materializadas en memoria. Se reconstruyen a la
+ * medianoche local y con cada cambio del catálogo; entre reconstrucciones cada pedido devuelve los
+ * mismos bytes y el mismo ETag, así los clientes revalidan con 304 sin tocar la base de datos.
+ */
+@Slf4j
+@Component
+public class BillboardSnapshots {
+
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
+    private final Map<Billboard, BillboardSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public BillboardSnapshots(ObjectMapper objectMapper,
+                              @Value("${app.catalog.zone:America/Argentina/Buenos_Aires}") String zone) {
+        this.objectMapper = objectMapper;
+        this.zone = ZoneId.of(zone);
+    }
+
+    /**
+     * Fecha local de la cartelera: decide qué películas están en cartel o por estrenarse
+     */
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    public void publish(Billboard billboard, List<MovieResponse> movies) {
+        BillboardSnapshot snapshot = build(movies);
+        snapshots.put(billboard, snapshot);
+        log.debug("Published {} billboard with {} movies, etag {}", billboard, movies.size(), snapshot.getEtag());
+    }
+
+    /**
+     * Devuelve el snapshot publicado o lo arma con el loader si todavía no hay uno (arranque)
+     */
+    public BillboardSnapshot get(Billboard billboard, Supplier<List<MovieResponse>> loader) {
+        BillboardSnapshot snapshot = snapshots.get(billboard);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        BillboardSnapshot loaded = build(loader.get());
+        BillboardSnapshot published = snapshots.putIfAbsent(billboard, loaded);
+        return published != null ? published : loaded;
+    }
+
+    private BillboardSnapshot build(List<MovieResponse> movies) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(movies);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new BillboardSnapshot(List.copyOf(movies), json, etag, ZonedDateTime.now(zone));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize billboard", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
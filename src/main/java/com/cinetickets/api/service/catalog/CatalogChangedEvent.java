@@ -0,0 +1,16 @@
+package com.cinetickets.api.service.catalog;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Se creó, modificó o archivó una película o una función: las vistas en memoria del catálogo
+ * deben recalcularse una vez confirmada la transacción. El id es null cuando el cambio abarca
+ * varias películas, como una programación masiva de funciones
+ */
+@Value
+public class CatalogChangedEvent {
+
+    UUID movieId;
+}
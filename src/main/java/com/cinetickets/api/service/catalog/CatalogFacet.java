@@ -0,0 +1,20 @@
+package com.cinetickets.api.service.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Filtros de la cartelera; param es el nombre del parámetro de consulta y de la clave en la respuesta
+ */
+@Getter
+@AllArgsConstructor
+public enum CatalogFacet {
+    GENRE("genre"),
+    LANGUAGE("language"),
+    IS_3D("is3d"),
+    SUBTITLED("subtitled"),
+    RATING("rating"),
+    ROOM_TYPE("roomType");
+
+    private final String param;
+}
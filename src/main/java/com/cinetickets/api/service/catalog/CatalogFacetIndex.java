@@ -0,0 +1,135 @@
+package com.cinetickets.api.service.catalog;
+
+import com.cinetickets.api.dto.response.CatalogBrowseResponse;
+import com.cinetickets.api.dto.response.MovieResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Facetas de la cartelera vigente: un bitmap por cada valor de cada faceta, con un bit por película.
+ * Dentro de una faceta los valores elegidos se combinan con OR y entre facetas con AND. El conteo de
+ * cada valor ignora los filtros de su propia faceta, así el cliente ve cuánto sumaría al marcarlo.
+ * Se reemplaza completo en cada recálculo; las lecturas no toman locks.
+ */
+@Component
+public class CatalogFacetIndex {
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), emptyBitmaps());
+
+    /**
+     * Reemplaza el índice con las películas dadas, en el orden en que se listarán
+     */
+    public void rebuild(List<Document> documents) {
+        Map<CatalogFacet, Map<String, BitSet>> bitmaps = emptyBitmaps();
+        List<MovieResponse> movies = new ArrayList<>(documents.size());
+        for (int bit = 0; bit < documents.size(); bit++) {
+            Document document = documents.get(bit);
+            movies.add(document.getMovie());
+            for (Map.Entry<CatalogFacet, Set<String>> facet : document.getValues().entrySet()) {
+                Map<String, BitSet> values = bitmaps.get(facet.getKey());
+                for (String value : facet.getValue()) {
+                    values.computeIfAbsent(value, v -> new BitSet(documents.size())).set(bit);
+                }
+            }
+        }
+        snapshot = new Snapshot(List.copyOf(movies), bitmaps);
+    }
+
+    public int size() {
+        return snapshot.movies.size();
+    }
+
+    /**
+     * Películas que cumplen los filtros y conteo por valor de cada faceta
+     */
+    public CatalogBrowseResponse browse(Map<CatalogFacet, ? extends Collection<String>> filters) {
+        Snapshot current = snapshot;
+
+        Map<CatalogFacet, BitSet> selections = new EnumMap<>(CatalogFacet.class);
+        filters.forEach((facet, selected) -> {
+            if (selected == null || selected.isEmpty()) {
+                return;
+            }
+            BitSet union = new BitSet();
+            for (String value : selected) {
+                BitSet bits = current.bitmaps.get(facet).get(value.trim());
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            selections.put(facet, union);
+        });
+
+        BitSet result = matching(current, selections, null);
+        List<MovieResponse> movies = new ArrayList<>(result.cardinality());
+        result.stream().forEach(bit -> movies.add(current.movies.get(bit)));
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            BitSet base = matching(current, selections, facet);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            current.bitmaps.get(facet).forEach((value, bits) -> {
+                BitSet hits = (BitSet) bits.clone();
+                hits.and(base);
+                counts.put(value, hits.cardinality());
+            });
+            facets.put(facet.getParam(), counts);
+        }
+
+        return CatalogBrowseResponse.builder()
+                .movies(movies)
+                .total(movies.size())
+                .facets(facets)
+                .build();
+    }
+
+    /**
+     * Intersección de las selecciones, salvo la de la faceta excluida (null para aplicarlas todas)
+     */
+    private static BitSet matching(Snapshot current, Map<CatalogFacet, BitSet> selections, CatalogFacet excluded) {
+        BitSet bits = new BitSet(current.movies.size());
+        bits.set(0, current.movies.size());
+        selections.forEach((facet, selected) -> {
+            if (facet != excluded) {
+                bits.and(selected);
+            }
+        });
+        return bits;
+    }
+
+    private static Map<CatalogFacet, Map<String, BitSet>> emptyBitmaps() {
+        Map<CatalogFacet, Map<String, BitSet>> bitmaps = new EnumMap<>(CatalogFacet.class);
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            // Los valores se comparan sin distinguir mayúsculas y se listan ordenados
+            bitmaps.put(facet, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Una película de la cartelera con los valores que toma en cada faceta
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Document {
+        private final MovieResponse movie;
+        private final Map<CatalogFacet, Set<String>> values;
+    }
+
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final List<MovieResponse> movies;
+        private final Map<CatalogFacet, Map<String, BitSet>> bitmaps;
+    }
+}
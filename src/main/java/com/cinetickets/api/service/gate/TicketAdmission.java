@@ -0,0 +1,26 @@
+package com.cinetickets.api.service.gate;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Resultado de presentar una entrada en la puerta
+ */
+@Value
+public class TicketAdmission {
+
+    public enum Status {
+        ADMITTED, ALREADY_USED, WRONG_SHOW, TOO_EARLY, EXPIRED, NOT_PAID, INVALID
+    }
+
+    Status status;
+    UUID orderId;
+    // Función de la entrada, que con WRONG_SHOW no es la de la puerta
+    UUID showId;
+    // Momento en que se usó la entrada, con ADMITTED y ALREADY_USED
+    Instant admittedAt;
+    // Apertura de puertas de la función, con TOO_EARLY
+    Instant doorsOpenAt;
+}
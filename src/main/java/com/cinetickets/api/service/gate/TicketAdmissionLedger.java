@@ -0,0 +1,302 @@
+package com.cinetickets.api.service.gate;
+
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.repository.ShowRepository;
+import com.cinetickets.api.service.order.OrderRefundedEvent;
+import com.cinetickets.api.service.qr.TicketTokenCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro en memoria de las entradas usadas en la puerta, por función.
+ * <p>
+ * Tiene cargadas las entradas pagadas de las funciones con puertas abiertas o por abrir pronto (ver
+ * AdmissionLedgerJob); cada entrada se marca como usada con un compare-and-set, así dos lectores que escanean
+ * el mismo QR a la vez admiten solo uno. Escanear no accede a la base: las admisiones se escriben en
+ * {@code orders.admitted_at} en lotes, fuera del hilo de la puerta. Solo se consulta la base si la función
+ * o la orden no están cargadas (compras de último momento, funciones que el precargado todavía no tomó).
+ * Las órdenes reembolsadas después de cargarse se recuerdan aparte y se rechazan como no pagadas.
+ * <p>
+ * El registro es por nodo: con varios nodos las puertas de una misma sala deben atenderse desde el mismo.
+ * Métricas: {@code gate.admissions{result}} y {@code gate.admissions.pending} (admisiones sin escribir).
+ */
+@Slf4j
+@Service
+public class TicketAdmissionLedger {
+
+    // Ninguna función dura más que esto: acota hacia atrás la búsqueda de funciones en curso
+    private static final Duration MAX_SHOW_LENGTH = Duration.ofHours(12);
+    private static final long NOT_ADMITTED = 0;
+
+    private final ConcurrentMap<UUID, ShowTickets> shows = new ConcurrentHashMap<>();
+    private final Queue<PendingAdmission> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Map<TicketAdmission.Status, Counter> results = new EnumMap<>(TicketAdmission.Status.class);
+    // Órdenes reembolsadas -> momento del reembolso. Se conservan mientras pueda quedar cargada como pagada
+    // una función que las incluya, es decir, hasta que termine cualquier función que ya podía estar cargada
+    private final ConcurrentMap<UUID, Instant> refunded = new ConcurrentHashMap<>();
+
+    private final OrderRepository orderRepository;
+    private final ShowRepository showRepository;
+    private final TransactionTemplate transaction;
+    private final Duration doorsOpenBefore;
+    private final Duration preloadAhead;
+    private final Duration refundRetention;
+    private final int flushBatchSize;
+
+    public TicketAdmissionLedger(OrderRepository orderRepository,
+                                 ShowRepository showRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.gate.doors-open-minutes:30}") long doorsOpenMinutes,
+                                 @Value("${app.gate.preload-ahead-minutes:60}") long preloadAheadMinutes,
+                                 @Value("${app.gate.flush-batch-size:500}") int flushBatchSize) {
+        this.orderRepository = orderRepository;
+        this.showRepository = showRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.doorsOpenBefore = Duration.ofMinutes(doorsOpenMinutes);
+        this.preloadAhead = Duration.ofMinutes(preloadAheadMinutes);
+        this.refundRetention = MAX_SHOW_LENGTH.plus(doorsOpenBefore).plus(preloadAhead);
+        this.flushBatchSize = flushBatchSize;
+        for (TicketAdmission.Status status : TicketAdmission.Status.values()) {
+            results.put(status, Counter.builder("gate.admissions")
+                    .description("Tickets presented at the gate by result")
+                    .tag("result", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gate.admissions.pending", pendingCount, AtomicInteger::get)
+                .description("Admissions not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra la entrada como usada si corresponde a la función de la puerta y la función tiene las puertas abiertas
+     *
+     * @param ticket Entrada con la firma ya verificada
+     * @param gateShowId Función que atiende la puerta, o null para aceptar cualquiera
+     */
+    public TicketAdmission admit(TicketTokenCodec.TicketToken ticket, UUID gateShowId) {
+        return admit(ticket, gateShowId, Instant.now());
+    }
+
+    TicketAdmission admit(TicketTokenCodec.TicketToken ticket, UUID gateShowId, Instant now) {
+        TicketAdmission admission = decide(ticket, gateShowId, now);
+        results.get(admission.getStatus()).increment();
+        return admission;
+    }
+
+    private TicketAdmission decide(TicketTokenCodec.TicketToken ticket, UUID gateShowId, Instant now) {
+        UUID orderId = ticket.getOrderId();
+        UUID showId = ticket.getShowId();
+        if (gateShowId != null && !gateShowId.equals(showId)) {
+            return result(TicketAdmission.Status.WRONG_SHOW, orderId, showId);
+        }
+
+        if (refunded.containsKey(orderId)) {
+            return result(TicketAdmission.Status.NOT_PAID, orderId, showId);
+        }
+
+        ShowTickets show = shows.get(showId);
+        if (show == null) {
+            Optional<Show> entity = showRepository.findById(showId);
+            if (entity.isEmpty()) {
+                return result(TicketAdmission.Status.INVALID, orderId, showId);
+            }
+            Instant endsAt = entity.get().getEndTime().toInstant();
+            if (now.isAfter(endsAt)) {
+                return result(TicketAdmission.Status.EXPIRED, orderId, showId);
+            }
+            // Se carga fuera del mapa para no bloquear a otras funciones; si otro escaneo la publicó antes, vale esa.
+            // Queda cargada aunque sea temprano, así los próximos escaneos no vuelven a la base
+            ShowTickets loaded = loadShow(showId, entity.get().getStartTime().toInstant().minus(doorsOpenBefore),
+                    endsAt);
+            ShowTickets existing = shows.putIfAbsent(showId, loaded);
+            show = existing != null ? existing : loaded;
+        }
+
+        if (now.isBefore(show.doorsOpenAt)) {
+            return new TicketAdmission(TicketAdmission.Status.TOO_EARLY, orderId, showId, null, show.doorsOpenAt);
+        }
+        if (now.isAfter(show.endsAt)) {
+            return result(TicketAdmission.Status.EXPIRED, orderId, showId);
+        }
+
+        AtomicLong admittedAt = show.tickets.get(orderId);
+        if (admittedAt == null) {
+            // Pagada después de cargar la función, o no pagada: se consulta en la base
+            List<Object[]> rows = orderRepository.findPaidTicketById(orderId);
+            if (rows.isEmpty()) {
+                return result(TicketAdmission.Status.NOT_PAID, orderId, showId);
+            }
+            Object[] row = rows.get(0);
+            if (!showId.equals(row[1])) {
+                return result(TicketAdmission.Status.WRONG_SHOW, orderId, (UUID) row[1]);
+            }
+            admittedAt = show.tickets.computeIfAbsent(orderId, id -> new AtomicLong(epochSecond(row[2])));
+        }
+
+        long second = now.getEpochSecond();
+        if (admittedAt.compareAndSet(NOT_ADMITTED, second)) {
+            pending.add(new PendingAdmission(orderId, second));
+            pendingCount.incrementAndGet();
+            return new TicketAdmission(TicketAdmission.Status.ADMITTED, orderId, showId,
+                    Instant.ofEpochSecond(second), null);
+        }
+        return new TicketAdmission(TicketAdmission.Status.ALREADY_USED, orderId, showId,
+                Instant.ofEpochSecond(admittedAt.get()), null);
+    }
+
+    /**
+     * Deja de aceptar las entradas de una orden reembolsada, una vez confirmado el reembolso
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderRefunded(OrderRefundedEvent event) {
+        refund(event.getOrderId(), Instant.now());
+    }
+
+    void refund(UUID orderId, Instant now) {
+        refunded.put(orderId, now);
+        log.info("Tickets of refunded order {} revoked at the gate", orderId);
+    }
+
+    /**
+     * Carga las funciones cuyas puertas abren antes de {@code app.gate.preload-ahead-minutes} y descarta las terminadas
+     */
+    public void preload() {
+        preload(Instant.now());
+    }
+
+    void preload(Instant now) {
+        shows.values().removeIf(show -> now.isAfter(show.endsAt));
+        refunded.values().removeIf(refundedAt -> refundedAt.plus(refundRetention).isBefore(now));
+
+        ZonedDateTime from = now.atZone(ZoneId.systemDefault());
+        List<Show> upcoming = showRepository.findAllForAdmission(from.minus(MAX_SHOW_LENGTH),
+                from.plus(doorsOpenBefore).plus(preloadAhead), from);
+        Map<UUID, ShowTickets> loaded = new LinkedHashMap<>();
+        for (Show show : upcoming) {
+            if (!shows.containsKey(show.getId())) {
+                loaded.put(show.getId(), new ShowTickets(show.getStartTime().toInstant().minus(doorsOpenBefore),
+                        show.getEndTime().toInstant()));
+            }
+        }
+        if (loaded.isEmpty()) {
+            return;
+        }
+
+        int tickets = 0;
+        for (Object[] row : orderRepository.findPaidTicketsByShowIds(loaded.keySet())) {
+            loaded.get((UUID) row[1]).tickets.put((UUID) row[0], new AtomicLong(epochSecond(row[2])));
+            tickets++;
+        }
+        // Si una función se cargó por un escaneo mientras tanto, se conserva esa
+        loaded.forEach(shows::putIfAbsent);
+        log.info("Admission ledger loaded {} shows with {} paid tickets", loaded.size(), tickets);
+    }
+
+    /**
+     * Escribe las admisiones pendientes en lotes, una sentencia por segundo de admisión.
+     * Si la escritura falla, el lote vuelve a la cola para el próximo intento.
+     */
+    public synchronized void flush() {
+        while (!pending.isEmpty()) {
+            Map<Long, List<UUID>> bySecond = new LinkedHashMap<>();
+            PendingAdmission next;
+            int drained = 0;
+            while (drained < flushBatchSize && (next = pending.poll()) != null) {
+                bySecond.computeIfAbsent(next.epochSecond, second -> new ArrayList<>()).add(next.orderId);
+                drained++;
+            }
+            try {
+                transaction.executeWithoutResult(status -> bySecond.forEach((second, orderIds) -> {
+                    int updated = orderRepository.markAdmitted(orderIds, Instant.ofEpochSecond(second)
+                            .atZone(ZoneId.systemDefault()));
+                    if (updated < orderIds.size()) {
+                        log.warn("{} of {} admissions at {} were already recorded", orderIds.size() - updated,
+                                orderIds.size(), Instant.ofEpochSecond(second));
+                    }
+                }));
+                pendingCount.addAndGet(-drained);
+            } catch (RuntimeException e) {
+                bySecond.forEach((second, orderIds) ->
+                        orderIds.forEach(orderId -> pending.add(new PendingAdmission(orderId, second))));
+                log.warn("Failed to write {} admissions, will retry: {}", drained, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int pendingAdmissions() {
+        return pendingCount.get();
+    }
+
+    private ShowTickets loadShow(UUID showId, Instant doorsOpenAt, Instant endsAt) {
+        ShowTickets show = new ShowTickets(doorsOpenAt, endsAt);
+        for (Object[] row : orderRepository.findPaidTicketsByShowIds(List.of(showId))) {
+            show.tickets.put((UUID) row[0], new AtomicLong(epochSecond(row[2])));
+        }
+        return show;
+    }
+
+    private static long epochSecond(Object admittedAt) {
+        return admittedAt != null ? ((ZonedDateTime) admittedAt).toEpochSecond() : NOT_ADMITTED;
+    }
+
+    private static TicketAdmission result(TicketAdmission.Status status, UUID orderId, UUID showId) {
+        return new TicketAdmission(status, orderId, showId, null, null);
+    }
+
+    private static final class ShowTickets {
+        private final Instant doorsOpenAt;
+        private final Instant endsAt;
+        // Segundo epoch en que se usó cada entrada (orden), o NOT_ADMITTED
+        private final ConcurrentMap<UUID, AtomicLong> tickets = new ConcurrentHashMap<>();
+
+        private ShowTickets(Instant doorsOpenAt, Instant endsAt) {
+            this.doorsOpenAt = doorsOpenAt;
+            this.endsAt = endsAt;
+        }
+    }
+
+    private static final class PendingAdmission {
+        private final UUID orderId;
+        private final long epochSecond;
+
+        private PendingAdmission(UUID orderId, long epochSecond) {
+            this.orderId = orderId;
+            this.epochSecond = epochSecond;
+        }
+    }
+}
@@ -1,41 +1,129 @@
 package com.cinetickets.api.service.impl;
 
 import com.cinetickets.api.dto.request.MovieRequest;
+import com.cinetickets.api.dto.response.CatalogBrowseResponse;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.MovieDetailResponse;
 import com.cinetickets.api.dto.response.MovieResponse;
 import com.cinetickets.api.entity.Movie;
+import com.cinetickets.api.entity.Room;
 import com.cinetickets.api.exception.ResourceNotFoundException;
 import com.cinetickets.api.repository.MovieRepository;
+import com.cinetickets.api.repository.ShowRepository;
 import com.cinetickets.api.service.MovieService;
+import com.cinetickets.api.service.catalog.Billboard;
+import com.cinetickets.api.service.catalog.BillboardSnapshot;
+import com.cinetickets.api.service.catalog.BillboardSnapshots;
+import com.cinetickets.api.service.catalog.CatalogChangedEvent;
+import com.cinetickets.api.service.catalog.CatalogFacet;
+import com.cinetickets.api.service.catalog.CatalogFacetIndex;
+import com.cinetickets.api.service.pagination.SeekCursor;
+import com.cinetickets.api.service.search.MovieSearchIndex;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MovieServiceImpl implements MovieService {
 
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final MovieRepository movieRepository;
+    private final ShowRepository showRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final BillboardSnapshots billboardSnapshots;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Override
+    /**
+     * Carga el índice de búsqueda con el catálogo vigente al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
     @Transactional(readOnly = true)
+    public void buildSearchIndex() {
+        movieSearchIndex.clear();
+        for (Movie movie : movieRepository.findAll()) {
+            if (movie.getStatus() != Movie.MovieStatus.ARCHIVED) {
+                movieSearchIndex.put(mapToMovieResponse(movie), movie.getDirector(), movie.getCast());
+            }
+        }
+        log.info("Indexed {} movies for search", movieSearchIndex.size());
+    }
+
+    @Override
     public List<MovieResponse> getAllCurrentlyShowing() {
-        return movieRepository.findAllCurrentlyShowing().stream()
-                .map(this::mapToMovieResponse)
-                .collect(Collectors.toList());
+        return getBillboard(Billboard.CURRENTLY_SHOWING).getMovies();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<MovieResponse> getAllComingSoon() {
-        return movieRepository.findAllComingSoon().stream()
+        return getBillboard(Billboard.COMING_SOON).getMovies();
+    }
+
+    @Override
+    public BillboardSnapshot getBillboard(Billboard billboard) {
+        return billboardSnapshots.get(billboard, () -> loadBillboard(billboard, billboardSnapshots.today()));
+    }
+
+    @Override
+    public CatalogBrowseResponse browseMovies(Map<CatalogFacet, List<String>> filters) {
+        return catalogFacetIndex.browse(filters);
+    }
+
+    /**
+     * Recalcula las vistas en memoria del catálogo: las carteleras publicadas y las facetas de las
+     * películas en cartel con sus funciones programadas.
+     * Corre en su propia transacción porque se invoca después del commit de la que cambió el catálogo.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void refreshCatalog() {
+        LocalDate today = billboardSnapshots.today();
+        List<Movie> currentlyShowing = movieRepository.findAllCurrentlyShowing(today);
+        billboardSnapshots.publish(Billboard.CURRENTLY_SHOWING, currentlyShowing.stream()
+                .map(this::mapToMovieResponse)
+                .collect(Collectors.toList()));
+        billboardSnapshots.publish(Billboard.COMING_SOON, loadBillboard(Billboard.COMING_SOON, today));
+        
+        Map<UUID, List<Object[]>> showsByMovie = showRepository.findFacetAttributesFrom(ZonedDateTime.now()).stream()
+                .collect(Collectors.groupingBy(row -> (UUID) row[0]));
+        
+        List<CatalogFacetIndex.Document> documents = currentlyShowing.stream()
+                .map(movie -> new CatalogFacetIndex.Document(mapToMovieResponse(movie),
+                        facetValuesOf(movie, showsByMovie.getOrDefault(movie.getId(), List.of()))))
+                .collect(Collectors.toList());
+        
+        catalogFacetIndex.rebuild(documents);
+        log.debug("Rebuilt catalog views for {} with {} movies showing", today, documents.size());
+    }
+
+    private List<MovieResponse> loadBillboard(Billboard billboard, LocalDate today) {
+        List<Movie> movies = billboard == Billboard.CURRENTLY_SHOWING
+                ? movieRepository.findAllCurrentlyShowing(today)
+                : movieRepository.findAllComingSoon(today);
+        return movies.stream()
                 .map(this::mapToMovieResponse)
                 .collect(Collectors.toList());
     }
@@ -58,9 +146,27 @@ public class MovieServiceImpl implements MovieService {
 
     @Override
     @Transactional(readOnly = true)
+    public CursorPageResponse<MovieResponse> getAllMoviesByCursor(String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Movie> movies = after == null
+                ? movieRepository.findFirstPage(SeekCursor.probe(size))
+                : movieRepository.findPageAfter(after.getCreatedAt(), after.getId(), SeekCursor.probe(size));
+        return SeekCursor.page(movies, size, Movie::getCreatedAt, Movie::getId,
+                page -> page.stream().map(this::mapToMovieResponse).collect(Collectors.toList()));
+    }
+
+    // Solo lee el índice en memoria: sin transacción no se toma una conexión del pool
+    @Override
     public Page<MovieResponse> searchMovies(String query, Pageable pageable) {
-        return movieRepository.findByTitleContainingIgnoreCase(query, pageable)
-                .map(this::mapToMovieResponse);
+        List<MovieResponse> matches = movieSearchIndex.search(query, Integer.MAX_VALUE);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matches.size()) : matches.size();
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+
+    @Override
+    public List<MovieResponse> suggestMovies(String query, int limit) {
+        return movieSearchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
     }
 
     @Override
@@ -73,6 +179,8 @@ public class MovieServiceImpl implements MovieService {
         movie.setUpdatedAt(ZonedDateTime.now());
         
         Movie savedMovie = movieRepository.save(movie);
+        reindexAfterCommit(savedMovie);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedMovie.getId()));
         return savedMovie.getId();
     }
 
@@ -85,7 +193,8 @@ public class MovieServiceImpl implements MovieService {
         mapMovieRequestToEntity(movieRequest, movie);
         movie.setUpdatedAt(ZonedDateTime.now());
         
-        movieRepository.save(movie);
+        reindexAfterCommit(movieRepository.save(movie));
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
     }
 
     @Override
@@ -98,7 +207,74 @@ public class MovieServiceImpl implements MovieService {
         movie.setStatus(Movie.MovieStatus.ARCHIVED);
         movie.setUpdatedAt(ZonedDateTime.now());
         
-        movieRepository.save(movie);
+        reindexAfterCommit(movieRepository.save(movie));
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
+    }
+
+    /**
+     * Actualiza el índice de búsqueda cuando la transacción se confirma; las archivadas salen del índice
+     */
+    private void reindexAfterCommit(Movie movie) {
+        UUID movieId = movie.getId();
+        boolean archived = movie.getStatus() == Movie.MovieStatus.ARCHIVED;
+        MovieResponse response = mapToMovieResponse(movie);
+        String director = movie.getDirector();
+        String cast = movie.getCast();
+        Runnable reindex = () -> {
+            if (archived) {
+                movieSearchIndex.remove(movieId);
+            } else {
+                movieSearchIndex.put(response, director, cast);
+            }
+        };
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex.run();
+                }
+            });
+        } else {
+            reindex.run();
+        }
+    }
+
+    /**
+     * Valores de cada faceta para una película. Formato, subtítulos e idioma salen de sus funciones
+     * programadas (una película con funciones 2D y 3D aparece en ambas); sin funciones, de la película.
+     */
+    private Map<CatalogFacet, Set<String>> facetValuesOf(Movie movie, List<Object[]> shows) {
+        Map<CatalogFacet, Set<String>> values = new EnumMap<>(CatalogFacet.class);
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            values.put(facet, new HashSet<>());
+        }
+        
+        if (movie.getGenre() != null) {
+            for (String genre : movie.getGenre().split(",")) {
+                addValue(values, CatalogFacet.GENRE, genre);
+            }
+        }
+        addValue(values, CatalogFacet.RATING, movie.getRating());
+        
+        if (shows.isEmpty()) {
+            addValue(values, CatalogFacet.IS_3D, String.valueOf(Boolean.TRUE.equals(movie.getIs3d())));
+            addValue(values, CatalogFacet.SUBTITLED, String.valueOf(Boolean.TRUE.equals(movie.getIsSubtitled())));
+            addValue(values, CatalogFacet.LANGUAGE, movie.getLanguage());
+        }
+        for (Object[] show : shows) {
+            addValue(values, CatalogFacet.ROOM_TYPE, ((Room.RoomType) show[1]).name());
+            addValue(values, CatalogFacet.IS_3D, String.valueOf(Boolean.TRUE.equals(show[2])));
+            addValue(values, CatalogFacet.SUBTITLED, String.valueOf(Boolean.TRUE.equals(show[3])));
+            addValue(values, CatalogFacet.LANGUAGE, show[4] != null ? (String) show[4] : movie.getLanguage());
+        }
+        return values;
+    }
+
+    private static void addValue(Map<CatalogFacet, Set<String>> values, CatalogFacet facet, String value) {
+        if (value != null && !value.isBlank()) {
+            values.get(facet).add(value.trim());
+        }
     }
 
     private MovieResponse mapToMovieResponse(Movie movie) {
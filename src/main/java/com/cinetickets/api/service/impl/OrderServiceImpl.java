@@ -1,18 +1,26 @@
 package com.cinetickets.api.service.impl;
 
 import com.cinetickets.api.dto.request.OrderRequest;
+import com.cinetickets.api.dto.response.CursorPageResponse;
 import com.cinetickets.api.dto.response.OrderDetailsResponse;
 import com.cinetickets.api.dto.response.OrderResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
 import com.cinetickets.api.entity.*;
+import com.cinetickets.api.exception.InvalidFilterException;
 import com.cinetickets.api.exception.ResourceNotFoundException;
 import com.cinetickets.api.repository.*;
 import com.cinetickets.api.service.OrderService;
 import com.cinetickets.api.service.PromotionService;
 import com.cinetickets.api.service.QrCodeService;
 import com.cinetickets.api.service.ReservationService;
+import com.cinetickets.api.service.order.OrderPaidEvent;
+import com.cinetickets.api.service.order.OrderSummaryWriter;
+import com.cinetickets.api.service.pagination.SeekCursor;
+import com.cinetickets.api.service.pricing.PriceBook;
+import com.cinetickets.api.service.pricing.PriceBookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,7 +29,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -39,6 +51,11 @@ public class OrderServiceImpl implements OrderService {
     private final PromotionService promotionService;
     private final QrCodeService qrCodeService;
     private final ShowRepository showRepository;
+    private final CinemaRepository cinemaRepository;
+    private final PriceBookService priceBookService;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderSummaryWriter orderSummaryWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -64,8 +81,9 @@ public class OrderServiceImpl implements OrderService {
         // Obtener el usuario (si existe)
         User user = userId != null ? userRepository.findById(userId).orElse(null) : null;
         
-        // Procesar los items adicionales (productos, combos)
-        List<OrderItem> orderItems = processOrderItems(orderRequest, null);
+        // Procesar los items adicionales (productos, combos) con la lista de precios vigente
+        PriceBook priceBook = priceBookService.current();
+        List<OrderItem> orderItems = processOrderItems(orderRequest, null, priceBook);
         
         // Calcular subtotal de la reserva (entradas)
         BigDecimal subtotalTickets = calculateTicketsSubtotal(reservation);
@@ -101,6 +119,7 @@ public class OrderServiceImpl implements OrderService {
                 .paymentStatus(Order.PaymentStatus.PENDING)
                 .orderType(Order.OrderType.ONLINE)
                 .notes(orderRequest.getNotes())
+                .priceBookVersion(priceBook.getVersion())
                 .status(Order.OrderStatus.PENDING)
                 .createdAt(ZonedDateTime.now())
                 .updatedAt(ZonedDateTime.now())
@@ -116,7 +135,7 @@ public class OrderServiceImpl implements OrderService {
         // Confirmar la reserva
         reservationService.confirmReservation(reservation.getId());
         
-        return mapToOrderResponse(savedOrder);
+        return mapToOrderResponse(orderSummaryWriter.created(savedOrder));
     }
 
     @Override
@@ -141,8 +160,9 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Either reservationId or showId with seats must be provided");
         }
         
-        // Procesar los items de la orden
-        List<OrderItem> orderItems = processOrderItems(orderRequest, null);
+        // Procesar los items de la orden con la lista de precios vigente
+        PriceBook priceBook = priceBookService.current();
+        List<OrderItem> orderItems = processOrderItems(orderRequest, null, priceBook);
         
         // Calcular subtotal de la reserva (entradas)
         BigDecimal subtotalTickets = calculateTicketsSubtotal(reservation);
@@ -179,18 +199,14 @@ public class OrderServiceImpl implements OrderService {
                 .paymentStatus(Order.PaymentStatus.PAID) // En taquilla, el pago es inmediato
                 .orderType(Order.OrderType.IN_PERSON)
                 .notes(orderRequest.getNotes())
+                .priceBookVersion(priceBook.getVersion())
                 .status(Order.OrderStatus.COMPLETED)
                 .createdAt(ZonedDateTime.now())
                 .updatedAt(ZonedDateTime.now())
                 .build();
         
-        // Generar código QR para la entrada
-        String qrCode = qrCodeService.generateTicketQrCode(
-                order.getId(), 
-                reservation.getShow().getId(),
-                System.currentTimeMillis()
-        );
-        order.setQrCode(qrCode);
+        // Contenido firmado de la entrada; la imagen del QR se genera a pedido
+        order.setQrCode(ticketTokenFor(order));
         
         // Añadir los items a la orden
         orderItems.forEach(item -> item.setOrder(order));
@@ -199,13 +215,16 @@ public class OrderServiceImpl implements OrderService {
         // Guardar la orden
         Order savedOrder = orderRepository.save(order);
         
-        return mapToOrderResponse(savedOrder);
+        // Puntos y email de confirmación se procesan después del commit (ver PostPurchasePipeline)
+        eventPublisher.publishEvent(new OrderPaidEvent(savedOrder.getId()));
+        
+        return mapToOrderResponse(orderSummaryWriter.created(savedOrder));
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderDetailsResponse getOrderDetailsById(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         
         return mapToOrderDetailsResponse(order, false);
@@ -218,11 +237,11 @@ public class OrderServiceImpl implements OrderService {
         
         if (userId != null) {
             // Usuario normal solo puede ver sus propias órdenes
-            order = orderRepository.findByIdAndUserId(orderId, userId)
+            order = orderRepository.findDetailsByIdAndUserId(orderId, userId)
                     .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         } else {
             // Staff puede ver cualquier orden
-            order = orderRepository.findById(orderId)
+            order = orderRepository.findDetailsById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         }
         
@@ -236,11 +255,11 @@ public class OrderServiceImpl implements OrderService {
         
         if (userId != null) {
             // Usuario normal solo puede ver sus propias órdenes
-            order = orderRepository.findByIdAndUserId(orderId, userId)
+            order = orderRepository.findDetailsByIdAndUserId(orderId, userId)
                     .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         } else {
             // Staff puede ver cualquier orden
-            order = orderRepository.findById(orderId)
+            order = orderRepository.findDetailsById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         }
         
@@ -252,20 +271,78 @@ public class OrderServiceImpl implements OrderService {
         return mapToOrderDetailsResponse(order, true);
     }
 
+    @Override
+    @Transactional
+    public String getTicketToken(UUID orderId, UUID userId) {
+        Order order;
+        
+        if (userId != null) {
+            // Usuario normal solo puede ver sus propias entradas
+            order = orderRepository.findByIdAndUserId(orderId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        } else {
+            order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        }
+        
+        if (order.getPaymentStatus() != Order.PaymentStatus.PAID) {
+            throw new IllegalStateException("Cannot get tickets for unpaid order");
+        }
+        
+        // Órdenes pagadas antes de guardar el contenido firmado: se emite la primera vez que se pide
+        if (order.getQrCode() == null) {
+            order.setQrCode(ticketTokenFor(order));
+            orderRepository.save(order);
+        }
+        return order.getQrCode();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(UUID userId, Pageable pageable) {
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
+        return orderSummaryRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, pageable)
                 .map(this::mapToOrderResponse);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(UUID cinemaId, String status, Pageable pageable) {
-        // Aquí se implementaría filtrado basado en cinemaId y status
-        // Para simplificar, retornamos todas las órdenes
-        return orderRepository.findAll(pageable)
-                .map(this::mapToOrderResponse);
+        Order.OrderStatus orderStatus = parseOrderStatus(status);
+        Page<OrderSummary> summaries;
+        if (cinemaId != null && orderStatus != null) {
+            summaries = orderSummaryRepository.findByCinemaIdAndOrderStatusOrderByCreatedAtDescIdDesc(cinemaId,
+                    orderStatus, pageable);
+        } else if (cinemaId != null) {
+            summaries = orderSummaryRepository.findByCinemaIdOrderByCreatedAtDescIdDesc(cinemaId, pageable);
+        } else if (orderStatus != null) {
+            summaries = orderSummaryRepository.findByOrderStatusOrderByCreatedAtDescIdDesc(orderStatus, pageable);
+        } else {
+            summaries = orderSummaryRepository.findAllByOrderByCreatedAtDescIdDesc(pageable);
+        }
+        return summaries.map(this::mapToOrderResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getUserOrdersByCursor(UUID userId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<OrderSummary> summaries = after == null
+                ? orderSummaryRepository.findFirstPageByUserId(userId, SeekCursor.probe(size))
+                : orderSummaryRepository.findPageByUserIdAfter(userId, after.getCreatedAt(), after.getId(),
+                        SeekCursor.probe(size));
+        return SeekCursor.page(summaries, size, OrderSummary::getCreatedAt, OrderSummary::getId,
+                this::mapToOrderResponses);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getAllOrdersByCursor(String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<OrderSummary> summaries = after == null
+                ? orderSummaryRepository.findFirstPage(SeekCursor.probe(size))
+                : orderSummaryRepository.findPageAfter(after.getCreatedAt(), after.getId(), SeekCursor.probe(size));
+        return SeekCursor.page(summaries, size, OrderSummary::getCreatedAt, OrderSummary::getId,
+                this::mapToOrderResponses);
     }
 
     @Override
@@ -279,6 +356,7 @@ public class OrderServiceImpl implements OrderService {
             order.setStatus(Order.OrderStatus.CANCELED);
             order.setUpdatedAt(ZonedDateTime.now());
             orderRepository.save(order);
+            orderSummaryWriter.statusChanged(order);
             
             log.info("Order {} has been cancelled", orderId);
         } else {
@@ -303,23 +381,28 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(Order.OrderStatus.COMPLETED);
         order.setUpdatedAt(ZonedDateTime.now());
         
-        // Generar código QR para las entradas
-        String qrCode = qrCodeService.generateTicketQrCode(
-                order.getId(), 
-                order.getReservation().getShow().getId(),
-                System.currentTimeMillis()
-        );
-        order.setQrCode(qrCode);
+        // Contenido firmado de las entradas; la imagen del QR se genera a pedido
+        order.setQrCode(ticketTokenFor(order));
         
         orderRepository.save(order);
+        orderSummaryWriter.statusChanged(order);
+        
+        // Puntos y email de confirmación se procesan después del commit (ver PostPurchasePipeline)
+        eventPublisher.publishEvent(new OrderPaidEvent(orderId));
         
         log.info("Order {} has been marked as paid", orderId);
     }
     
+    private String ticketTokenFor(Order order) {
+        return qrCodeService.generateTicketToken(order.getId(), order.getReservation().getShow().getId(),
+                System.currentTimeMillis());
+    }
+    
     /**
-     * Procesa los items de la orden (productos, combos)
+     * Procesa los items de la orden (productos, combos), cotizados todos contra la misma versión de la
+     * lista de precios y sin consultar la base
      */
-    private List<OrderItem> processOrderItems(OrderRequest orderRequest, Order order) {
+    private List<OrderItem> processOrderItems(OrderRequest orderRequest, Order order, PriceBook priceBook) {
         List<OrderItem> orderItems = new ArrayList<>();
         
         // Procesar products y combos si están presentes
@@ -334,21 +417,21 @@ public class OrderServiceImpl implements OrderService {
                 
                 // Determinar tipo de item
                 if ("PRODUCT".equals(itemRequest.getItemType())) {
-                    Product product = productRepository.findById(itemRequest.getItemId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemRequest.getItemId()));
+                    PriceBook.Item product = priceBook.product(itemRequest.getItemId());
                     
                     orderItem.setItemType(OrderItem.ItemType.PRODUCT);
                     orderItem.setItemId(product.getId());
+                    orderItem.setItemName(product.getName());
                     orderItem.setUnitPrice(product.getPrice());
-                    orderItem.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+                    orderItem.setSubtotal(product.priceFor(itemRequest.getQuantity()));
                 } else if ("COMBO".equals(itemRequest.getItemType())) {
-                    Combo combo = comboRepository.findById(itemRequest.getItemId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Combo", "id", itemRequest.getItemId()));
+                    PriceBook.Item combo = priceBook.combo(itemRequest.getItemId());
                     
                     orderItem.setItemType(OrderItem.ItemType.COMBO);
                     orderItem.setItemId(combo.getId());
+                    orderItem.setItemName(combo.getName());
                     orderItem.setUnitPrice(combo.getPrice());
-                    orderItem.setSubtotal(combo.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+                    orderItem.setSubtotal(combo.priceFor(itemRequest.getQuantity()));
                 } else {
                     throw new IllegalArgumentException("Invalid item type: " + itemRequest.getItemType());
                 }
@@ -379,33 +462,47 @@ public class OrderServiceImpl implements OrderService {
     }
     
     /**
-     * Mapea una entidad Order a un DTO OrderResponse
+     * Estado de orden recibido como filtro; null si no se filtra
      */
-    private OrderResponse mapToOrderResponse(Order order) {
-        Reservation reservation = order.getReservation();
-        Show show = reservation.getShow();
-        Room room = show.getRoom();
-        Cinema cinema = room.getCinema();
-        Movie movie = show.getMovie();
-        
+    private Order.OrderStatus parseOrderStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Order.OrderStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterException("Invalid order status: " + status);
+        }
+    }
+    
+    private List<OrderResponse> mapToOrderResponses(List<OrderSummary> summaries) {
+        return summaries.stream()
+                .map(this::mapToOrderResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Mapea el resumen de una orden a un DTO OrderResponse, sin navegar la reserva ni la función
+     */
+    private OrderResponse mapToOrderResponse(OrderSummary summary) {
         return OrderResponse.builder()
-                .id(order.getId())
-                .userId(order.getUser() != null ? order.getUser().getId() : null)
-                .reservationId(reservation.getId())
-                .movieTitle(movie.getTitle())
-                .showDateTime(show.getStartTime())
-                .cinemaName(cinema.getName())
-                .roomName(room.getName())
-                .numberOfSeats(reservation.getReservedSeats().size())
-                .subtotal(order.getSubtotal())
-                .discount(order.getDiscount())
-                .tax(order.getTax())
-                .total(order.getTotal())
-                .paymentMethod(order.getPaymentMethod())
-                .paymentStatus(order.getPaymentStatus().name())
-                .orderType(order.getOrderType().name())
-                .orderStatus(order.getStatus().name())
-                .createdAt(order.getCreatedAt())
+                .id(summary.getId())
+                .userId(summary.getUserId())
+                .reservationId(summary.getReservationId())
+                .movieTitle(summary.getMovieTitle())
+                .showDateTime(summary.getShowDateTime())
+                .cinemaName(summary.getCinemaName())
+                .roomName(summary.getRoomName())
+                .numberOfSeats(summary.getNumberOfSeats())
+                .subtotal(summary.getSubtotal())
+                .discount(summary.getDiscount())
+                .tax(summary.getTax())
+                .total(summary.getTotal())
+                .paymentMethod(summary.getPaymentMethod())
+                .paymentStatus(summary.getPaymentStatus().name())
+                .orderType(summary.getOrderType().name())
+                .orderStatus(summary.getOrderStatus().name())
+                .createdAt(summary.getCreatedAt())
                 .build();
     }
     
@@ -416,9 +513,16 @@ public class OrderServiceImpl implements OrderService {
         Reservation reservation = order.getReservation();
         Show show = reservation.getShow();
         Room room = show.getRoom();
-        Cinema cinema = room.getCinema();
         Movie movie = show.getMovie();
         
+        // Asientos con butaca y tipo de entrada en una sola consulta
+        List<ReservedSeat> seats = reservationRepository.fetchReservedSeats(reservation.getId())
+                .map(Reservation::getReservedSeats)
+                .orElseGet(List::of);
+        
+        // Nombres guardados en cada item; solo los items anteriores a la copia se buscan, en una consulta por tipo
+        Map<UUID, String> itemNames = missingItemNamesOf(order.getItems());
+        
         // Mapear show details
         ShowResponse showResponse = ShowResponse.builder()
                 .id(show.getId())
@@ -428,8 +532,8 @@ public class OrderServiceImpl implements OrderService {
                 .roomId(room.getId())
                 .roomName(room.getName())
                 .roomType(room.getRoomType().name())
-                .cinemaId(cinema.getId())
-                .cinemaName(cinema.getName())
+                .cinemaId(room.getCinemaId())
+                .cinemaName(cinemaRepository.findNameById(room.getCinemaId()).orElse(null))
                 .startTime(show.getStartTime())
                 .endTime(show.getEndTime())
                 .is3d(show.getIs3d())
@@ -439,7 +543,7 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         
         // Mapear asientos reservados
-        List<OrderDetailsResponse.ReservedSeatResponse> reservedSeats = reservation.getReservedSeats().stream()
+        List<OrderDetailsResponse.ReservedSeatResponse> reservedSeats = seats.stream()
                 .map(rs -> OrderDetailsResponse.ReservedSeatResponse.builder()
                         .id(rs.getId())
                         .rowName(rs.getSeat().getRowName())
@@ -452,31 +556,16 @@ public class OrderServiceImpl implements OrderService {
         
         // Mapear items de la orden
         List<OrderDetailsResponse.OrderItemResponse> orderItems = order.getItems().stream()
-                .map(item -> {
-                    String name = "";
-                    
-                    // Obtener nombre del item según el tipo
-                    if (item.getItemType() == OrderItem.ItemType.PRODUCT) {
-                        Product product = productRepository.findById(item.getItemId()).orElse(null);
-                        if (product != null) {
-                            name = product.getName();
-                        }
-                    } else if (item.getItemType() == OrderItem.ItemType.COMBO) {
-                        Combo combo = comboRepository.findById(item.getItemId()).orElse(null);
-                        if (combo != null) {
-                            name = combo.getName();
-                        }
-                    }
-                    
-                    return OrderDetailsResponse.OrderItemResponse.builder()
-                            .id(item.getId())
-                            .itemType(item.getItemType().name())
-                            .name(name)
-                            .quantity(item.getQuantity())
-                            .unitPrice(item.getUnitPrice())
-                            .subtotal(item.getSubtotal())
-                            .build();
-                })
+                .map(item -> OrderDetailsResponse.OrderItemResponse.builder()
+                        .id(item.getId())
+                        .itemType(item.getItemType().name())
+                        .name(item.getItemName() != null
+                                ? item.getItemName()
+                                : itemNames.getOrDefault(item.getItemId(), ""))
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .subtotal(item.getSubtotal())
+                        .build())
                 .collect(Collectors.toList());
         
         // Usuario
@@ -513,4 +602,31 @@ public class OrderServiceImpl implements OrderService {
         
         return response;
     }
+    
+    /**
+     * Obtiene los nombres actuales de los productos y combos de los items que no guardaron el suyo
+     */
+    private Map<UUID, String> missingItemNamesOf(List<OrderItem> items) {
+        Set<UUID> productIds = new HashSet<>();
+        Set<UUID> comboIds = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getItemName() != null) {
+                continue;
+            }
+            if (item.getItemType() == OrderItem.ItemType.PRODUCT) {
+                productIds.add(item.getItemId());
+            } else if (item.getItemType() == OrderItem.ItemType.COMBO) {
+                comboIds.add(item.getItemId());
+            }
+        }
+        
+        Map<UUID, String> names = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllById(productIds).forEach(product -> names.put(product.getId(), product.getName()));
+        }
+        if (!comboIds.isEmpty()) {
+            comboRepository.findAllById(comboIds).forEach(combo -> names.put(combo.getId(), combo.getName()));
+        }
+        return names;
+    }
 }
\ No newline at end of file
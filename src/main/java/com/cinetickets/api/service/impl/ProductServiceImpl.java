@@ -12,8 +12,10 @@ import com.cinetickets.api.repository.ComboRepository;
 import com.cinetickets.api.repository.ProductCategoryRepository;
 import com.cinetickets.api.repository.ProductRepository;
 import com.cinetickets.api.service.ProductService;
+import com.cinetickets.api.service.pricing.PriceBookChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -33,6 +35,7 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductCategoryRepository categoryRepository;
     private final ComboRepository comboRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -97,6 +100,7 @@ public class ProductServiceImpl implements ProductService {
                 .build();
         
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new PriceBookChangedEvent("product created"));
         return savedProduct.getId();
     }
 
@@ -119,6 +123,7 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdatedAt(ZonedDateTime.now());
         
         productRepository.save(product);
+        eventPublisher.publishEvent(new PriceBookChangedEvent("product updated"));
     }
 
     @Override
@@ -137,6 +142,7 @@ public class ProductServiceImpl implements ProductService {
             // Hard delete
             productRepository.delete(product);
         }
+        eventPublisher.publishEvent(new PriceBookChangedEvent("product deleted"));
     }
 
     @Override
@@ -183,6 +189,7 @@ public class ProductServiceImpl implements ProductService {
         
         combo.setItems(comboItems);
         Combo savedCombo = comboRepository.save(combo);
+        eventPublisher.publishEvent(new PriceBookChangedEvent("combo created"));
         
         return savedCombo.getId();
     }
@@ -227,6 +234,7 @@ public class ProductServiceImpl implements ProductService {
         
         combo.setItems(comboItems);
         comboRepository.save(combo);
+        eventPublisher.publishEvent(new PriceBookChangedEvent("combo updated"));
     }
 
     @Override
@@ -236,6 +244,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Combo", "id", id));
         
         comboRepository.delete(combo);
+        eventPublisher.publishEvent(new PriceBookChangedEvent("combo deleted"));
     }
 
     @Override
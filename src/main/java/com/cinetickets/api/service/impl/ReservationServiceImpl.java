@@ -1,25 +1,35 @@
 package com.cinetickets.api.service.impl;
 
+import com.cinetickets.api.dto.request.BestAvailableReservationRequest;
 import com.cinetickets.api.dto.request.ReservationRequest;
 import com.cinetickets.api.dto.response.ReservationResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
 import com.cinetickets.api.entity.*;
 import com.cinetickets.api.exception.ResourceNotFoundException;
-import com.cinetickets.api.exception.SeatUnavailableException;
+import com.cinetickets.api.job.ReservationExpiryWheel;
 import com.cinetickets.api.repository.*;
 import com.cinetickets.api.service.ReservationService;
 import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.inventory.SeatInventoryService;
+import com.cinetickets.api.service.lock.ShowLockStripes;
+import com.cinetickets.api.service.pricing.PriceBook;
+import com.cinetickets.api.service.pricing.PriceBookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,128 +41,84 @@ public class ReservationServiceImpl implements ReservationService {
     private final ShowRepository showRepository;
     private final SeatRepository seatRepository;
     private final TicketTypeRepository ticketTypeRepository;
+    private final PriceBookService priceBookService;
     private final UserRepository userRepository;
     private final ShowService showService;
+    private final SeatInventoryService seatInventoryService;
+    private final ReservationExpiryWheel expiryWheel;
+    private final ShowLockStripes showLocks;
+    private final TransactionTemplate transactionTemplate;
     
     @Value("${app.reservation.expiration-minutes:15}")
     private int reservationExpirationMinutes;
 
     @Override
-    @Transactional
     public ReservationResponse createReservation(ReservationRequest request, UUID userId) {
-        // Buscar la función
-        Show show = showRepository.findById(request.getShowId())
-                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", request.getShowId()));
-        
-        // Verificar que la función no haya empezado
-        if (show.getStartTime().isBefore(ZonedDateTime.now())) {
-            throw new IllegalArgumentException("Cannot reserve seats for a show that has already started");
-        }
-        
-        // Verificar que los asientos estén disponibles
-        validateSeatsAvailability(show.getId(), request.getSeats().stream()
-                .map(ReservationRequest.SeatSelectionRequest::getSeatId)
-                .collect(Collectors.toList()));
-        
-        // Crear la reserva
-        User user = userId != null ? userRepository.findById(userId).orElse(null) : null;
-        
-        Reservation reservation = Reservation.builder()
-                .id(UUID.randomUUID())
-                .user(user)
-                .show(show)
-                .status(Reservation.ReservationStatus.PENDING)
-                .expiresAt(ZonedDateTime.now().plusMinutes(reservationExpirationMinutes))
-                .createdAt(ZonedDateTime.now())
-                .updatedAt(ZonedDateTime.now())
-                .build();
-        
-        // Crear las reservas de asientos
-        List<ReservedSeat> reservedSeats = new ArrayList<>();
-        for (ReservationRequest.SeatSelectionRequest seatRequest : request.getSeats()) {
-            Seat seat = seatRepository.findById(seatRequest.getSeatId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Seat", "id", seatRequest.getSeatId()));
+        return inShowTransaction(request.getShowId(), () -> {
+            Reservation reservation = newPendingReservation(request.getShowId(), userId);
             
-            TicketType ticketType = ticketTypeRepository.findById(seatRequest.getTicketTypeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("TicketType", "id", seatRequest.getTicketTypeId()));
+            // Reclamar los asientos (en memoria y en active_seat_holds) antes de escribir la reserva
+            claimSeats(reservation.getShow().getId(), reservation.getId(), request.getSeats(), ActiveSeatHold.HoldStatus.HELD);
             
-            ReservedSeat reservedSeat = ReservedSeat.builder()
-                    .id(UUID.randomUUID())
-                    .reservation(reservation)
-                    .seat(seat)
-                    .ticketType(ticketType)
-                    .price(ticketType.getPrice())
-                    .createdAt(ZonedDateTime.now())
-                    .updatedAt(ZonedDateTime.now())
-                    .build();
+            return mapToReservationResponse(savePendingReservation(reservation, request.getSeats()));
+        });
+    }
+
+    @Override
+    public ReservationResponse createBestAvailableReservation(BestAvailableReservationRequest request, UUID userId) {
+        return inShowTransaction(request.getShowId(), () -> {
+            Reservation reservation = newPendingReservation(request.getShowId(), userId);
             
-            reservedSeats.add(reservedSeat);
-        }
-        
-        reservation.setReservedSeats(reservedSeats);
-        Reservation savedReservation = reservationRepository.save(reservation);
-        
-        // Mapear la respuesta
-        return mapToReservationResponse(savedReservation);
+            // Elegir y reclamar los mejores asientos juntos en una sola operación
+            String seatType = request.getSeatType() != null ? request.getSeatType().name() : null;
+            List<UUID> seatIds = seatInventoryService.claimBestAvailable(
+                    reservation.getShow().getId(), reservation.getId(), request.getQuantity(), seatType,
+                    ActiveSeatHold.HoldStatus.HELD);
+            
+            List<ReservationRequest.SeatSelectionRequest> seats = seatIds.stream()
+                    .map(seatId -> new ReservationRequest.SeatSelectionRequest(seatId, request.getTicketTypeId()))
+                    .collect(Collectors.toList());
+            
+            return mapToReservationResponse(savePendingReservation(reservation, seats));
+        });
     }
 
     @Override
-    @Transactional
     public ReservationResponse createPosReservation(ReservationRequest request, UUID operatorId) {
-        // La lógica es similar a createReservation pero sin tiempo de expiración
-        // y confirmación automática (ya que es una venta directa en taquilla)
-        
-        // Buscar la función
-        Show show = showRepository.findById(request.getShowId())
-                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", request.getShowId()));
-        
-        // Verificar que la función no haya empezado
-        if (show.getStartTime().isBefore(ZonedDateTime.now())) {
-            throw new IllegalArgumentException("Cannot reserve seats for a show that has already started");
-        }
-        
-        // Verificar que los asientos estén disponibles
-        validateSeatsAvailability(show.getId(), request.getSeats().stream()
-                .map(ReservationRequest.SeatSelectionRequest::getSeatId)
-                .collect(Collectors.toList()));
-        
-        // Crear la reserva (sin usuario asignado, es una venta anónima en taquilla)
-        Reservation reservation = Reservation.builder()
-                .id(UUID.randomUUID())
-                .show(show)
-                .status(Reservation.ReservationStatus.CONFIRMED) // Confirmado inmediatamente
-                .expiresAt(show.getStartTime()) // Expira al inicio de la función
-                .createdAt(ZonedDateTime.now())
-                .updatedAt(ZonedDateTime.now())
-                .build();
-        
-        // Crear las reservas de asientos
-        List<ReservedSeat> reservedSeats = new ArrayList<>();
-        for (ReservationRequest.SeatSelectionRequest seatRequest : request.getSeats()) {
-            Seat seat = seatRepository.findById(seatRequest.getSeatId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Seat", "id", seatRequest.getSeatId()));
+        return inShowTransaction(request.getShowId(), () -> {
+            // La lógica es similar a createReservation pero sin tiempo de expiración
+            // y confirmación automática (ya que es una venta directa en taquilla)
             
-            TicketType ticketType = ticketTypeRepository.findById(seatRequest.getTicketTypeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("TicketType", "id", seatRequest.getTicketTypeId()));
+            // Buscar la función
+            Show show = showRepository.findById(request.getShowId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Show", "id", request.getShowId()));
             
-            ReservedSeat reservedSeat = ReservedSeat.builder()
+            // Verificar que la función no haya empezado
+            if (show.getStartTime().isBefore(ZonedDateTime.now())) {
+                throw new IllegalArgumentException("Cannot reserve seats for a show that has already started");
+            }
+            
+            // Crear la reserva (sin usuario asignado, es una venta anónima en taquilla)
+            Reservation reservation = Reservation.builder()
                     .id(UUID.randomUUID())
-                    .reservation(reservation)
-                    .seat(seat)
-                    .ticketType(ticketType)
-                    .price(ticketType.getPrice())
+                    .show(show)
+                    .status(Reservation.ReservationStatus.CONFIRMED) // Confirmado inmediatamente
+                    .expiresAt(show.getStartTime()) // Expira al inicio de la función
                     .createdAt(ZonedDateTime.now())
                     .updatedAt(ZonedDateTime.now())
                     .build();
             
-            reservedSeats.add(reservedSeat);
-        }
-        
-        reservation.setReservedSeats(reservedSeats);
-        Reservation savedReservation = reservationRepository.save(reservation);
-        
-        // Mapear la respuesta
-        return mapToReservationResponse(savedReservation);
+            // Reclamar los asientos como vendidos antes de escribir la reserva
+            claimSeats(show.getId(), reservation.getId(), request.getSeats(), ActiveSeatHold.HoldStatus.SOLD);
+            
+            // Crear las reservas de asientos
+            reservation.setReservedSeats(buildReservedSeats(reservation, request.getSeats()));
+            // Confirmada de entrada: no pasa por la rueda de vencimientos
+            Reservation savedReservation = reservationRepository.save(reservation);
+            
+            // Mapear la respuesta
+            return mapToReservationResponse(savedReservation);
+        });
     }
 
     @Override
@@ -162,11 +128,11 @@ public class ReservationServiceImpl implements ReservationService {
         
         if (userId != null) {
             // Usuario normal solo puede ver sus propias reservas
-            reservation = reservationRepository.findByIdAndUserId(id, userId)
+            reservation = reservationRepository.findDetailsByIdAndUserId(id, userId)
                     .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
         } else {
             // Personal del cine puede ver cualquier reserva
-            reservation = reservationRepository.findById(id)
+            reservation = reservationRepository.findDetailsById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
         }
         
@@ -174,57 +140,86 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Override
-    @Transactional
     public void cancelReservation(UUID id, UUID userId) {
-        Reservation reservation;
-        
-        if (userId != null) {
-            // Usuario normal solo puede cancelar sus propias reservas
-            reservation = reservationRepository.findByIdAndUserId(id, userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
-        } else {
-            // Personal del cine puede cancelar cualquier reserva
-            reservation = reservationRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
-        }
-        
-        // Solo se pueden cancelar reservas pendientes
-        if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
-            throw new IllegalStateException("Only pending reservations can be cancelled");
-        }
-        
-        reservation.setStatus(Reservation.ReservationStatus.CANCELED);
-        reservation.setUpdatedAt(ZonedDateTime.now());
-        
-        reservationRepository.save(reservation);
-        
-        log.info("Reservation {} has been cancelled", id);
+        inShowTransaction(showIdOf(id), () -> {
+            Reservation reservation;
+            
+            if (userId != null) {
+                // Usuario normal solo puede cancelar sus propias reservas
+                reservation = reservationRepository.findByIdAndUserId(id, userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+            } else {
+                // Personal del cine puede cancelar cualquier reserva
+                reservation = reservationRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+            }
+            
+            // Solo se pueden cancelar reservas pendientes
+            if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
+                throw new IllegalStateException("Only pending reservations can be cancelled");
+            }
+            
+            reservation.setStatus(Reservation.ReservationStatus.CANCELED);
+            reservation.setUpdatedAt(ZonedDateTime.now());
+            
+            reservationRepository.save(reservation);
+            seatInventoryService.release(reservation.getShow().getId(), reservation.getId(), seatIdsOf(reservation));
+            expiryWheel.cancel(id);
+            
+            log.info("Reservation {} has been cancelled", id);
+            return null;
+        });
     }
 
     @Override
-    @Transactional
     public void confirmReservation(UUID id) {
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
-        
-        // Solo se pueden confirmar reservas pendientes
-        if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
-            throw new IllegalStateException("Only pending reservations can be confirmed");
+        inShowTransaction(showIdOf(id), () -> {
+            Reservation reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+            
+            // Solo se pueden confirmar reservas pendientes
+            if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
+                throw new IllegalStateException("Only pending reservations can be confirmed");
+            }
+            
+            reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+            reservation.setUpdatedAt(ZonedDateTime.now());
+            
+            reservationRepository.save(reservation);
+            seatInventoryService.markSold(reservation.getShow().getId(), reservation.getId(), seatIdsOf(reservation));
+            expiryWheel.cancel(id);
+            
+            log.info("Reservation {} has been confirmed", id);
+            return null;
+        });
+    }
+
+    @Override
+    public void expireReservation(UUID id) {
+        UUID showId = reservationRepository.findShowIdById(id).orElse(null);
+        if (showId == null) {
+            return;
         }
-        
-        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
-        reservation.setUpdatedAt(ZonedDateTime.now());
-        
-        reservationRepository.save(reservation);
-        
-        log.info("Reservation {} has been confirmed", id);
+        inShowTransaction(showId, () -> {
+            if (expire(id, ZonedDateTime.now())) {
+                log.info("Reservation {} has expired", id);
+            }
+            return null;
+        });
     }
 
     @Override
     @Transactional
     public void expireReservations() {
         ZonedDateTime now = ZonedDateTime.now();
-        int expiredCount = reservationRepository.expireReservations(now);
+        List<UUID> expiredIds = reservationRepository.findExpiredReservationIds(now);
+        
+        int expiredCount = 0;
+        for (UUID id : expiredIds) {
+            if (expire(id, now)) {
+                expiredCount++;
+            }
+        }
         
         if (expiredCount > 0) {
             log.info("Expired {} reservations", expiredCount);
@@ -232,16 +227,145 @@ public class ReservationServiceImpl implements ReservationService {
     }
     
     /**
-     * Verifica que los asientos estén disponibles para la función
+     * Expira la reserva con un UPDATE condicional (solo si sigue pendiente), de modo que no pisa
+     * una confirmación o cancelación concurrente, y devuelve sus asientos al inventario
+     */
+    private boolean expire(UUID id, ZonedDateTime now) {
+        Reservation reservation = reservationRepository.findById(id).orElse(null);
+        if (reservation == null || reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
+            return false;
+        }
+        
+        if (reservationRepository.expireIfPending(id, now) == 0) {
+            return false;
+        }
+        
+        seatInventoryService.release(reservation.getShow().getId(), id, seatIdsOf(reservation));
+        expiryWheel.cancel(id);
+        return true;
+    }
+    
+    /**
+     * Ejecuta la operación en una transacción propia mientras se tiene el lock de la función,
+     * de modo que las escrituras sobre una misma función se serializan hasta el commit
+     * y las de funciones distintas corren en paralelo
+     */
+    private <T> T inShowTransaction(UUID showId, Supplier<T> operation) {
+        return showLocks.withShowLock(showId, () -> transactionTemplate.execute(status -> operation.get()));
+    }
+    
+    /**
+     * Obtiene la función de una reserva, necesaria para tomar su lock antes de abrir la transacción
+     */
+    private UUID showIdOf(UUID reservationId) {
+        return reservationRepository.findShowIdById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", reservationId));
+    }
+    
+    /**
+     * Arma una reserva pendiente (sin asientos) para una función que todavía no empezó
      */
-    private void validateSeatsAvailability(UUID showId, List<UUID> seatIds) {
-        List<UUID> reservedSeats = reservationRepository.findReservedSeatIdsForShow(showId);
+    private Reservation newPendingReservation(UUID showId, UUID userId) {
+        // Buscar la función
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", showId));
         
-        for (UUID seatId : seatIds) {
-            if (reservedSeats.contains(seatId)) {
-                throw new SeatUnavailableException("Seat is already reserved");
+        // Verificar que la función no haya empezado
+        if (show.getStartTime().isBefore(ZonedDateTime.now())) {
+            throw new IllegalArgumentException("Cannot reserve seats for a show that has already started");
+        }
+        
+        User user = userId != null ? userRepository.findById(userId).orElse(null) : null;
+        
+        return Reservation.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .show(show)
+                .status(Reservation.ReservationStatus.PENDING)
+                .expiresAt(ZonedDateTime.now().plusMinutes(reservationExpirationMinutes))
+                .createdAt(ZonedDateTime.now())
+                .updatedAt(ZonedDateTime.now())
+                .build();
+    }
+    
+    /**
+     * Crea los asientos reservados, guarda la reserva y programa su vencimiento
+     */
+    private Reservation savePendingReservation(Reservation reservation, List<ReservationRequest.SeatSelectionRequest> seats) {
+        reservation.setReservedSeats(buildReservedSeats(reservation, seats));
+        Reservation savedReservation = reservationRepository.save(reservation);
+        expiryWheel.schedule(savedReservation.getId(), savedReservation.getExpiresAt());
+        return savedReservation;
+    }
+    
+    /**
+     * Arma los asientos reservados cargando las butacas en una consulta; el precio de cada tipo de
+     * entrada sale de la lista de precios en memoria
+     */
+    private List<ReservedSeat> buildReservedSeats(Reservation reservation, List<ReservationRequest.SeatSelectionRequest> seats) {
+        Map<UUID, Seat> seatsById = seatRepository.findAllById(seats.stream()
+                        .map(ReservationRequest.SeatSelectionRequest::getSeatId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Seat::getId, Function.identity()));
+        PriceBook priceBook = priceBookService.current();
+        
+        List<ReservedSeat> reservedSeats = new ArrayList<>();
+        for (ReservationRequest.SeatSelectionRequest seatRequest : seats) {
+            Seat seat = seatsById.get(seatRequest.getSeatId());
+            if (seat == null) {
+                throw new ResourceNotFoundException("Seat", "id", seatRequest.getSeatId());
             }
+            
+            PriceBook.Item ticketType = priceBook.ticketType(seatRequest.getTicketTypeId());
+            
+            ReservedSeat reservedSeat = ReservedSeat.builder()
+                    .id(UUID.randomUUID())
+                    .reservation(reservation)
+                    .seat(seat)
+                    .ticketType(ticketTypeRepository.getReferenceById(ticketType.getId()))
+                    .price(ticketType.getPrice())
+                    .createdAt(ZonedDateTime.now())
+                    .updatedAt(ZonedDateTime.now())
+                    .build();
+            
+            reservedSeats.add(reservedSeat);
+        }
+        return reservedSeats;
+    }
+    
+    /**
+     * Reclama atómicamente los asientos solicitados en el inventario de la función.
+     * Si otra reserva (de este u otro nodo) ya ocupó alguno de ellos se lanza SeatUnavailableException
+     * y no se reclama ninguno.
+     */
+    private void claimSeats(UUID showId, UUID reservationId, List<ReservationRequest.SeatSelectionRequest> seats,
+                            ActiveSeatHold.HoldStatus status) {
+        List<UUID> seatIds = seats.stream()
+                .map(ReservationRequest.SeatSelectionRequest::getSeatId)
+                .collect(Collectors.toList());
+        
+        if (new HashSet<>(seatIds).size() != seatIds.size()) {
+            throw new IllegalArgumentException("The same seat cannot be selected more than once");
         }
+        
+        seatInventoryService.claim(showId, reservationId, seatIds, status);
+    }
+    
+    /**
+     * Obtiene los IDs de los asientos de una reserva
+     */
+    private List<UUID> seatIdsOf(Reservation reservation) {
+        return reservation.getReservedSeats().stream()
+                .map(rs -> rs.getSeat().getId())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Nombre del tipo de entrada sin inicializar la relación, salvo que ya no esté en la lista de precios
+     */
+    private static String ticketTypeNameOf(ReservedSeat reservedSeat, PriceBook priceBook) {
+        PriceBook.Item ticketType = priceBook.getTicketTypes().get(reservedSeat.getTicketType().getId());
+        return ticketType != null ? ticketType.getName() : reservedSeat.getTicketType().getName();
     }
     
     /**
@@ -251,14 +375,15 @@ public class ReservationServiceImpl implements ReservationService {
         // Mapear show
         ShowResponse showResponse = showService.getShowById(reservation.getShow().getId());
         
-        // Mapear asientos reservados
+        // Mapear asientos reservados; el nombre del tipo de entrada sale de la lista de precios
+        PriceBook priceBook = priceBookService.current();
         List<ReservationResponse.ReservedSeatDTO> seatDTOs = reservation.getReservedSeats().stream()
                 .map(rs -> ReservationResponse.ReservedSeatDTO.builder()
                         .id(rs.getId())
                         .seatId(rs.getSeat().getId())
                         .rowName(rs.getSeat().getRowName())
                         .number(rs.getSeat().getNumber())
-                        .ticketType(rs.getTicketType().getName())
+                        .ticketType(ticketTypeNameOf(rs, priceBook))
                         .price(rs.getPrice())
                         .build())
                 .collect(Collectors.toList());
@@ -1,5 +1,6 @@
 package com.cinetickets.api.service.impl;
 
+import com.cinetickets.api.dto.request.ShowFilterRequest;
 import com.cinetickets.api.dto.request.ShowRequest;
 import com.cinetickets.api.dto.response.SeatResponse;
 import com.cinetickets.api.dto.response.ShowResponse;
@@ -7,166 +8,279 @@ import com.cinetickets.api.entity.Movie;
 import com.cinetickets.api.entity.Room;
 import com.cinetickets.api.entity.Show;
 import com.cinetickets.api.entity.Seat;
+import com.cinetickets.api.exception.InvalidFilterException;
 import com.cinetickets.api.exception.ResourceNotFoundException;
+import com.cinetickets.api.exception.ScheduleConflictException;
+import com.cinetickets.api.repository.CinemaRepository;
 import com.cinetickets.api.repository.MovieRepository;
 import com.cinetickets.api.repository.RoomRepository;
 import com.cinetickets.api.repository.ShowRepository;
-import com.cinetickets.api.repository.SeatRepository;
+import com.cinetickets.api.repository.ShowSpecifications;
 import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.cache.ShowtimeCache;
+import com.cinetickets.api.service.catalog.CatalogChangedEvent;
+import com.cinetickets.api.service.inventory.SeatInventoryService;
+import com.cinetickets.api.service.inventory.ShowSeatInventory;
+import com.cinetickets.api.service.schedule.RoomScheduleIndex;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ShowServiceImpl implements ShowService {
 
+    // Rango de fechas del listado filtrado: por defecto una semana, como máximo un mes
+    private static final int DEFAULT_FILTER_DAYS = 7;
+    private static final int MAX_FILTER_DAYS = 31;
+
     private final ShowRepository showRepository;
     private final MovieRepository movieRepository;
     private final RoomRepository roomRepository;
-    private final SeatRepository seatRepository;
+    private final CinemaRepository cinemaRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ShowtimeCache showtimeCache;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomScheduleIndex roomSchedules;
+
+    // Las carteleras se sirven desde caché: solo se abre transacción al cargarlas
 
     @Override
-    @Transactional(readOnly = true)
     public List<ShowResponse> getShowsForMovie(UUID movieId, String date) {
         ZonedDateTime startDate = parseDate(date);
         ZonedDateTime endDate = startDate.plusDays(1);
         
-        List<Show> shows = showRepository.findByMovieIdAndStartTimeGreaterThanEqualOrderByStartTime(
-            movieId, startDate
-        );
+        List<ShowResponse> shows = showtimeCache.get(ShowtimeCache.forMovie(movieId, startDate.toLocalDate()),
+                () -> readOnly(() -> mapToShowResponses(
+                        showRepository.findAllActiveForMovieInDateRange(movieId, startDate, endDate))));
         
-        return shows.stream()
-                .map(this::mapToShowResponse)
-                .collect(Collectors.toList());
+        return withLiveOccupancy(shows);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ShowResponse> getShowsForMovieInCinema(UUID movieId, UUID cinemaId, String date) {
         ZonedDateTime startDate = parseDate(date);
         ZonedDateTime endDate = startDate.plusDays(1);
         
-        // Implementar lógica para obtener funciones de una película en un cine específico
-        // Puedes necesitar agregar un método personalizado en ShowRepository
-        return List.of(); // Placeholder
+        List<ShowResponse> shows = showtimeCache.get(
+                ShowtimeCache.forMovieInCinema(movieId, cinemaId, startDate.toLocalDate()),
+                () -> readOnly(() -> mapToShowResponses(
+                        showRepository.findAllActiveInCinemaForMovieInDateRange(cinemaId, movieId, startDate, endDate))));
+        
+        return withLiveOccupancy(shows);
     }
 
     @Override
     @Transactional(readOnly = true)
     public ShowResponse getShowById(UUID id) {
-        Show show = showRepository.findById(id)
+        Show show = showRepository.findWithMovieAndRoomById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Show", "id", id));
         
-        return mapToShowResponse(show);
+        return mapToShowResponses(List.of(show)).get(0);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<SeatResponse> getAvailableSeatsForShow(UUID showId) {
-        // Obtener todos los asientos de la sala de la función
-        Show show = showRepository.findById(showId)
-                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", showId));
+        // El mapa de asientos se arma desde el inventario en memoria de la función; sin transacción,
+        // solo la primera carga del inventario usa la base
+        ShowSeatInventory inventory = seatInventoryService.getInventory(showId);
+        ShowSeatInventory.SeatState[] states = inventory.snapshot();
         
-        // Obtener asientos reservados para esta función
-        List<UUID> reservedSeatIds = seatRepository.findReservedSeatIdsForShow(showId);
-        
-        return show.getRoom().getSeats().stream()
+        return inventory.getSeats().stream()
                 .map(seat -> SeatResponse.builder()
                         .id(seat.getId())
+                        .index(seat.getIndex())
                         .rowName(seat.getRowName())
                         .number(seat.getNumber())
-                        .seatType(seat.getSeatType().name())
-                        .status(seat.getStatus().name())
-                        .isAvailable(!reservedSeatIds.contains(seat.getId()))
+                        .seatType(seat.getSeatType())
+                        .status(seat.getStatus())
+                        .isAvailable(states[seat.getIndex()] == ShowSeatInventory.SeatState.FREE)
+                        .state(states[seat.getIndex()].name())
                         .build())
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ShowResponse> getActiveShowsForCinema(UUID cinemaId, String date) {
         ZonedDateTime startDate = parseDate(date);
         ZonedDateTime endDate = startDate.plusDays(1);
         
-        List<Show> shows = showRepository.findAllActiveInCinemaForDateRange(cinemaId, startDate, endDate);
+        List<ShowResponse> shows = showtimeCache.get(ShowtimeCache.forCinema(cinemaId, startDate.toLocalDate()),
+                () -> readOnly(() -> mapToShowResponses(
+                        showRepository.findAllActiveInCinemaForDateRange(cinemaId, startDate, endDate))));
         
-        return shows.stream()
-                .map(this::mapToShowResponse)
-                .collect(Collectors.toList());
+        return withLiveOccupancy(shows);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ShowResponse> getCurrentlyPlayingShows() {
-        return showRepository.findAllShowsCurrentlyPlaying().stream()
-                .map(this::mapToShowResponse)
-                .collect(Collectors.toList());
+        List<ShowResponse> shows = showtimeCache.get(ShowtimeCache.currentlyPlaying(),
+                () -> readOnly(() -> mapToShowResponses(showRepository.findAllShowsCurrentlyPlaying())));
+        
+        return withLiveOccupancy(shows);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<ShowResponse> getAllShowsByFilter(UUID cinemaId, UUID movieId, String date, Pageable pageable) {
-        // Implementación de filtrado de funciones
-        // Puedes necesitar agregar un método personalizado en ShowRepository
-        return Page.empty(); // Placeholder
+    public Page<ShowResponse> getAllShowsByFilter(ShowFilterRequest filter, Pageable pageable) {
+        LocalDate from = filter.getFrom() != null ? filter.getFrom() : parseDate(null).toLocalDate();
+        LocalDate to = filter.getTo() != null ? filter.getTo() : from.plusDays(DEFAULT_FILTER_DAYS - 1);
+        if (to.isBefore(from)) {
+            throw new InvalidFilterException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_FILTER_DAYS) {
+            throw new InvalidFilterException("Date range must not exceed " + MAX_FILTER_DAYS + " days");
+        }
+        
+        // Sin estados elegidos se listan todos, pero igual se filtra por estado para usar idx_shows_status_start
+        List<Show.ShowStatus> statuses = filter.getStatus() != null && !filter.getStatus().isEmpty()
+                ? filter.getStatus()
+                : List.of(Show.ShowStatus.values());
+        Pageable page = pageable.getSort().isSorted()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("startTime", "id"));
+        
+        Page<Show> shows = showRepository.findAll(ShowSpecifications.matching(
+                filter.getCinemaId(), filter.getMovieId(),
+                from.atStartOfDay(ZoneId.systemDefault()), to.plusDays(1).atStartOfDay(ZoneId.systemDefault()),
+                statuses, filter.getIs3d(), filter.getIsSubtitled(), filter.getLanguage(), filter.getRoomType()),
+                page);
+        
+        return new PageImpl<>(mapToShowResponses(shows.getContent()), page, shows.getTotalElements());
     }
 
+    // Altas y cambios de horario: la agenda de la sala queda bloqueada hasta el commit, así dos
+    // pedidos concurrentes no pueden ocupar la misma franja
+
     @Override
-    @Transactional
     public UUID createShow(ShowRequest showRequest) {
-        Movie movie = movieRepository.findById(showRequest.getMovieId())
-                .orElseThrow(() -> new ResourceNotFoundException("Movie", "id", showRequest.getMovieId()));
-        
-        Room room = roomRepository.findById(showRequest.getRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", showRequest.getRoomId()));
-        
-        Show show = Show.builder()
-                .id(UUID.randomUUID())
-                .movie(movie)
-                .room(room)
-                .startTime(showRequest.getStartTime())
-                .endTime(showRequest.getStartTime().plusMinutes(movie.getDurationMinutes()))
-                .is3d(showRequest.getIs3d() != null ? showRequest.getIs3d() : movie.getIs3d())
-                .isSubtitled(showRequest.getIsSubtitled() != null ? showRequest.getIsSubtitled() : movie.getIsSubtitled())
-                .language(showRequest.getLanguage() != null ? showRequest.getLanguage() : movie.getLanguage())
-                .status(Show.ShowStatus.SCHEDULED)
-                .build();
+        return roomSchedules.withRooms(List.of(showRequest.getRoomId()), () -> inTransaction(() -> {
+            Movie movie = movieRepository.findById(showRequest.getMovieId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Movie", "id", showRequest.getMovieId()));
+            
+            Room room = roomRepository.findById(showRequest.getRoomId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Room", "id", showRequest.getRoomId()));
+            
+            Show show = newShow(showRequest, movie, room);
+            show.setId(UUID.randomUUID());
+            assertRoomAvailable(show, null);
+            
+            Show savedShow = showRepository.save(show);
+            invalidateShowtimesAfterCommit(savedShow);
+            scheduleAfterCommit(null, savedShow);
+            eventPublisher.publishEvent(new CatalogChangedEvent(movie.getId()));
+            return savedShow.getId();
+        }));
+    }
+
+    @Override
+    public List<UUID> createShows(List<ShowRequest> showRequests) {
+        Set<UUID> roomIds = showRequests.stream().map(ShowRequest::getRoomId).collect(Collectors.toSet());
+        Set<UUID> movieIds = showRequests.stream().map(ShowRequest::getMovieId).collect(Collectors.toSet());
         
-        Show savedShow = showRepository.save(show);
-        return savedShow.getId();
+        return roomSchedules.withRooms(roomIds, () -> inTransaction(() -> {
+            Map<UUID, Movie> movies = findAllOrThrow(movieRepository.findAllById(movieIds), Movie::getId, movieIds, "Movie");
+            Map<UUID, Room> rooms = findAllOrThrow(roomRepository.findAllById(roomIds), Room::getId, roomIds, "Room");
+            
+            List<Show> shows = showRequests.stream()
+                    .map(request -> newShow(request, movies.get(request.getMovieId()), rooms.get(request.getRoomId())))
+                    .collect(Collectors.toList());
+            
+            List<String> conflicts = new ArrayList<>();
+            for (Show show : shows) {
+                RoomScheduleIndex.Slot conflict = roomSchedules.findConflict(show.getRoom().getId(),
+                        show.getStartTime(), show.getEndTime(), null);
+                if (conflict != null) {
+                    conflicts.add(describeConflict(show, conflict.getShowId()));
+                }
+            }
+            conflicts.addAll(conflictsWithinBatch(shows));
+            if (!conflicts.isEmpty()) {
+                throw new ScheduleConflictException(conflicts.size() + " shows overlap the room schedule: "
+                        + String.join("; ", conflicts));
+            }
+            
+            // Sin id asignado cada alta es un persist y Hibernate las agrupa en lotes de INSERT
+            List<Show> savedShows = showRepository.saveAll(shows);
+            afterCommit(() -> {
+                savedShows.forEach(show -> roomSchedules.add(show.getRoom().getId(), show.getId(),
+                        show.getStartTime(), show.getEndTime()));
+                showtimeCache.invalidateAll();
+            });
+            eventPublisher.publishEvent(new CatalogChangedEvent(null));
+            log.info("Scheduled {} shows in {} rooms", savedShows.size(), roomIds.size());
+            
+            return savedShows.stream().map(Show::getId).collect(Collectors.toList());
+        }));
     }
 
     @Override
-    @Transactional
     public void updateShow(UUID id, ShowRequest showRequest) {
-        Show show = showRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", id));
-        
-        Movie movie = movieRepository.findById(showRequest.getMovieId())
-                .orElseThrow(() -> new ResourceNotFoundException("Movie", "id", showRequest.getMovieId()));
-        
-        Room room = roomRepository.findById(showRequest.getRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", showRequest.getRoomId()));
+        UUID previousRoomId = readOnly(() -> showRepository.findById(id)
+                .map(show -> show.getRoom().getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", id)));
         
-        show.setMovie(movie);
-        show.setRoom(room);
-        show.setStartTime(showRequest.getStartTime());
-        show.setEndTime(showRequest.getStartTime().plusMinutes(movie.getDurationMinutes()));
-        show.setIs3d(showRequest.getIs3d() != null ? showRequest.getIs3d() : movie.getIs3d());
-        show.setIsSubtitled(showRequest.getIsSubtitled() != null ? showRequest.getIsSubtitled() : movie.getIsSubtitled());
-        show.setLanguage(showRequest.getLanguage() != null ? showRequest.getLanguage() : movie.getLanguage());
+        roomSchedules.withRooms(Set.of(previousRoomId, showRequest.getRoomId()), () -> inTransaction(() -> {
+            Show show = showRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Show", "id", id));
+            
+            Movie movie = movieRepository.findById(showRequest.getMovieId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Movie", "id", showRequest.getMovieId()));
+            
+            Room room = roomRepository.findById(showRequest.getRoomId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Room", "id", showRequest.getRoomId()));
+            
+            // Invalidar las carteleras donde aparecía la función antes del cambio
+            invalidateShowtimesAfterCommit(show);
+            UUID roomBefore = show.getRoom().getId();
+            
+            show.setMovie(movie);
+            show.setRoom(room);
+            show.setStartTime(showRequest.getStartTime());
+            show.setEndTime(showRequest.getStartTime().plusMinutes(movie.getDurationMinutes()));
+            show.setIs3d(showRequest.getIs3d() != null ? showRequest.getIs3d() : movie.getIs3d());
+            show.setIsSubtitled(showRequest.getIsSubtitled() != null ? showRequest.getIsSubtitled() : movie.getIsSubtitled());
+            show.setLanguage(showRequest.getLanguage() != null ? showRequest.getLanguage() : movie.getLanguage());
+            if (show.getStatus() == Show.ShowStatus.SCHEDULED) {
+                assertRoomAvailable(show, id);
+            }
+            
+            showRepository.save(show);
+            invalidateShowtimesAfterCommit(show);
+            scheduleAfterCommit(roomBefore, show);
+            eventPublisher.publishEvent(new CatalogChangedEvent(movie.getId()));
+            return null;
+        }));
         
-        showRepository.save(show);
+        // La sala u horario pueden haber cambiado: el inventario se recarga en la próxima consulta
+        seatInventoryService.evict(id);
     }
 
     @Override
@@ -177,6 +291,9 @@ public class ShowServiceImpl implements ShowService {
         
         show.setStatus(Show.ShowStatus.CANCELED);
         showRepository.save(show);
+        invalidateShowtimesAfterCommit(show);
+        scheduleAfterCommit(show.getRoom().getId(), show);
+        eventPublisher.publishEvent(new CatalogChangedEvent(show.getMovie().getId()));
     }
 
     @Override
@@ -186,11 +303,35 @@ public class ShowServiceImpl implements ShowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Show", "id", id));
         
         showRepository.delete(show);
+        seatInventoryService.evict(id);
+        invalidateShowtimesAfterCommit(show);
+        UUID roomId = show.getRoom().getId();
+        afterCommit(() -> roomSchedules.remove(roomId, id));
+        eventPublisher.publishEvent(new CatalogChangedEvent(show.getMovie().getId()));
+    }
+
+    /**
+     * Mapea una lista de funciones (con película y sala ya cargadas) resolviendo los cines en una sola consulta
+     */
+    private List<ShowResponse> mapToShowResponses(List<Show> shows) {
+        Map<UUID, String> cinemaNames = cinemaRepository.findNamesById(shows.stream()
+                .map(show -> show.getRoom().getCinemaId())
+                .collect(Collectors.toSet()));
+        
+        return shows.stream()
+                .map(show -> mapToShowResponse(show, cinemaNames))
+                .collect(Collectors.toList());
     }
 
     // Mapeo de Show a ShowResponse
-    private ShowResponse mapToShowResponse(Show show) {
-        return ShowResponse.builder()
+    private ShowResponse mapToShowResponse(Show show, Map<UUID, String> cinemaNames) {
+        // Ocupación: en vivo si el inventario de la función está en memoria, si no los contadores guardados
+        ShowSeatInventory inventory = seatInventoryService.findLoaded(show.getId());
+        int capacity = inventory != null ? inventory.getCapacity() : valueOrZero(show.getCapacity());
+        int sold = inventory != null ? inventory.getSoldCount() : valueOrZero(show.getSeatsSold());
+        int held = inventory != null ? inventory.getHeldCount() : valueOrZero(show.getSeatsHeld());
+        
+        ShowResponse.ShowResponseBuilder builder = ShowResponse.builder()
                 .id(show.getId())
                 .movieId(show.getMovie().getId())
                 .movieTitle(show.getMovie().getTitle())
@@ -198,17 +339,167 @@ public class ShowServiceImpl implements ShowService {
                 .roomId(show.getRoom().getId())
                 .roomName(show.getRoom().getName())
                 .roomType(show.getRoom().getRoomType().name())
-                .cinemaId(show.getRoom().getCinema().getId())
-                .cinemaName(show.getRoom().getCinema().getName())
+                .cinemaId(show.getRoom().getCinemaId())
+                .cinemaName(cinemaNames.get(show.getRoom().getCinemaId()))
                 .startTime(show.getStartTime())
                 .endTime(show.getEndTime())
                 .is3d(show.getIs3d())
                 .isSubtitled(show.getIsSubtitled())
                 .language(show.getLanguage())
-                .status(show.getStatus().name())
+                .status(show.getStatus().name());
+        
+        return withOccupancy(builder, capacity, sold, held);
+    }
+
+    private static ShowResponse withOccupancy(ShowResponse.ShowResponseBuilder builder, int capacity, int sold, int held) {
+        return builder
+                .capacity(capacity)
+                .seatsSold(sold)
+                .seatsHeld(held)
+                .seatsAvailable(Math.max(0, capacity - sold - held))
+                .occupancyPercent(capacity > 0 ? Math.round((sold + held) * 1000.0 / capacity) / 10.0 : 0.0)
                 .build();
     }
 
+    /**
+     * Reemplaza la ocupación guardada en caché por la del inventario en memoria, si está cargado
+     */
+    private List<ShowResponse> withLiveOccupancy(List<ShowResponse> shows) {
+        return shows.stream()
+                .map(response -> {
+                    ShowSeatInventory inventory = seatInventoryService.findLoaded(response.getId());
+                    if (inventory == null) {
+                        return response;
+                    }
+                    return withOccupancy(response.toBuilder(), inventory.getCapacity(),
+                            inventory.getSoldCount(), inventory.getHeldCount());
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Invalida las carteleras afectadas por la función cuando la transacción se confirma.
+     * Las lecturas que cargaron el estado anterior y terminan después quedan con la versión vieja
+     * de la caché (ver ShowtimeCache), así no vuelven a publicarlo.
+     */
+    private void invalidateShowtimesAfterCommit(Show show) {
+        UUID cinemaId = show.getRoom().getCinemaId();
+        UUID movieId = show.getMovie().getId();
+        LocalDate date = show.getStartTime().withZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+        
+        afterCommit(() -> showtimeCache.invalidateShow(cinemaId, movieId, date));
+    }
+
+    /**
+     * Refleja la función en la agenda de salas al confirmarse: sale de la sala anterior y, si sigue
+     * programada, ocupa su franja en la actual
+     */
+    private void scheduleAfterCommit(UUID previousRoomId, Show show) {
+        UUID showId = show.getId();
+        UUID roomId = show.getRoom().getId();
+        ZonedDateTime start = show.getStartTime();
+        ZonedDateTime end = show.getEndTime();
+        boolean scheduled = show.getStatus() == Show.ShowStatus.SCHEDULED;
+        
+        afterCommit(() -> {
+            if (previousRoomId != null) {
+                roomSchedules.remove(previousRoomId, showId);
+            }
+            if (scheduled) {
+                roomSchedules.add(roomId, showId, start, end);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void assertRoomAvailable(Show show, UUID ignoredShowId) {
+        RoomScheduleIndex.Slot conflict = roomSchedules.findConflict(show.getRoom().getId(),
+                show.getStartTime(), show.getEndTime(), ignoredShowId);
+        if (conflict != null) {
+            throw new ScheduleConflictException(describeConflict(show, conflict.getShowId()));
+        }
+    }
+
+    /**
+     * Superposiciones entre funciones del mismo pedido: por sala, ordenadas por inicio, cada una debe
+     * empezar después del fin más la limpieza de la anterior
+     */
+    private List<String> conflictsWithinBatch(List<Show> shows) {
+        List<String> conflicts = new ArrayList<>();
+        Map<UUID, List<Show>> byRoom = shows.stream().collect(Collectors.groupingBy(show -> show.getRoom().getId()));
+        for (List<Show> roomShows : byRoom.values()) {
+            roomShows.sort(Comparator.comparing(Show::getStartTime));
+            for (int i = 1; i < roomShows.size(); i++) {
+                Show previous = roomShows.get(i - 1);
+                Show current = roomShows.get(i);
+                if (current.getStartTime().isBefore(previous.getEndTime().plus(roomSchedules.getCleaningBuffer()))) {
+                    conflicts.add("show at " + current.getStartTime() + " in room " + current.getRoom().getName()
+                            + " overlaps another show of the same request at " + previous.getStartTime());
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private String describeConflict(Show show, UUID conflictingShowId) {
+        return "show at " + show.getStartTime() + " in room " + show.getRoom().getName()
+                + " overlaps show " + conflictingShowId + " (including "
+                + roomSchedules.getCleaningBuffer().toMinutes() + " minutes of cleaning)";
+    }
+
+    private static Show newShow(ShowRequest request, Movie movie, Room room) {
+        return Show.builder()
+                .movie(movie)
+                .room(room)
+                .startTime(request.getStartTime())
+                .endTime(request.getStartTime().plusMinutes(movie.getDurationMinutes()))
+                .is3d(request.getIs3d() != null ? request.getIs3d() : movie.getIs3d())
+                .isSubtitled(request.getIsSubtitled() != null ? request.getIsSubtitled() : movie.getIsSubtitled())
+                .language(request.getLanguage() != null ? request.getLanguage() : movie.getLanguage())
+                .status(Show.ShowStatus.SCHEDULED)
+                .capacity(room.getCapacity())
+                .seatsSold(0)
+                .seatsHeld(0)
+                .build();
+    }
+
+    private static <T> Map<UUID, T> findAllOrThrow(List<T> found, Function<T, UUID> idOf, Set<UUID> ids,
+            String resourceName) {
+        Map<UUID, T> byId = found.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        for (UUID id : ids) {
+            if (!byId.containsKey(id)) {
+                throw new ResourceNotFoundException(resourceName, "id", id);
+            }
+        }
+        return byId;
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> query.get());
+    }
+
+    private <T> T inTransaction(Supplier<T> operation) {
+        return new TransactionTemplate(transactionManager).execute(status -> operation.get());
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
     // Método auxiliar para parsear la fecha
     private ZonedDateTime parseDate(String dateStr) {
         if (dateStr == null || dateStr.isEmpty()) {
@@ -0,0 +1,429 @@
+package com.cinetickets.api.service.inventory;
+
+import com.cinetickets.api.entity.ActiveSeatHold;
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.exception.ResourceNotFoundException;
+import com.cinetickets.api.exception.SeatUnavailableException;
+import com.cinetickets.api.repository.ActiveSeatHoldRepository;
+import com.cinetickets.api.repository.SeatRepository;
+import com.cinetickets.api.repository.ShowRepository;
+import com.cinetickets.api.service.lock.ShowLockStripes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mantiene el inventario de asientos por función en memoria.
+ * El inventario se carga desde la tabla active_seat_holds la primera vez que se consulta una función
+ * y luego se actualiza con cada transición de las reservas, de modo que las consultas de
+ * disponibilidad no vuelven a leer la tabla reserved_seats.
+ * <p>
+ * El inventario en memoria es un filtro rápido dentro de cada nodo; la clave primaria
+ * (show_id, seat_id) de active_seat_holds es la que garantiza que no haya doble venta
+ * cuando hay varios nodos de la API.
+ * <p>
+ * Cada cambio aplicado al inventario se publica como {@link SeatMapChangedEvent}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatInventoryService {
+
+    private final ShowRepository showRepository;
+    private final SeatRepository seatRepository;
+    private final ActiveSeatHoldRepository activeSeatHoldRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ShowLockStripes showLocks;
+
+    private static final int BEST_AVAILABLE_ATTEMPTS = 5;
+
+    private final ConcurrentMap<UUID, ShowSeatInventory> inventories = new ConcurrentHashMap<>();
+    // Último (vendidos, retenidos) guardado en la tabla shows por función
+    private final ConcurrentMap<UUID, Long> flushedOccupancy = new ConcurrentHashMap<>();
+    // Funciones cuyo inventario quedó desactualizado por un conflicto con otro nodo
+    private final Set<UUID> staleShows = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Obtiene el inventario de una función, cargándolo si todavía no está en memoria.
+     * Solo la carga abre una transacción: con el inventario en memoria no se toma una conexión.
+     */
+    public ShowSeatInventory getInventory(UUID showId) {
+        ShowSeatInventory inventory = inventories.get(showId);
+        if (inventory != null) {
+            return inventory;
+        }
+        return inventories.computeIfAbsent(showId, this::loadInventory);
+    }
+
+    /**
+     * Devuelve el inventario de una función solo si ya está en memoria, sin cargarlo
+     */
+    public ShowSeatInventory findLoaded(UUID showId) {
+        return inventories.get(showId);
+    }
+
+    /**
+     * Convierte los IDs de asiento a índices del inventario, validando que pertenezcan a la sala
+     */
+    public int[] toIndexes(ShowSeatInventory inventory, Collection<UUID> seatIds) {
+        int[] indexes = new int[seatIds.size()];
+        int i = 0;
+        for (UUID seatId : seatIds) {
+            int index = inventory.indexOf(seatId);
+            if (index < 0) {
+                throw new ResourceNotFoundException("Seat", "id", seatId);
+            }
+            indexes[i++] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * Reclama atómicamente todos los asientos indicados de la función, o ninguno.
+     * Primero se reclaman en memoria con CAS y, si eso funciona, se insertan las retenciones en
+     * active_seat_holds con una sola sentencia. Si la transacción en curso se revierte, los asientos
+     * vuelven a quedar libres en memoria.
+     *
+     * @throws SeatUnavailableException si alguno de los asientos ya está ocupado
+     */
+    public void claim(UUID showId, UUID reservationId, Collection<UUID> seatIds, ActiveSeatHold.HoldStatus status) {
+        ShowSeatInventory inventory = getInventory(showId);
+        int[] indexes = toIndexes(inventory, seatIds);
+
+        if (!inventory.tryClaim(indexes)) {
+            throw new SeatUnavailableException("Seat is already reserved");
+        }
+
+        persistClaim(inventory, indexes, reservationId, seatIds, status);
+    }
+
+    /**
+     * Busca y reclama en una sola operación los mejores {@code quantity} asientos contiguos de la función.
+     * Si otra reserva gana alguno de los asientos elegidos entre la búsqueda y el reclamo,
+     * se vuelve a buscar sobre el estado actualizado.
+     *
+     * @return los IDs de los asientos reclamados, ordenados por número dentro de la fila
+     * @throws SeatUnavailableException si no quedan suficientes asientos juntos
+     */
+    public List<UUID> claimBestAvailable(UUID showId, UUID reservationId, int quantity, String seatType,
+                                         ActiveSeatHold.HoldStatus status) {
+        ShowSeatInventory inventory = getInventory(showId);
+
+        for (int attempt = 0; attempt < BEST_AVAILABLE_ATTEMPTS; attempt++) {
+            int[] indexes = inventory.findBestAvailable(quantity, seatType);
+            if (indexes == null) {
+                break;
+            }
+            if (inventory.tryClaim(indexes)) {
+                List<UUID> seatIds = new ArrayList<>(indexes.length);
+                for (int index : indexes) {
+                    seatIds.add(inventory.getSeats().get(index).getId());
+                }
+                persistClaim(inventory, indexes, reservationId, seatIds, status);
+                return seatIds;
+            }
+        }
+
+        throw new SeatUnavailableException("Not enough contiguous seats available");
+    }
+
+    /**
+     * Registra la liberación de los asientos si la transacción se revierte e inserta las retenciones
+     */
+    private void persistClaim(ShowSeatInventory inventory, int[] indexes, UUID reservationId,
+                              Collection<UUID> seatIds, ActiveSeatHold.HoldStatus status) {
+        UUID showId = inventory.getShowId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    if (completionStatus != STATUS_COMMITTED) {
+                        inventory.release(indexes);
+                    } else if (status == ActiveSeatHold.HoldStatus.HELD) {
+                        publish(showId, indexes, ShowSeatInventory.SeatState.HELD);
+                    }
+                }
+            });
+        }
+
+        try {
+            activeSeatHoldRepository.insertHolds(showId, reservationId, seatIds, status);
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo ocupó alguno de los asientos: el inventario local estaba desactualizado.
+            // Esta transacción ya no puede usarse; se recarga en la próxima pasada de refreshStaleInventories
+            log.info("Seat hold conflict for show {}, inventory marked for reload", showId);
+            staleShows.add(showId);
+            throw new SeatUnavailableException("Seat is already reserved", e);
+        }
+
+        if (status == ActiveSeatHold.HoldStatus.SOLD) {
+            afterCommit(showId, seatIds, ShowSeatInventory::markSold, ShowSeatInventory.SeatState.SOLD);
+        }
+    }
+
+    /**
+     * Marca como vendidos los asientos de una reserva confirmada
+     */
+    public void markSold(UUID showId, UUID reservationId, Collection<UUID> seatIds) {
+        activeSeatHoldRepository.markSoldByReservationId(reservationId);
+        afterCommit(showId, seatIds, ShowSeatInventory::markSold, ShowSeatInventory.SeatState.SOLD);
+    }
+
+    /**
+     * Libera los asientos de una reserva cancelada o expirada
+     */
+    public void release(UUID showId, UUID reservationId, Collection<UUID> seatIds) {
+        activeSeatHoldRepository.deleteByReservationId(reservationId);
+        afterCommit(showId, seatIds, ShowSeatInventory::release, ShowSeatInventory.SeatState.FREE);
+    }
+
+    /**
+     * Descarta el inventario de una función (se volverá a cargar en la próxima consulta)
+     */
+    public void evict(UUID showId) {
+        inventories.remove(showId);
+        flushedOccupancy.remove(showId);
+    }
+
+    /**
+     * Libera la memoria de las funciones que ya terminaron, guardando antes sus contadores finales,
+     * y borra sus retenciones de active_seat_holds, que solo debe tener las de funciones por venir o en curso
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.cleanup-interval-ms:3600000}")
+    public void evictFinishedShows() {
+        ZonedDateTime now = ZonedDateTime.now();
+        inventories.forEach((showId, inventory) -> {
+            if (!inventory.getEndTime().isBefore(now)) {
+                return;
+            }
+            try {
+                flushOccupancy(showId, inventory);
+                evict(showId);
+            } catch (RuntimeException e) {
+                // Sin los contadores guardados no se descarta: se reintenta en la próxima limpieza
+                log.warn("Failed to flush final occupancy for show {}: {}", showId, e.getMessage());
+            }
+        });
+
+        int purged = activeSeatHoldRepository.deleteForShowsEndedBefore(now);
+        if (purged > 0) {
+            log.info("Purged {} seat holds of finished shows", purged);
+        }
+    }
+
+    /**
+     * Guarda periódicamente en la tabla shows los contadores de ocupación de las funciones cuyo
+     * inventario cambió, para que los listados los lean sin contar asientos
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.occupancy-flush-interval-ms:30000}")
+    public void flushOccupancy() {
+        inventories.forEach(this::flushOccupancy);
+    }
+
+    private void flushOccupancy(UUID showId, ShowSeatInventory inventory) {
+        int sold = inventory.getSoldCount();
+        int held = inventory.getHeldCount();
+        long occupancy = ((long) sold << 32) | held;
+        if (!Long.valueOf(occupancy).equals(flushedOccupancy.get(showId))) {
+            showRepository.updateOccupancy(showId, inventory.getCapacity(), sold, held);
+            flushedOccupancy.put(showId, occupancy);
+        }
+    }
+
+    /**
+     * Vuelve a cargar periódicamente los inventarios en memoria para incorporar los asientos
+     * liberados por otros nodos de la API
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.resync-interval-ms:60000}")
+    public void resyncInventories() {
+        for (UUID showId : inventories.keySet()) {
+            try {
+                refresh(showId);
+            } catch (RuntimeException e) {
+                // No frena el resto de la pasada: se reintenta en la próxima de refreshStaleInventories
+                staleShows.add(showId);
+                log.warn("Failed to resync inventory for show {}, will retry: {}", showId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recarga enseguida los inventarios que un conflicto con otro nodo dejó desactualizados
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.stale-refresh-interval-ms:1000}")
+    public void refreshStaleInventories() {
+        for (UUID showId : staleShows) {
+            staleShows.remove(showId);
+            if (!inventories.containsKey(showId)) {
+                continue;
+            }
+            try {
+                refresh(showId);
+            } catch (RuntimeException e) {
+                staleShows.add(showId);
+                log.warn("Failed to reload inventory for show {}, will retry: {}", showId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vuelve a cargar el inventario de una función desde la base de datos y publica
+     * los asientos que cambiaron de estado.
+     * La base se lee sin el lock de la función, para no frenar las reservas mientras dura la consulta.
+     * La foto previa sí se toma con el lock, que las reservas tienen tomado hasta el commit: así no hay reclamos
+     * sin confirmar que la lectura no vea. Lo que cambie en memoria entre la foto y el reemplazo (reservas
+     * confirmadas o liberadas mientras tanto) se vuelve a aplicar sobre el inventario leído, ya con el lock.
+     */
+    private void refresh(UUID showId) {
+        ShowSeatInventory previous = inventories.get(showId);
+        ShowSeatInventory.SeatState[] before = previous != null
+                ? showLocks.withShowLock(showId, previous::snapshot)
+                : null;
+
+        ShowSeatInventory reloaded;
+        try {
+            reloaded = loadInventory(showId);
+        } catch (ResourceNotFoundException e) {
+            inventories.remove(showId);
+            return;
+        }
+
+        showLocks.withShowLock(showId, () -> {
+            swapInventory(showId, previous, before, reloaded);
+            return null;
+        });
+    }
+
+    private void swapInventory(UUID showId, ShowSeatInventory previous, ShowSeatInventory.SeatState[] before,
+                               ShowSeatInventory reloaded) {
+        ShowSeatInventory current = inventories.get(showId);
+        if (current != previous) {
+            // Otra recarga ya lo reemplazó, o se descartó: no se pisa
+            return;
+        }
+        if (previous == null || previous.getCapacity() != reloaded.getCapacity()) {
+            inventories.put(showId, reloaded);
+            return;
+        }
+
+        ShowSeatInventory.SeatState[] live = previous.snapshot();
+        for (int i = 0; i < live.length; i++) {
+            if (live[i] != before[i]) {
+                setState(reloaded, i, live[i]);
+            }
+        }
+        inventories.put(showId, reloaded);
+
+        ShowSeatInventory.SeatState[] after = reloaded.snapshot();
+        List<SeatMapChangedEvent.SeatDelta> deltas = new ArrayList<>();
+        for (int i = 0; i < after.length; i++) {
+            if (live[i] != after[i]) {
+                deltas.add(new SeatMapChangedEvent.SeatDelta(i, after[i]));
+            }
+        }
+        if (!deltas.isEmpty()) {
+            eventPublisher.publishEvent(new SeatMapChangedEvent(showId, deltas));
+        }
+    }
+
+    private static void setState(ShowSeatInventory inventory, int index, ShowSeatInventory.SeatState state) {
+        int[] indexes = { index };
+        inventory.release(indexes);
+        switch (state) {
+            case HELD -> inventory.markHeld(indexes);
+            case SOLD -> inventory.markSold(indexes);
+            case FREE -> { }
+        }
+    }
+
+    private ShowSeatInventory loadInventory(UUID showId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> readInventory(showId));
+    }
+
+    private ShowSeatInventory readInventory(UUID showId) {
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new ResourceNotFoundException("Show", "id", showId));
+
+        UUID roomId = show.getRoom().getId();
+        ShowSeatInventory inventory = new ShowSeatInventory(
+                showId, roomId, show.getEndTime(), seatRepository.findByRoomId(roomId));
+
+        List<Object[]> reservedSeats = activeSeatHoldRepository.findSeatStatesByShowId(showId);
+        for (Object[] row : reservedSeats) {
+            int index = inventory.indexOf((UUID) row[0]);
+            if (index < 0) {
+                continue;
+            }
+            if (row[1] == ActiveSeatHold.HoldStatus.SOLD) {
+                inventory.markSold(new int[] { index });
+            } else {
+                inventory.markHeld(new int[] { index });
+            }
+        }
+
+        log.debug("Loaded seat inventory for show {} ({} seats, {} reserved)",
+                showId, inventory.getCapacity(), reservedSeats.size());
+        return inventory;
+    }
+
+    /**
+     * Aplica el cambio al inventario cuando la transacción se confirma, o inmediatamente si no hay
+     * transacción activa, y publica el nuevo estado de los asientos. Si el inventario de la función
+     * no está cargado no se hace nada: la próxima carga ya leerá el estado actualizado de la base de datos.
+     */
+    private void afterCommit(UUID showId, Collection<UUID> seatIds, InventoryUpdate update,
+                             ShowSeatInventory.SeatState newState) {
+        Runnable apply = () -> {
+            ShowSeatInventory inventory = inventories.get(showId);
+            if (inventory != null) {
+                int[] indexes = inventory.indexesOf(seatIds);
+                update.apply(inventory, indexes);
+                publish(showId, indexes, newState);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void publish(UUID showId, int[] indexes, ShowSeatInventory.SeatState state) {
+        List<SeatMapChangedEvent.SeatDelta> deltas = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            deltas.add(new SeatMapChangedEvent.SeatDelta(index, state));
+        }
+        eventPublisher.publishEvent(new SeatMapChangedEvent(showId, deltas));
+    }
+
+    @FunctionalInterface
+    private interface InventoryUpdate {
+        void apply(ShowSeatInventory inventory, int[] indexes);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cinetickets.api.service.inventory;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cambio de estado de uno o más asientos de una función, ya aplicado al inventario en memoria
+ */
+@Value
+public class SeatMapChangedEvent {
+
+    UUID showId;
+    List<SeatDelta> deltas;
+
+    /**
+     * Nuevo estado de un asiento, identificado por su índice en el inventario de la función
+     */
+    @Value
+    public static class SeatDelta {
+        int index;
+        ShowSeatInventory.SeatState state;
+    }
+}
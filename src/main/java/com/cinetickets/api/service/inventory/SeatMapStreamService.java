@@ -0,0 +1,202 @@
+package com.cinetickets.api.service.inventory;
+
+import com.cinetickets.api.service.ShowService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Difunde por Server-Sent Events el mapa de asientos de cada función.
+ * Al suscribirse se envía una foto completa (evento "snapshot") y luego solo los asientos
+ * que cambian (evento "delta", con índice y nuevo estado). Cada cambio se serializa una sola vez
+ * y se envía a todos los suscriptores de la función.
+ * <p>
+ * Cada suscriptor tiene su propio buffer acotado, que vacía en orden un pool chico de hilos; la foto inicial
+ * es lo primero que entra al buffer, así nunca recibe un delta anterior a ella. Un cliente lento que llena
+ * su buffer se desconecta (al reconectarse recibe una foto nueva) en lugar de frenar a los demás.
+ * Métrica: {@code seats.stream.dropped} (suscriptores desconectados por lentos).
+ */
+@Slf4j
+@Service
+public class SeatMapStreamService {
+
+    private final ShowService showService;
+    private final ObjectMapper objectMapper;
+    private final long streamTimeoutMillis;
+    private final int bufferSize;
+    private final Counter dropped;
+
+    private final ConcurrentMap<UUID, List<Subscriber>> subscribersByShow = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+
+    public SeatMapStreamService(ShowService showService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.seats.stream-timeout-ms:1800000}") long streamTimeoutMillis,
+                                @Value("${app.seats.stream-threads:4}") int threads,
+                                @Value("${app.seats.stream-buffer-size:64}") int bufferSize,
+                                @Value("${app.seats.stream-queue-capacity:1000}") int queueCapacity) {
+        this.showService = showService;
+        this.objectMapper = objectMapper;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("seats.stream.dropped")
+                .description("Seat map subscribers disconnected because they could not keep up")
+                .register(meterRegistry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-map-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Abre un stream de cambios para la función. La foto inicial se envía de forma asíncrona.
+     */
+    public SseEmitter subscribe(UUID showId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(showId, emitter, bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Se registra antes de tomar la foto: un cambio posterior llega como delta, uno anterior ya está en la foto
+        subscribersByShow.computeIfAbsent(showId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        enqueue(subscriber, () -> SseEmitter.event().name("snapshot")
+                .data(showService.getAvailableSeatsForShow(showId), MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    @EventListener
+    public void onSeatMapChanged(SeatMapChangedEvent event) {
+        // Si nadie sigue la función no hay nada que enviar: una suscripción posterior ya verá el cambio en su foto
+        List<Subscriber> subscribers = subscribersByShow.get(event.getShowId());
+        if (subscribers == null || event.getDeltas().isEmpty()) {
+            return;
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event.getDeltas());
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing seat map delta for show {}: {}", event.getShowId(), e.getMessage());
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, () -> SseEmitter.event().name("delta").data(payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Envía un comentario periódico para detectar y descartar las conexiones cerradas
+     */
+    @Scheduled(fixedDelayString = "${app.seats.stream-heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (List<Subscriber> subscribers : subscribersByShow.values()) {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, () -> SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribersByShow.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribersByShow.clear();
+    }
+
+    private void enqueue(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (!subscriber.buffer.offer(event)) {
+            drop(subscriber, "buffer full");
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                drop(subscriber, "dispatcher saturated");
+            }
+        }
+    }
+
+    /**
+     * Envía en orden lo acumulado en el buffer del suscriptor. Solo un hilo a la vez lo vacía.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            Supplier<SseEmitter.SseEventBuilder> next;
+            while ((next = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(next.get());
+                } catch (Exception e) {
+                    log.debug("Seat map stream for show {} closed: {}", subscriber.showId, e.getMessage());
+                    unsubscribe(subscriber);
+                    subscriber.buffer.clear();
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // Un evento encolado justo antes de soltar la marca no quedó con nadie que lo envíe
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (unsubscribe(subscriber)) {
+            log.debug("Dropping slow seat map subscriber for show {}: {}", subscriber.showId, reason);
+            dropped.increment();
+            subscriber.buffer.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean unsubscribe(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribersByShow.computeIfPresent(subscriber.showId, (id, subscribers) -> {
+            removed.set(subscribers.remove(subscriber));
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        return removed.get();
+    }
+
+    private static final class Subscriber {
+        private final UUID showId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> buffer;
+        // Hay un hilo del dispatcher vaciando el buffer, o una tarea encolada para hacerlo
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(UUID showId, SseEmitter emitter, int bufferSize) {
+            this.showId = showId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.cinetickets.api.service.inventory;
+
+import com.cinetickets.api.entity.Seat;
+import lombok.Getter;
+import lombok.Value;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Inventario en memoria de los asientos de una función.
+ * Cada asiento de la sala recibe un índice denso (ordenado por fila y número)
+ * y su estado se guarda en dos bitmaps atómicos: ocupados (retenidos o vendidos) y vendidos.
+ * El bitmap de ocupados es el que se reclama con CAS al reservar.
+ * <p>
+ * Como los índices siguen el orden de la sala, cada fila ocupa un rango contiguo del bitmap,
+ * lo que permite buscar asientos juntos recorriendo palabras de 64 asientos a la vez.
+ * <p>
+ * Junto a los bitmaps se mantienen contadores de ocupados y vendidos, que se ajustan con los bits
+ * que cada operación realmente cambió, para consultar la ocupación sin recorrer los asientos.
+ */
+public class ShowSeatInventory {
+
+    public enum SeatState {
+        FREE, HELD, SOLD
+    }
+
+    @Getter
+    private final UUID showId;
+
+    @Getter
+    private final UUID roomId;
+
+    @Getter
+    private final ZonedDateTime endTime;
+
+    private final List<SeatSlot> seats;
+    private final Map<UUID, Integer> indexBySeatId;
+    private final AtomicLongArray taken;
+    private final AtomicLongArray sold;
+    private final AtomicInteger takenCount = new AtomicInteger();
+    private final AtomicInteger soldCount = new AtomicInteger();
+    private final int[] rowStarts;
+    private final long[] selectable;
+    private final Map<String, long[]> selectableByType;
+
+    public ShowSeatInventory(UUID showId, UUID roomId, ZonedDateTime endTime, Collection<Seat> roomSeats) {
+        this.showId = showId;
+        this.roomId = roomId;
+        this.endTime = endTime;
+
+        List<Seat> ordered = new ArrayList<>(roomSeats);
+        ordered.sort(SEAT_ORDER);
+
+        List<SeatSlot> slots = new ArrayList<>(ordered.size());
+        Map<UUID, Integer> index = new HashMap<>(ordered.size() * 2);
+        List<Integer> starts = new ArrayList<>();
+        long[] active = new long[wordCount(ordered.size())];
+        Map<String, long[]> activeByType = new HashMap<>();
+        for (Seat seat : ordered) {
+            int i = slots.size();
+            if (i == 0 || !seat.getRowName().equals(slots.get(i - 1).getRowName())) {
+                starts.add(i);
+            }
+            // Solo los asientos activos pueden asignarse automáticamente
+            if (seat.getStatus() == null || seat.getStatus() == Seat.SeatStatus.ACTIVE) {
+                active[i >>> 6] |= 1L << i;
+                if (seat.getSeatType() != null) {
+                    activeByType.computeIfAbsent(seat.getSeatType().name(), type -> new long[active.length])[i >>> 6] |= 1L << i;
+                }
+            }
+            slots.add(new SeatSlot(
+                    i,
+                    seat.getId(),
+                    seat.getRowName(),
+                    seat.getNumber(),
+                    seat.getSeatType() != null ? seat.getSeatType().name() : null,
+                    seat.getStatus() != null ? seat.getStatus().name() : null));
+            index.put(seat.getId(), i);
+        }
+
+        this.seats = Collections.unmodifiableList(slots);
+        this.indexBySeatId = index;
+        this.taken = new AtomicLongArray(wordCount(slots.size()));
+        this.sold = new AtomicLongArray(wordCount(slots.size()));
+        this.rowStarts = new int[starts.size() + 1];
+        for (int r = 0; r < starts.size(); r++) {
+            this.rowStarts[r] = starts.get(r);
+        }
+        this.rowStarts[starts.size()] = slots.size();
+        this.selectable = active;
+        this.selectableByType = activeByType;
+    }
+
+    public int getCapacity() {
+        return seats.size();
+    }
+
+    public List<SeatSlot> getSeats() {
+        return seats;
+    }
+
+    public int getSoldCount() {
+        return soldCount.get();
+    }
+
+    /**
+     * Asientos retenidos por reservas pendientes. Los dos contadores se leen por separado,
+     * por lo que durante una confirmación el valor puede quedar un instante desfasado.
+     */
+    public int getHeldCount() {
+        return Math.max(0, takenCount.get() - soldCount.get());
+    }
+
+    public int getAvailableCount() {
+        return Math.max(0, seats.size() - takenCount.get());
+    }
+
+    /**
+     * Devuelve el índice denso de un asiento, o -1 si no pertenece a la sala de la función
+     */
+    public int indexOf(UUID seatId) {
+        Integer index = indexBySeatId.get(seatId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Convierte IDs de asiento a índices, ignorando los que no pertenecen a la sala
+     */
+    public int[] indexesOf(Collection<UUID> seatIds) {
+        return seatIds.stream()
+                .mapToInt(this::indexOf)
+                .filter(index -> index >= 0)
+                .toArray();
+    }
+
+    public SeatState getState(int index) {
+        long bit = 1L << index;
+        if ((sold.get(index >>> 6) & bit) != 0) {
+            return SeatState.SOLD;
+        }
+        return (taken.get(index >>> 6) & bit) != 0 ? SeatState.HELD : SeatState.FREE;
+    }
+
+    /**
+     * Copia del estado de todos los asientos, en orden de índice
+     */
+    public SeatState[] snapshot() {
+        SeatState[] states = new SeatState[seats.size()];
+        for (int word = 0; word < taken.length(); word++) {
+            long takenWord = taken.get(word);
+            long soldWord = sold.get(word);
+            int base = word << 6;
+            for (int bit = 0; bit < 64 && base + bit < states.length; bit++) {
+                long mask = 1L << bit;
+                states[base + bit] = (soldWord & mask) != 0 ? SeatState.SOLD
+                        : (takenWord & mask) != 0 ? SeatState.HELD : SeatState.FREE;
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Indica si todos los asientos indicados están libres
+     */
+    public boolean areFree(int[] indexes) {
+        for (int index : indexes) {
+            if ((taken.get(index >>> 6) & (1L << index)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca los mejores {@code quantity} asientos libres y contiguos de una misma fila.
+     * Se prefieren los más cercanos al centro de la sala: primero por distancia de la fila a la fila
+     * central y luego por distancia del grupo al centro de su fila. No reclama los asientos.
+     *
+     * @param seatType tipo de asiento requerido, o null para cualquiera
+     * @return los índices encontrados, o null si no hay ningún grupo disponible
+     */
+    public int[] findBestAvailable(int quantity, String seatType) {
+        long[] eligible = seatType != null ? selectableByType.get(seatType) : selectable;
+        int rowCount = rowStarts.length - 1;
+        if (eligible == null || quantity <= 0 || rowCount == 0) {
+            return null;
+        }
+
+        double middleRow = (rowCount - 1) / 2.0;
+        double bestScore = Double.MAX_VALUE;
+        int bestStart = -1;
+
+        for (int row = 0; row < rowCount; row++) {
+            int rowStart = rowStarts[row];
+            int rowEnd = rowStarts[row + 1];
+            int rowLength = rowEnd - rowStart;
+            double rowScore = ROW_DISTANCE_WEIGHT * Math.abs(row - middleRow) / rowCount;
+            if (rowLength < quantity || rowScore >= bestScore) {
+                continue;
+            }
+
+            double rowCenter = rowStart + rowLength / 2.0;
+            int runStart = -1;
+            int word = -1;
+            long free = 0;
+
+            // El índice rowEnd actúa como centinela para cerrar el último tramo libre de la fila
+            for (int i = rowStart; i <= rowEnd; i++) {
+                boolean isFree = false;
+                if (i < rowEnd) {
+                    if ((i >>> 6) != word) {
+                        word = i >>> 6;
+                        free = eligible[word] & ~taken.get(word);
+                    }
+                    isFree = (free & (1L << i)) != 0;
+                }
+
+                if (isFree) {
+                    if (runStart < 0) {
+                        runStart = i;
+                    }
+                    continue;
+                }
+
+                if (runStart >= 0 && i - runStart >= quantity) {
+                    // Dentro del tramo libre, el grupo más centrado posible
+                    int start = (int) Math.round(rowCenter - quantity / 2.0);
+                    start = Math.max(runStart, Math.min(start, i - quantity));
+                    double score = rowScore + Math.abs(start + quantity / 2.0 - rowCenter) / rowLength;
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestStart = start;
+                    }
+                }
+                runStart = -1;
+            }
+        }
+
+        if (bestStart < 0) {
+            return null;
+        }
+        int[] indexes = new int[quantity];
+        for (int i = 0; i < quantity; i++) {
+            indexes[i] = bestStart + i;
+        }
+        return indexes;
+    }
+
+    /**
+     * Reclama atómicamente todos los asientos indicados o ninguno.
+     * Los asientos se agrupan por palabra del bitmap y cada palabra se reclama con CAS en orden
+     * ascendente; si alguna palabra ya tiene un asiento ocupado se deshacen las anteriores.
+     * No se usa ningún lock, por lo que funciones y palabras distintas no compiten entre sí.
+     *
+     * @return true si se reclamaron todos los asientos, false si alguno ya estaba ocupado
+     */
+    public boolean tryClaim(int[] indexes) {
+        long[] masks = toWordMasks(indexes);
+        int[] words = wordsOf(masks);
+
+        for (int i = 0; i < words.length; i++) {
+            int word = words[i];
+            long mask = masks[word];
+            while (true) {
+                long current = taken.get(word);
+                if ((current & mask) != 0) {
+                    // Deshacer las palabras ya reclamadas
+                    for (int j = 0; j < i; j++) {
+                        clearBits(taken, words[j], masks[words[j]]);
+                    }
+                    return false;
+                }
+                if (taken.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+        takenCount.addAndGet(bitCount(masks));
+        return true;
+    }
+
+    /**
+     * Marca asientos como retenidos sin comprobar su estado (usado al cargar el inventario)
+     */
+    public void markHeld(int[] indexes) {
+        long[] masks = toWordMasks(indexes);
+        for (int word : wordsOf(masks)) {
+            takenCount.addAndGet(Long.bitCount(masks[word] & ~setBits(taken, word, masks[word])));
+        }
+    }
+
+    public void markSold(int[] indexes) {
+        long[] masks = toWordMasks(indexes);
+        for (int word : wordsOf(masks)) {
+            takenCount.addAndGet(Long.bitCount(masks[word] & ~setBits(taken, word, masks[word])));
+            soldCount.addAndGet(Long.bitCount(masks[word] & ~setBits(sold, word, masks[word])));
+        }
+    }
+
+    public void release(int[] indexes) {
+        long[] masks = toWordMasks(indexes);
+        for (int word : wordsOf(masks)) {
+            soldCount.addAndGet(-Long.bitCount(masks[word] & clearBits(sold, word, masks[word])));
+            takenCount.addAndGet(-Long.bitCount(masks[word] & clearBits(taken, word, masks[word])));
+        }
+    }
+
+    /**
+     * Peso de la distancia entre filas frente a la distancia dentro de la fila
+     */
+    private static final double ROW_DISTANCE_WEIGHT = 2.0;
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private long[] toWordMasks(int[] indexes) {
+        long[] masks = new long[taken.length()];
+        for (int index : indexes) {
+            masks[index >>> 6] |= 1L << index;
+        }
+        return masks;
+    }
+
+    private static int[] wordsOf(long[] masks) {
+        int count = 0;
+        for (long mask : masks) {
+            if (mask != 0) {
+                count++;
+            }
+        }
+        int[] words = new int[count];
+        int i = 0;
+        for (int word = 0; word < masks.length; word++) {
+            if (masks[word] != 0) {
+                words[i++] = word;
+            }
+        }
+        return words;
+    }
+
+    private static int bitCount(long[] masks) {
+        int count = 0;
+        for (long mask : masks) {
+            count += Long.bitCount(mask);
+        }
+        return count;
+    }
+
+    /**
+     * Enciende los bits y devuelve el valor anterior de la palabra
+     */
+    private static long setBits(AtomicLongArray bitmap, int word, long mask) {
+        long current;
+        do {
+            current = bitmap.get(word);
+        } while (!bitmap.compareAndSet(word, current, current | mask));
+        return current;
+    }
+
+    /**
+     * Apaga los bits y devuelve el valor anterior de la palabra
+     */
+    private static long clearBits(AtomicLongArray bitmap, int word, long mask) {
+        long current;
+        do {
+            current = bitmap.get(word);
+        } while (!bitmap.compareAndSet(word, current, current & ~mask));
+        return current;
+    }
+
+    /**
+     * Orden de los asientos dentro de la sala: por fila y luego por número (numérico si es posible)
+     */
+    private static final Comparator<Seat> SEAT_ORDER = Comparator
+            .comparing((Seat s) -> s.getRowName().length())
+            .thenComparing(Seat::getRowName)
+            .thenComparing(s -> parseNumber(s.getNumber()))
+            .thenComparing(Seat::getNumber);
+
+    private static int parseNumber(String number) {
+        try {
+            return Integer.parseInt(number.trim());
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Datos inmutables de un asiento de la sala
+     */
+    @Value
+    public static class SeatSlot {
+        int index;
+        UUID id;
+        String rowName;
+        String number;
+        String seatType;
+        String status;
+    }
+}
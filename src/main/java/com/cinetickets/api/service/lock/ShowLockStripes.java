@@ -0,0 +1,74 @@
+package com.cinetickets.api.service.lock;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks por función repartidos en un número fijo de franjas.
+ * Las escrituras de reservas de una misma función caen siempre en la misma franja y se ejecutan
+ * de a una, en orden de llegada; funciones en franjas distintas no se bloquean entre sí.
+ * <p>
+ * Por franja se publican la cantidad de hilos esperando ({@code reservation.lock.queue.depth})
+ * y el tiempo de espera del lock ({@code reservation.lock.wait}).
+ */
+@Component
+public class ShowLockStripes {
+
+    private final ReentrantLock[] locks;
+    private final Timer[] waitTimers;
+
+    public ShowLockStripes(MeterRegistry meterRegistry,
+                           @Value("${app.reservation.lock-stripes:64}") int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("The number of lock stripes must be greater than zero");
+        }
+        this.locks = new ReentrantLock[stripes];
+        this.waitTimers = new Timer[stripes];
+
+        for (int i = 0; i < stripes; i++) {
+            // Lock justo: los pedidos de una misma función se atienden en orden de llegada
+            ReentrantLock lock = new ReentrantLock(true);
+            String stripe = String.valueOf(i);
+            locks[i] = lock;
+            waitTimers[i] = Timer.builder("reservation.lock.wait")
+                    .description("Time spent waiting for the per-show reservation lock")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            Gauge.builder("reservation.lock.queue.depth", lock, ReentrantLock::getQueueLength)
+                    .description("Threads waiting for the per-show reservation lock")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Ejecuta la operación con el lock de la función
+     */
+    public <T> T withShowLock(UUID showId, Supplier<T> operation) {
+        int stripe = stripeOf(showId);
+        ReentrantLock lock = locks[stripe];
+
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return operation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripeOf(UUID showId) {
+        int hash = showId.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, locks.length);
+    }
+}
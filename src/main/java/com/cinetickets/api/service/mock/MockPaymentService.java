@@ -5,8 +5,13 @@ import com.cinetickets.api.dto.response.PaymentResponse;
 import com.cinetickets.api.entity.Order;
 import com.cinetickets.api.exception.PaymentProcessingException;
 import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.service.QrCodeService;
+import com.cinetickets.api.service.order.OrderPaidEvent;
+import com.cinetickets.api.service.order.OrderRefundedEvent;
+import com.cinetickets.api.service.order.OrderSummaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +29,9 @@ import java.util.UUID;
 public class MockPaymentService {
 
     private final OrderRepository orderRepository;
+    private final OrderSummaryWriter orderSummaryWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QrCodeService qrCodeService;
 
     /**
      * Procesa un pago simulado, siempre devuelve éxito
@@ -45,8 +53,14 @@ public class MockPaymentService {
             order.setPaymentStatus(Order.PaymentStatus.PAID);
             order.setStatus(Order.OrderStatus.COMPLETED);
             order.setPaymentReference("MOCK-" + UUID.randomUUID().toString().substring(0, 8));
+            if (order.getQrCode() == null) {
+                order.setQrCode(qrCodeService.generateTicketToken(order.getId(),
+                        order.getReservation().getShow().getId(), System.currentTimeMillis()));
+            }
             
             orderRepository.save(order);
+            orderSummaryWriter.statusChanged(order);
+            eventPublisher.publishEvent(new OrderPaidEvent(order.getId()));
             
             // Preparar respuesta
             String redirectUrl = "http://localhost:3000/payment/success?order_id=" + orderId;
@@ -84,9 +98,14 @@ public class MockPaymentService {
             Order order = orderRepository.findById(orderId)
                     .orElseThrow(() -> new PaymentProcessingException("Order not found"));
             
+            boolean wasPaid = order.getPaymentStatus() == Order.PaymentStatus.PAID;
             order.setPaymentStatus(Order.PaymentStatus.REFUNDED);
             order.setStatus(Order.OrderStatus.CANCELED);
             orderRepository.save(order);
+            orderSummaryWriter.statusChanged(order);
+            if (wasPaid) {
+                eventPublisher.publishEvent(new OrderRefundedEvent(order.getId()));
+            }
             
         } catch (Exception e) {
             log.error("MOCK: Error refunding payment for order {}", orderId, e);
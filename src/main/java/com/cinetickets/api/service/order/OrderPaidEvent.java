@@ -0,0 +1,15 @@
+package com.cinetickets.api.service.order;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Una orden quedó pagada: una vez confirmada la transacción se acreditan los puntos y se envía el
+ * email de confirmación (ver PostPurchasePipeline)
+ */
+@Value
+public class OrderPaidEvent {
+
+    UUID orderId;
+}
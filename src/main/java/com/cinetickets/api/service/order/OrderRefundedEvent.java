@@ -0,0 +1,15 @@
+package com.cinetickets.api.service.order;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Una orden pagada dejó de estarlo (reembolso, o cancelación informada por MercadoPago): una vez confirmada
+ * la transacción sus entradas dejan de valer en la puerta (ver TicketAdmissionLedger)
+ */
+@Value
+public class OrderRefundedEvent {
+
+    UUID orderId;
+}
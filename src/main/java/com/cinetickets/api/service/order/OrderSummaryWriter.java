@@ -0,0 +1,76 @@
+package com.cinetickets.api.service.order;
+
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.OrderSummary;
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.repository.CinemaRepository;
+import com.cinetickets.api.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+/**
+ * Mantiene la tabla order_summaries. Se llama desde cada operación que crea una orden o cambia sus
+ * estados, dentro de la misma transacción, así el resumen nunca queda desfasado de la orden.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryWriter {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final CinemaRepository cinemaRepository;
+
+    /**
+     * Copia los datos de una orden recién guardada, con su reserva y asientos ya cargados
+     */
+    @Transactional
+    public OrderSummary created(Order order) {
+        Show show = order.getReservation().getShow();
+        Room room = show.getRoom();
+
+        OrderSummary summary = OrderSummary.builder()
+                .id(order.getId())
+                .userId(order.getUser() != null ? order.getUser().getId() : null)
+                .reservationId(order.getReservation().getId())
+                .cinemaId(room.getCinemaId())
+                .movieTitle(show.getMovie().getTitle())
+                .showDateTime(show.getStartTime())
+                .cinemaName(room.getCinemaId() != null
+                        ? cinemaRepository.findNamesById(Set.of(room.getCinemaId())).get(room.getCinemaId())
+                        : null)
+                .roomName(room.getName())
+                .numberOfSeats(order.getReservation().getReservedSeats().size())
+                .subtotal(order.getSubtotal())
+                .discount(order.getDiscount())
+                .tax(order.getTax())
+                .total(order.getTotal())
+                .paymentMethod(order.getPaymentMethod())
+                .paymentStatus(order.getPaymentStatus())
+                .orderType(order.getOrderType())
+                .orderStatus(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt())
+                .build();
+        return orderSummaryRepository.save(summary);
+    }
+
+    /**
+     * Copia los estados de pago y de la orden después de pagarla, cancelarla o reembolsarla
+     */
+    @Transactional
+    public void statusChanged(Order order) {
+        int updated = orderSummaryRepository.updateStatuses(order.getId(), order.getPaymentStatus(),
+                order.getStatus(), ZonedDateTime.now());
+        if (updated == 0) {
+            // Orden sin resumen (anterior al modelo de lectura o creada por fuera del servicio)
+            log.warn("Order {} had no summary, rebuilding it", order.getId());
+            created(order);
+        }
+    }
+}
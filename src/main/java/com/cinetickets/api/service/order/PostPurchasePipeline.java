@@ -0,0 +1,171 @@
+package com.cinetickets.api.service.order;
+
+import com.cinetickets.api.dto.response.OrderDetailsResponse;
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.User;
+import com.cinetickets.api.exception.ResourceNotFoundException;
+import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.repository.UserRepository;
+import com.cinetickets.api.service.EmailService;
+import com.cinetickets.api.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo posterior al pago de una orden, fuera de la transacción y del hilo del pedido: acreditar los
+ * puntos de fidelidad y enviar el email de confirmación con el QR de las entradas.
+ * <p>
+ * Cada paso corre en su executor acotado (ver AsyncConfig) y es idempotente; si falla se reintenta con
+ * espera exponencial hasta {@code app.post-purchase.max-attempts} veces. Si el executor está lleno, el paso
+ * se vuelve a enviar más tarde desde el scheduler sin contar como intento. Por paso se publica
+ * {@code order.post_purchase} con el resultado de cada intento (success, retry o failure).
+ */
+@Slf4j
+@Component
+public class PostPurchasePipeline {
+
+    enum Step {
+        LOYALTY, EMAIL
+    }
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final OrderService orderService;
+    private final EmailService emailService;
+    private final Executor postPurchaseExecutor;
+    private final Executor mailExecutor;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final BigDecimal amountPerPoint;
+
+    public PostPurchasePipeline(OrderRepository orderRepository,
+                                UserRepository userRepository,
+                                OrderService orderService,
+                                EmailService emailService,
+                                @Qualifier("postPurchaseExecutor") Executor postPurchaseExecutor,
+                                @Qualifier("mailExecutor") Executor mailExecutor,
+                                TaskScheduler taskScheduler,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.post-purchase.max-attempts:5}") int maxAttempts,
+                                @Value("${app.post-purchase.retry-backoff-ms:2000}") long retryBackoffMillis,
+                                @Value("${app.loyalty.amount-per-point:100}") BigDecimal amountPerPoint) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.orderService = orderService;
+        this.emailService = emailService;
+        this.postPurchaseExecutor = postPurchaseExecutor;
+        this.mailExecutor = mailExecutor;
+        this.taskScheduler = taskScheduler;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.amountPerPoint = amountPerPoint;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPaid(OrderPaidEvent event) {
+        submit(Step.LOYALTY, event.getOrderId(), 1);
+        submit(Step.EMAIL, event.getOrderId(), 1);
+    }
+
+    private void submit(Step step, UUID orderId, int attempt) {
+        Executor executor = step == Step.EMAIL ? mailExecutor : postPurchaseExecutor;
+        try {
+            executor.execute(() -> run(step, orderId, attempt));
+        } catch (RejectedExecutionException e) {
+            log.warn("Post-purchase step {} for order {} rejected by a full executor, resubmitting in {}",
+                    step, orderId, retryBackoff);
+            taskScheduler.schedule(() -> submit(step, orderId, attempt), Instant.now().plus(retryBackoff));
+        }
+    }
+
+    private void run(Step step, UUID orderId, int attempt) {
+        long start = System.nanoTime();
+        try {
+            execute(step, orderId);
+            record(step, "success", start);
+        } catch (RuntimeException e) {
+            if (attempt >= maxAttempts) {
+                record(step, "failure", start);
+                log.error("Post-purchase step {} for order {} failed after {} attempts", step, orderId, attempt, e);
+                return;
+            }
+            record(step, "retry", start);
+            Duration delay = retryBackoff.multipliedBy(1L << (attempt - 1));
+            log.warn("Post-purchase step {} for order {} failed (attempt {} of {}), retrying in {}: {}",
+                    step, orderId, attempt, maxAttempts, delay, e.getMessage());
+            taskScheduler.schedule(() -> submit(step, orderId, attempt + 1), Instant.now().plus(delay));
+        }
+    }
+
+    private void execute(Step step, UUID orderId) {
+        switch (step) {
+            case LOYALTY -> accrueLoyaltyPoints(orderId);
+            case EMAIL -> sendConfirmation(orderId);
+        }
+    }
+
+    /**
+     * Acredita un punto por cada {@code app.loyalty.amount-per-point} del total, una sola vez por orden
+     */
+    private void accrueLoyaltyPoints(UUID orderId) {
+        transaction.executeWithoutResult(status -> {
+            Order order = findOrder(orderId);
+            if (order.getUser() == null || order.getLoyaltyPoints() != null) {
+                return;
+            }
+            int points = order.getTotal().divide(amountPerPoint, 0, RoundingMode.DOWN).intValue();
+            if (orderRepository.awardLoyaltyPoints(orderId, points) == 1 && points > 0) {
+                userRepository.addLoyaltyPoints(order.getUser().getId(), points);
+            }
+        });
+    }
+
+    private void sendConfirmation(UUID orderId) {
+        OrderDetailsResponse details = orderService.getOrderDetailsWithQrById(orderId, null);
+        if (details.getUserId() == null) {
+            return;
+        }
+        User user = userRepository.findById(details.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", details.getUserId()));
+        emailService.sendTicketConfirmationEmail(user, details);
+    }
+
+    private Order findOrder(UUID orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+    }
+
+    private void record(Step step, String outcome, long start) {
+        Timer.builder("order.post_purchase")
+                .description("Post-purchase step attempts by outcome")
+                .tag("step", step.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,98 @@
+package com.cinetickets.api.service.pagination;
+
+import com.cinetickets.api.dto.response.CursorPageResponse;
+import com.cinetickets.api.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Posición de un listado ordenado por (created_at DESC, id DESC).
+ * El token es base64url(segundos, nanos, id): el cliente lo trata como opaco.
+ */
+@Getter
+@AllArgsConstructor
+public class SeekCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    private final ZonedDateTime createdAt;
+    private final UUID id;
+
+    public String encode() {
+        Instant instant = createdAt.toInstant();
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(instant.getEpochSecond())
+                .putInt(instant.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Devuelve null si no hay token (primera página)
+     */
+    public static SeekCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            if (bytes.length != TOKEN_BYTES) {
+                throw new InvalidCursorException("Invalid pagination cursor");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            Instant instant = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            return new SeekCursor(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Invalid pagination cursor", e);
+        }
+    }
+
+    /**
+     * Pide una fila de más para saber si hay página siguiente sin ejecutar COUNT
+     */
+    public static Pageable probe(int size) {
+        return PageRequest.ofSize(clamp(size) + 1);
+    }
+
+    public static int clamp(int size) {
+        return size < 1 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Recorta la fila de prueba y arma el cursor a partir de la última fila devuelta
+     */
+    public static <E, T> CursorPageResponse<T> page(List<E> rows, int size, Function<E, ZonedDateTime> createdAt,
+            Function<E, UUID> id, Function<List<E>, List<T>> mapper) {
+        int limit = clamp(size);
+        boolean hasNext = rows.size() > limit;
+        List<E> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = content.get(content.size() - 1);
+            nextCursor = new SeekCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        return CursorPageResponse.<T>builder()
+                .content(mapper.apply(content))
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+}
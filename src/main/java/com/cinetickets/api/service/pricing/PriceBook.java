@@ -0,0 +1,63 @@
+package com.cinetickets.api.service.pricing;
+
+import com.cinetickets.api.exception.ResourceNotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Foto inmutable de los precios de productos, combos (con sus componentes) y tipos de entrada.
+ * Cada recarga produce una versión nueva y mayor que la anterior; la orden guarda con qué versión
+ * se cotizó.
+ */
+@Getter
+@AllArgsConstructor
+public class PriceBook {
+
+    private final long version;
+    private final ZonedDateTime builtAt;
+    private final Map<UUID, Item> products;
+    private final Map<UUID, Item> combos;
+    private final Map<UUID, Item> ticketTypes;
+
+    public Item product(UUID id) {
+        return find(products, "Product", id);
+    }
+
+    public Item combo(UUID id) {
+        return find(combos, "Combo", id);
+    }
+
+    public Item ticketType(UUID id) {
+        return find(ticketTypes, "TicketType", id);
+    }
+
+    private static Item find(Map<UUID, Item> items, String resourceName, UUID id) {
+        Item item = id != null ? items.get(id) : null;
+        if (item == null) {
+            throw new ResourceNotFoundException(resourceName, "id", id);
+        }
+        return item;
+    }
+
+    /**
+     * Precio de un producto, combo o tipo de entrada. Los combos incluyen la cantidad de cada producto
+     * que los compone; para el resto el mapa está vacío.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+        private final UUID id;
+        private final String name;
+        private final BigDecimal price;
+        private final Map<UUID, Integer> components;
+
+        public BigDecimal priceFor(int quantity) {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cinetickets.api.service.pricing;
+
+import lombok.Value;
+
+/**
+ * Cambió el precio o la composición de un producto o combo: la lista de precios en memoria debe
+ * recargarse una vez confirmada la transacción
+ */
+@Value
+public class PriceBookChangedEvent {
+
+    String reason;
+}
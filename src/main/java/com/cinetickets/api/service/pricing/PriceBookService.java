@@ -0,0 +1,112 @@
+package com.cinetickets.api.service.pricing;
+
+import com.cinetickets.api.entity.Combo;
+import com.cinetickets.api.entity.ComboItem;
+import com.cinetickets.api.entity.Product;
+import com.cinetickets.api.entity.TicketType;
+import com.cinetickets.api.repository.ComboRepository;
+import com.cinetickets.api.repository.ProductRepository;
+import com.cinetickets.api.repository.TicketTypeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lista de precios vigente. El checkout cotiza carritos completos contra {@link #current()} sin
+ * consultar la base de datos; las altas y cambios de productos y combos la reemplazan entera al
+ * confirmarse (ver PriceBookRefreshJob), así una orden nunca mezcla precios de dos versiones.
+ */
+@Slf4j
+@Service
+public class PriceBookService {
+
+    private final ProductRepository productRepository;
+    private final ComboRepository comboRepository;
+    private final TicketTypeRepository ticketTypeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<PriceBook> current = new AtomicReference<>();
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    public PriceBookService(ProductRepository productRepository,
+                            ComboRepository comboRepository,
+                            TicketTypeRepository ticketTypeRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.comboRepository = comboRepository;
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Lista de precios vigente; se carga la primera vez que se pide
+     */
+    public PriceBook current() {
+        PriceBook book = current.get();
+        return book != null ? book : reload();
+    }
+
+    /**
+     * Lee productos, combos y tipos de entrada y publica una versión nueva. La versión es el instante
+     * de la lectura (estrictamente creciente), así no se repite entre reinicios. Si dos recargas se
+     * cruzan queda la que empezó última, que ve todo lo confirmado antes de ella.
+     */
+    public PriceBook reload() {
+        long version = lastVersion.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+        PriceBook book = readOnlyTransaction.execute(status -> new PriceBook(
+                version,
+                ZonedDateTime.now(),
+                itemsOf(productRepository.findAll()),
+                combosOf(comboRepository.findAllWithItems()),
+                ticketTypesOf(ticketTypeRepository.findAll())));
+
+        PriceBook published = current.accumulateAndGet(book,
+                (previous, next) -> previous == null || previous.getVersion() < next.getVersion() ? next : previous);
+        log.debug("Price book version {} loaded: {} products, {} combos, {} ticket types", version,
+                book.getProducts().size(), book.getCombos().size(), book.getTicketTypes().size());
+        return published;
+    }
+
+    private static Map<UUID, PriceBook.Item> itemsOf(List<Product> products) {
+        Map<UUID, PriceBook.Item> items = new HashMap<>();
+        for (Product product : products) {
+            items.put(product.getId(), new PriceBook.Item(product.getId(), product.getName(), product.getPrice(), Map.of()));
+        }
+        return Map.copyOf(items);
+    }
+
+    private static Map<UUID, PriceBook.Item> combosOf(List<Combo> combos) {
+        Map<UUID, PriceBook.Item> items = new HashMap<>();
+        for (Combo combo : combos) {
+            Map<UUID, Integer> components = new LinkedHashMap<>();
+            for (ComboItem comboItem : combo.getItems()) {
+                components.merge(comboItem.getProduct().getId(), comboItem.getQuantity(), Integer::sum);
+            }
+            items.put(combo.getId(), new PriceBook.Item(combo.getId(), combo.getName(), combo.getPrice(),
+                    Map.copyOf(components)));
+        }
+        return Map.copyOf(items);
+    }
+
+    private static Map<UUID, PriceBook.Item> ticketTypesOf(List<TicketType> ticketTypes) {
+        Map<UUID, PriceBook.Item> items = new HashMap<>();
+        for (TicketType ticketType : ticketTypes) {
+            items.put(ticketType.getId(), new PriceBook.Item(ticketType.getId(), ticketType.getName(),
+                    ticketType.getPrice(), Map.of()));
+        }
+        return Map.copyOf(items);
+    }
+}
@@ -0,0 +1,179 @@
+package com.cinetickets.api.service.qr;
+
+import com.cinetickets.api.exception.InvalidFilterException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Genera las imágenes QR de las entradas a partir del contenido firmado que guarda la orden.
+ * Las imágenes se guardan en una caché acotada por bytes (no por cantidad), con un ETag fuerte
+ * calculado sobre los bytes; las métricas se publican como {@code cache.*{cache=ticket-qr}}.
+ */
+@Component
+public class TicketQrRenderer {
+
+    public static final int DEFAULT_SIZE = 250;
+    public static final int MIN_SIZE = 100;
+    public static final int MAX_SIZE = 1000;
+
+    private static final String CACHE_NAME = "ticket-qr";
+
+    private final Cache<ImageKey, QrImage> cache;
+
+    public TicketQrRenderer(MeterRegistry meterRegistry,
+                            @Value("${app.cache.ticket-qr.max-bytes:33554432}") long maxBytes,
+                            @Value("${app.cache.ticket-qr.ttl-minutes:60}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ImageKey key, QrImage image) -> image.getBytes().length + key.content.length())
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Imagen del QR en el formato y tamaño pedidos, desde la caché o generada en el momento
+     */
+    public QrImage render(String content, QrFormat format, int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new InvalidFilterException("QR size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        return cache.get(new ImageKey(content, format, size), key -> encode(key.content, key.format, key.size));
+    }
+
+    /**
+     * PNG del tamaño por defecto como data URI, para incrustarlo en los emails
+     */
+    public String pngDataUri(String content) {
+        byte[] png = render(content, QrFormat.PNG, DEFAULT_SIZE).getBytes();
+        return "data:" + QrFormat.PNG.getMediaType() + ";base64," + Base64.getEncoder().encodeToString(png);
+    }
+
+    /**
+     * Genera la imagen sin pasar por la caché
+     */
+    public static QrImage encode(String content, QrFormat format, int size) {
+        byte[] bytes = format == QrFormat.SVG ? svg(content, size) : png(content, size);
+        return new QrImage(bytes, format.getMediaType(), etagOf(bytes));
+    }
+
+    private static byte[] png(String content, int size) {
+        try {
+            BitMatrix matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matrix, "PNG", outputStream);
+            return outputStream.toByteArray();
+        } catch (WriterException | IOException e) {
+            throw new IllegalStateException("Failed to generate QR code", e);
+        }
+    }
+
+    /**
+     * SVG con un módulo por unidad del viewBox y los módulos oscuros de cada fila unidos en un solo trazo
+     */
+    private static byte[] svg(String content, int size) {
+        BitMatrix matrix;
+        try {
+            // Con tamaño 0 la matriz queda de un píxel por módulo, con la zona de silencio incluida
+            matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Failed to generate QR code", e);
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        StringBuilder path = new StringBuilder(width * height);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size
+                + "\" viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String etagOf(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    public enum QrFormat {
+        PNG("image/png"),
+        SVG("image/svg+xml");
+
+        private final String mediaType;
+
+        QrFormat(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public static QrFormat parse(String format) {
+            for (QrFormat value : values()) {
+                if (value.name().equalsIgnoreCase(format.trim())) {
+                    return value;
+                }
+            }
+            throw new InvalidFilterException("Invalid QR format: " + format + " (expected png or svg)");
+        }
+    }
+
+    /**
+     * Imagen generada, inmutable: los bytes se escriben tal cual en cada respuesta
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class QrImage {
+        private final byte[] bytes;
+        private final String mediaType;
+        private final String etag;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class ImageKey {
+        private final String content;
+        private final QrFormat format;
+        private final int size;
+    }
+}
@@ -0,0 +1,205 @@
+package com.cinetickets.api.service.qr;
+
+import lombok.Value;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Codifica y verifica el contenido firmado de las entradas.
+ * <p>
+ * Formato binario de {@value #RAW_LENGTH} bytes: versión (1), orderId (16), showId (16), emisión en segundos
+ * epoch (4, sin signo) y HMAC-SHA256 de todo lo anterior truncado a {@value #MAC_LENGTH} bytes. Se escribe en
+ * base32 (RFC 4648, mayúsculas y sin relleno), que los QR codifican en modo alfanumérico y queda más chico
+ * que el texto con separadores. La codificación es canónica: cada entrada tiene un único texto válido.
+ * <p>
+ * La verificación no arma strings ni arrays por escaneo: cada hilo reutiliza su {@link Mac} y sus buffers.
+ */
+public class TicketTokenCodec {
+
+    static final byte VERSION = 1;
+    static final int MAC_LENGTH = 16;
+    static final int RAW_LENGTH = 1 + 16 + 16 + 4 + MAC_LENGTH;
+    static final int TOKEN_LENGTH = (RAW_LENGTH * 8 + 4) / 5;
+
+    private static final int SIGNED_LENGTH = RAW_LENGTH - MAC_LENGTH;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Scratch> scratch;
+
+    public TicketTokenCodec(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    /**
+     * Emite el contenido firmado de una entrada
+     */
+    public String encode(UUID orderId, UUID showId, Instant issuedAt) {
+        Scratch s = scratch.get();
+        byte[] raw = s.raw;
+        raw[0] = VERSION;
+        putLong(raw, 1, orderId.getMostSignificantBits());
+        putLong(raw, 9, orderId.getLeastSignificantBits());
+        putLong(raw, 17, showId.getMostSignificantBits());
+        putLong(raw, 25, showId.getLeastSignificantBits());
+        putInt(raw, 33, (int) issuedAt.getEpochSecond());
+        sign(s);
+        System.arraycopy(s.digest, 0, raw, SIGNED_LENGTH, MAC_LENGTH);
+        return base32(raw);
+    }
+
+    /**
+     * Indica si el texto es una entrada emitida con esta clave, sin reservar memoria por llamada
+     */
+    public boolean verify(CharSequence token) {
+        return token != null && decodeVerified(token, scratch.get());
+    }
+
+    /**
+     * Contenido de la entrada, o vacío si el texto está mal formado o la firma no coincide
+     */
+    public Optional<TicketToken> decode(CharSequence token) {
+        Scratch s = scratch.get();
+        if (token == null || !decodeVerified(token, s)) {
+            return Optional.empty();
+        }
+        byte[] raw = s.raw;
+        return Optional.of(new TicketToken(
+                new UUID(getLong(raw, 1), getLong(raw, 9)),
+                new UUID(getLong(raw, 17), getLong(raw, 25)),
+                Instant.ofEpochSecond(Integer.toUnsignedLong(getInt(raw, 33)))));
+    }
+
+    private boolean decodeVerified(CharSequence token, Scratch s) {
+        if (token.length() != TOKEN_LENGTH || !unbase32(token, s.raw) || s.raw[0] != VERSION) {
+            return false;
+        }
+        sign(s);
+        // Comparación en tiempo constante para no filtrar cuántos bytes de la firma coinciden
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= s.raw[SIGNED_LENGTH + i] ^ s.digest[i];
+        }
+        return diff == 0;
+    }
+
+    private void sign(Scratch s) {
+        try {
+            s.mac.update(s.raw, 0, SIGNED_LENGTH);
+            s.mac.doFinal(s.digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Ticket signature buffer too small", e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    private static String base32(byte[] raw) {
+        char[] out = new char[TOKEN_LENGTH];
+        int buffer = 0;
+        int bits = 0;
+        int pos = 0;
+        for (byte b : raw) {
+            buffer = (buffer << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                out[pos++] = ALPHABET[(buffer >>> bits) & 0x1F];
+            }
+        }
+        if (bits > 0) {
+            out[pos] = ALPHABET[(buffer << (5 - bits)) & 0x1F];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Decodifica sobre {@code raw}; rechaza caracteres fuera del alfabeto y bits de relleno distintos de cero
+     */
+    private static boolean unbase32(CharSequence token, byte[] raw) {
+        int buffer = 0;
+        int bits = 0;
+        int pos = 0;
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                raw[pos++] = (byte) (buffer >>> bits);
+            }
+        }
+        return (buffer & ((1 << bits) - 1)) == 0;
+    }
+
+    private static void putLong(byte[] b, int offset, long value) {
+        putInt(b, offset, (int) (value >>> 32));
+        putInt(b, offset + 4, (int) value);
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static long getLong(byte[] b, int offset) {
+        return ((long) getInt(b, offset) << 32) | (getInt(b, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private static int getInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+                | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Datos de una entrada con la firma ya verificada
+     */
+    @Value
+    public static class TicketToken {
+        UUID orderId;
+        UUID showId;
+        Instant issuedAt;
+    }
+
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] raw = new byte[RAW_LENGTH];
+        private final byte[] digest = new byte[32];
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.cinetickets.api.service.queue;
+
+import com.cinetickets.api.dto.response.QueueTicketResponse;
+import com.cinetickets.api.exception.AdmissionRequiredException;
+import com.cinetickets.api.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sala de espera virtual para funciones de alta demanda.
+ * Mientras la cola de una función está activa, cada usuario que entra recibe un ticket firmado
+ * con su número de orden y su id, y cada segundo se admite la cantidad de tickets que corresponde al ritmo configurado.
+ * Un usuario tiene un solo ticket vigente por función: volver a entrar devuelve el mismo lugar.
+ * Un ticket admitido vale durante una ventana de tiempo desde su admisión, solo para su usuario y para una única reserva.
+ * El ticket admitido es el token que se presenta al reservar, en el header {@value #ADMISSION_HEADER}.
+ * <p>
+ * Todo el estado vive en memoria: unirse a la cola y consultar la posición no acceden a la base de datos.
+ * <p>
+ * La cola es por nodo: la activación, los números de orden y las admisiones solo existen en el nodo que
+ * recibió la activación, y en cualquier otro nodo las reservas pasan sin token. Solo puede usarse con la API
+ * en un único nodo (o con todo el tráfico de reservas de la función dirigido al mismo);
+ * con {@code app.queue.single-node=false} la activación se rechaza en lugar de quedar sin efecto.
+ */
+@Slf4j
+@Service
+public class AdmissionQueueService {
+
+    public static final String ADMISSION_HEADER = "X-Admission-Token";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int PAYLOAD_BYTES = 40;
+
+    private final ConcurrentMap<UUID, ShowQueue> queues = new ConcurrentHashMap<>();
+    private final SecretKeySpec signingKey;
+    private final long admissionWindowMillis;
+    private final boolean singleNode;
+
+    public AdmissionQueueService(@Value("${app.queue.secret:${app.jwt.secret}}") String secret,
+                                 @Value("${app.queue.admission-window-minutes:15}") long admissionWindowMinutes,
+                                 @Value("${app.queue.single-node:true}") boolean singleNode) {
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.admissionWindowMillis = admissionWindowMinutes * 60_000;
+        this.singleNode = singleNode;
+    }
+
+    /**
+     * Activa (o reconfigura) la cola de una función con el ritmo de admisión indicado.
+     * Al reconfigurar se conservan los tickets emitidos y los ya admitidos.
+     *
+     * @throws IllegalStateException si la API corre en varios nodos y la cola no podría hacerse cumplir
+     */
+    public void activate(UUID showId, int admitsPerMinute) {
+        if (!singleNode) {
+            log.error("Refusing to activate admission queue for show {}: queue state is per node", showId);
+            throw new IllegalStateException("Admission queues are kept in memory per node and cannot be enforced "
+                    + "when the API runs on several nodes (app.queue.single-node=false)");
+        }
+        if (admitsPerMinute <= 0) {
+            throw new IllegalArgumentException("Admission rate must be greater than zero");
+        }
+        queues.computeIfAbsent(showId, id -> new ShowQueue()).admitsPerMinute = admitsPerMinute;
+        log.info("Admission queue activated for show {} at {} admits per minute", showId, admitsPerMinute);
+    }
+
+    public void deactivate(UUID showId) {
+        if (queues.remove(showId) != null) {
+            log.info("Admission queue deactivated for show {}", showId);
+        }
+    }
+
+    public boolean isActive(UUID showId) {
+        return queues.containsKey(showId);
+    }
+
+    /**
+     * Entrega al usuario un ticket al final de la cola, o el que ya tiene si sigue vigente
+     */
+    public QueueTicketResponse join(UUID showId, UUID userId) {
+        ShowQueue queue = getQueue(showId);
+        long sequence = queue.tickets.compute(userId, (id, current) ->
+                current == null || current <= queue.expiredUpTo || queue.used.contains(current)
+                        ? queue.issued.incrementAndGet()
+                        : current);
+        return toResponse(showId, queue, sign(showId, userId, sequence), sequence);
+    }
+
+    /**
+     * Posición y tiempo estimado de espera de un ticket del usuario
+     */
+    public QueueTicketResponse getStatus(UUID showId, String ticket, UUID userId) {
+        ShowQueue queue = getQueue(showId);
+        long sequence = verify(showId, userId, ticket);
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Invalid queue ticket");
+        }
+        return toResponse(showId, queue, ticket, sequence);
+    }
+
+    /**
+     * Ejecuta la reserva consumiendo el token de admisión del usuario. Si la cola no está activa no se exige nada.
+     * El token queda usado al empezar, así dos reservas simultáneas con el mismo token no pasan las dos;
+     * si la reserva falla el token se libera para reintentar.
+     *
+     * @throws AdmissionRequiredException si falta el token, es inválido, es de otro usuario, todavía no fue admitido,
+     *                                    ya venció o ya se usó
+     */
+    public <T> T withAdmission(UUID showId, String token, UUID userId, Supplier<T> reservation) {
+        ShowQueue queue = queues.get(showId);
+        if (queue == null) {
+            return reservation.get();
+        }
+        if (token == null || token.isBlank()) {
+            throw new AdmissionRequiredException("This show has a waiting room; join the queue to get an admission token");
+        }
+
+        long sequence = verify(showId, userId, token);
+        if (sequence < 0) {
+            throw new AdmissionRequiredException("Invalid admission token");
+        }
+
+        if (sequence > queue.admitted) {
+            throw new AdmissionRequiredException("Admission token has not been admitted yet");
+        }
+        if (sequence <= queue.expiredUpTo) {
+            throw new AdmissionRequiredException("Admission token has expired");
+        }
+        if (!queue.used.add(sequence)) {
+            throw new AdmissionRequiredException("Admission token has already been used");
+        }
+
+        try {
+            return reservation.get();
+        } catch (RuntimeException e) {
+            queue.used.remove(sequence);
+            throw e;
+        }
+    }
+
+    /**
+     * Admite el siguiente grupo de tickets de cada cola activa
+     */
+    @Scheduled(fixedRate = 1000)
+    public void admitNext() {
+        long now = System.currentTimeMillis();
+        queues.values().forEach(queue -> queue.advance(now, admissionWindowMillis));
+    }
+
+    private ShowQueue getQueue(UUID showId) {
+        ShowQueue queue = queues.get(showId);
+        if (queue == null) {
+            throw new ResourceNotFoundException("Queue", "showId", showId);
+        }
+        return queue;
+    }
+
+    private QueueTicketResponse toResponse(UUID showId, ShowQueue queue, String ticket, long sequence) {
+        long ahead = Math.max(0, sequence - queue.admitted);
+        return QueueTicketResponse.builder()
+                .showId(showId)
+                .ticket(ticket)
+                .position(ahead)
+                .estimatedWaitSeconds((long) Math.ceil(ahead * 60.0 / queue.admitsPerMinute))
+                .admitted(ahead == 0)
+                .build();
+    }
+
+    /**
+     * Ticket: base64url(showId + userId + número de orden) "." base64url(HMAC truncado)
+     */
+    private String sign(UUID showId, UUID userId, long sequence) {
+        byte[] payload = payload(showId, userId, sequence);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(signature(payload));
+    }
+
+    /**
+     * Devuelve el número de orden del ticket, o -1 si la firma no es válida o es de otra función o de otro usuario
+     */
+    private long verify(UUID showId, UUID userId, String ticket) {
+        int dot = ticket.indexOf('.');
+        if (dot < 0) {
+            return -1;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(ticket.substring(0, dot));
+            byte[] signature = decoder.decode(ticket.substring(dot + 1));
+            if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(signature, signature(payload))) {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            UUID ticketShowId = new UUID(buffer.getLong(), buffer.getLong());
+            UUID ticketUserId = new UUID(buffer.getLong(), buffer.getLong());
+            return ticketShowId.equals(showId) && ticketUserId.equals(userId) ? buffer.getLong() : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] payload(UUID showId, UUID userId, long sequence) {
+        return ByteBuffer.allocate(PAYLOAD_BYTES)
+                .putLong(showId.getMostSignificantBits())
+                .putLong(showId.getLeastSignificantBits())
+                .putLong(userId.getMostSignificantBits())
+                .putLong(userId.getLeastSignificantBits())
+                .putLong(sequence)
+                .array();
+    }
+
+    private byte[] signature(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign queue ticket", e);
+        }
+    }
+
+    /**
+     * Estado de la cola de una función. Solo {@link #admitNext()} avanza los tickets admitidos,
+     * de a uno por segundo, por lo que los campos volátiles alcanzan para las lecturas concurrentes.
+     */
+    private static final class ShowQueue {
+        private volatile int admitsPerMinute;
+        private final AtomicLong issued = new AtomicLong();
+        // Ticket vigente de cada usuario y tickets ya usados en una reserva
+        private final ConcurrentMap<UUID, Long> tickets = new ConcurrentHashMap<>();
+        private final Set<Long> used = ConcurrentHashMap.newKeySet();
+        private volatile long admitted;
+        private volatile long expiredUpTo;
+        private double carry;
+        // Último número de orden admitido en cada tick -> instante de la admisión
+        private final NavigableMap<Long, Long> admissions = new ConcurrentSkipListMap<>();
+
+        private void advance(long now, long admissionWindowMillis) {
+            long pending = issued.get() - admitted;
+            if (pending > 0) {
+                double allowance = carry + admitsPerMinute / 60.0;
+                long admitting = Math.min(pending, (long) allowance);
+                carry = admitting < pending ? allowance - admitting : 0;
+                if (admitting > 0) {
+                    admitted += admitting;
+                    admissions.put(admitted, now);
+                }
+            } else {
+                // Sin nadie esperando no se acumula cupo para el futuro
+                carry = 0;
+            }
+
+            long previouslyExpired = expiredUpTo;
+            Map.Entry<Long, Long> oldest;
+            while ((oldest = admissions.firstEntry()) != null && oldest.getValue() + admissionWindowMillis < now) {
+                expiredUpTo = oldest.getKey();
+                admissions.remove(oldest.getKey());
+            }
+            if (expiredUpTo > previouslyExpired) {
+                long expired = expiredUpTo;
+                tickets.values().removeIf(sequence -> sequence <= expired);
+                used.removeIf(sequence -> sequence <= expired);
+            }
+        }
+    }
+}
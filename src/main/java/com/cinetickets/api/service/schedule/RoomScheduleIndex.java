@@ -0,0 +1,207 @@
+package com.cinetickets.api.service.schedule;
+
+import com.cinetickets.api.repository.ShowRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Agenda en memoria de cada sala: las funciones programadas ordenadas por inicio, cada una ocupando
+ * [inicio, fin + limpieza). Un conflicto se detecta en O(log n) más las franjas cercanas al nuevo inicio:
+ * las que empiezan antes, hasta la duración de la franja más larga de la sala, y las que empiezan
+ * antes de que termine la nueva. Así se detectan también superposiciones que ya estén en la base
+ * (por ejemplo, dos funciones con el mismo inicio creadas desde otro nodo).
+ * <p>
+ * Las agendas se cargan de la base de datos la primera vez que se usa la sala y se marcan para
+ * recargar periódicamente, así se descartan las funciones pasadas y los cambios hechos en otros nodos.
+ */
+@Slf4j
+@Component
+public class RoomScheduleIndex {
+
+    private final ShowRepository showRepository;
+    private final Duration cleaningBuffer;
+    private final Map<UUID, RoomSchedule> rooms = new ConcurrentHashMap<>();
+
+    public RoomScheduleIndex(ShowRepository showRepository,
+                             @Value("${app.shows.cleaning-buffer-minutes:15}") long cleaningBufferMinutes) {
+        this.showRepository = showRepository;
+        this.cleaningBuffer = Duration.ofMinutes(cleaningBufferMinutes);
+    }
+
+    public Duration getCleaningBuffer() {
+        return cleaningBuffer;
+    }
+
+    /**
+     * Ejecuta la operación con las agendas de las salas bloqueadas y cargadas. Los locks se toman
+     * en orden de id para que dos operaciones sobre las mismas salas no se bloqueen mutuamente.
+     */
+    public <T> T withRooms(Collection<UUID> roomIds, Supplier<T> operation) {
+        List<RoomSchedule> locked = new ArrayList<>();
+        try {
+            for (UUID roomId : new TreeSet<>(roomIds)) {
+                RoomSchedule schedule = rooms.computeIfAbsent(roomId, id -> new RoomSchedule());
+                schedule.lock.lock();
+                locked.add(schedule);
+                if (schedule.stale) {
+                    load(roomId, schedule);
+                }
+            }
+            return operation.get();
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Función de la sala que se superpone con una nueva entre start y end (más la limpieza de ambas),
+     * o null si la franja está libre. La función ignorada es la que se está reprogramando.
+     * Debe llamarse dentro de {@link #withRooms}.
+     */
+    public Slot findConflict(UUID roomId, ZonedDateTime start, ZonedDateTime end, UUID ignoredShowId) {
+        RoomSchedule schedule = lockedSchedule(roomId);
+        Instant from = start.toInstant();
+        Instant busyUntil = end.toInstant().plus(cleaningBuffer);
+
+        // Una franja que empezó antes de from menos la más larga de la sala ya terminó
+        Instant earliest = from.minus(schedule.longest);
+        for (List<Slot> slots : schedule.byStart.subMap(earliest, true, from, false).descendingMap().values()) {
+            for (Slot slot : slots) {
+                if (!slot.showId.equals(ignoredShowId) && slot.busyUntil.isAfter(from)) {
+                    return slot;
+                }
+            }
+        }
+
+        for (List<Slot> slots : schedule.byStart.subMap(from, true, busyUntil, false).values()) {
+            for (Slot slot : slots) {
+                if (!slot.showId.equals(ignoredShowId)) {
+                    return slot;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registra (o mueve) una función ya confirmada en la agenda de la sala
+     */
+    public void add(UUID roomId, UUID showId, ZonedDateTime start, ZonedDateTime end) {
+        RoomSchedule schedule = rooms.get(roomId);
+        if (schedule == null) {
+            // La sala no está cargada: se leerá completa, con esta función, cuando se use
+            return;
+        }
+        schedule.lock.lock();
+        try {
+            schedule.remove(showId);
+            schedule.put(new Slot(showId, start.toInstant(), end.toInstant().plus(cleaningBuffer)));
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    public void remove(UUID roomId, UUID showId) {
+        RoomSchedule schedule = rooms.get(roomId);
+        if (schedule == null) {
+            return;
+        }
+        schedule.lock.lock();
+        try {
+            schedule.remove(showId);
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Marca todas las agendas para recargarlas en su próximo uso
+     */
+    @Scheduled(fixedDelayString = "${app.shows.schedule-reload-interval-ms:3600000}")
+    public void invalidateAll() {
+        rooms.values().forEach(schedule -> schedule.stale = true);
+    }
+
+    private RoomSchedule lockedSchedule(UUID roomId) {
+        RoomSchedule schedule = rooms.get(roomId);
+        if (schedule == null || !schedule.lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Room schedule " + roomId + " must be locked with withRooms");
+        }
+        return schedule;
+    }
+
+    private void load(UUID roomId, RoomSchedule schedule) {
+        schedule.byStart.clear();
+        schedule.slotByShow.clear();
+        schedule.longest = Duration.ZERO;
+        for (Object[] row : showRepository.findScheduledIntervalsForRoom(roomId, ZonedDateTime.now())) {
+            schedule.put(new Slot((UUID) row[0], ((ZonedDateTime) row[1]).toInstant(),
+                    ((ZonedDateTime) row[2]).toInstant().plus(cleaningBuffer)));
+        }
+        schedule.stale = false;
+        log.debug("Loaded {} scheduled shows for room {}", schedule.slotByShow.size(), roomId);
+    }
+
+    /**
+     * Franja ocupada por una función: desde su inicio hasta su fin más la limpieza
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Slot {
+        private final UUID showId;
+        private final Instant start;
+        private final Instant busyUntil;
+    }
+
+    private static class RoomSchedule {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Funciones por inicio; puede haber más de una con el mismo inicio si la base ya tenía la superposición
+        private final TreeMap<Instant, List<Slot>> byStart = new TreeMap<>();
+        private final Map<UUID, Slot> slotByShow = new HashMap<>();
+        // Franja más larga desde la última carga: acota hacia atrás la búsqueda de conflictos
+        private Duration longest = Duration.ZERO;
+        private volatile boolean stale = true;
+
+        private void put(Slot slot) {
+            byStart.computeIfAbsent(slot.start, start -> new ArrayList<>(1)).add(slot);
+            slotByShow.put(slot.showId, slot);
+            Duration length = Duration.between(slot.start, slot.busyUntil);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        private void remove(UUID showId) {
+            Slot slot = slotByShow.remove(showId);
+            if (slot == null) {
+                return;
+            }
+            List<Slot> slots = byStart.get(slot.start);
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                byStart.remove(slot.start);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.cinetickets.api.service.search;
+
+import com.cinetickets.api.dto.response.MovieResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre título, director y elenco de las películas, sin acentos ni
+ * mayúsculas ("pelicula" encuentra "Película"). Cada palabra se rellena con dos espacios al inicio,
+ * así las consultas de una o dos letras se resuelven como prefijo. Guarda el MovieResponse de cada
+ * película para responder búsquedas y sugerencias sin ir a la base de datos.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final int TITLE = 1;
+    private static final int DIRECTOR = 2;
+    private static final int CAST = 4;
+
+    // Proporción mínima de trigramas de la consulta que debe contener una película para aparecer
+    private static final double MIN_COVERAGE = 0.6;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Ranked> RANKING = Comparator
+            .comparingInt((Ranked r) -> r.score.matched).reversed()
+            .thenComparing(Comparator.comparingInt((Ranked r) -> r.score.titleMatches).reversed())
+            .thenComparing((Ranked r) -> !r.prefix)
+            .thenComparing(r -> r.movie.foldedTitle);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, IndexedMovie> movies = new HashMap<>();
+    // trigrama -> película -> campos en los que aparece (TITLE | DIRECTOR | CAST)
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+
+    /**
+     * Agrega o reemplaza una película en el índice
+     */
+    public void put(MovieResponse movie, String director, String cast) {
+        Map<String, Integer> trigrams = new HashMap<>();
+        addTrigrams(trigrams, movie.getTitle(), TITLE);
+        addTrigrams(trigrams, director, DIRECTOR);
+        addTrigrams(trigrams, cast, CAST);
+        String foldedTitle = fold(movie.getTitle());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(movie.getId());
+            movies.put(movie.getId(), new IndexedMovie(movie, foldedTitle, Set.copyOf(trigrams.keySet())));
+            trigrams.forEach((trigram, fields) ->
+                    postings.computeIfAbsent(trigram, t -> new HashMap<>()).put(movie.getId(), fields));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID movieId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            movies.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return movies.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Películas que coinciden con la consulta, de la más a la menos relevante.
+     * Primero las que contienen más trigramas de la consulta; a igual cobertura pesan más las
+     * coincidencias en el título, y entre ellas las que empiezan con la consulta.
+     */
+    public List<MovieResponse> search(String query, int limit) {
+        Set<String> queryTrigrams = trigramsOf(query);
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String foldedQuery = fold(query);
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Score> scores = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Map<UUID, Integer> posting = postings.get(trigram);
+                if (posting == null) {
+                    continue;
+                }
+                posting.forEach((movieId, fields) -> scores.computeIfAbsent(movieId, id -> new Score()).add(fields));
+            }
+
+            int required = (int) Math.ceil(queryTrigrams.size() * MIN_COVERAGE);
+            List<Ranked> ranked = new ArrayList<>();
+            scores.forEach((movieId, score) -> {
+                if (score.matched >= required) {
+                    IndexedMovie movie = movies.get(movieId);
+                    ranked.add(new Ranked(movie, score, movie.foldedTitle.startsWith(foldedQuery)));
+                }
+            });
+            ranked.sort(RANKING);
+
+            List<MovieResponse> results = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                results.add(ranked.get(i).movie.response);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pasa a minúsculas, quita acentos y reduce todo lo que no sea letra o número a un espacio
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String withoutMarks = MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigramsOf(String text) {
+        Map<String, Integer> trigrams = new HashMap<>();
+        addTrigrams(trigrams, text, TITLE);
+        return new LinkedHashSet<>(trigrams.keySet());
+    }
+
+    private static void addTrigrams(Map<String, Integer> trigrams, String text, int field) {
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return;
+        }
+        for (String word : folded.split(" ")) {
+            // Sin espacio final: una palabra a medio escribir sigue siendo prefijo de la indexada
+            String padded = "  " + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.merge(padded.substring(i, i + 3), field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private void removeLocked(UUID movieId) {
+        IndexedMovie previous = movies.remove(movieId);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams) {
+            Map<UUID, Integer> posting = postings.get(trigram);
+            if (posting != null) {
+                posting.remove(movieId);
+                if (posting.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class IndexedMovie {
+        private final MovieResponse response;
+        private final String foldedTitle;
+        private final Set<String> trigrams;
+    }
+
+    private static class Score {
+        private int matched;
+        private int titleMatches;
+
+        private void add(int fields) {
+            matched++;
+            if ((fields & TITLE) != 0) {
+                titleMatches++;
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Ranked {
+        private final IndexedMovie movie;
+        private final Score score;
+        private final boolean prefix;
+    }
+}
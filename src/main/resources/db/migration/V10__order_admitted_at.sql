@@ -0,0 +1,6 @@
+-- V10: momento en que las entradas de cada orden se usaron en la puerta.
+-- NULL mientras no se usaron; el registro de admisión (AdmissionLedger) la completa en lotes.
+
+ALTER TABLE orders
+    ADD COLUMN admitted_at TIMESTAMP NULL,
+    ALGORITHM = INSTANT;
@@ -0,0 +1,6 @@
+-- V11: índice por fin de función, para que la limpieza del inventario borre de active_seat_holds
+-- las retenciones de las funciones terminadas sin recorrer la tabla shows completa.
+
+ALTER TABLE shows
+    ADD INDEX idx_shows_end_time (end_time),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,39 @@
+-- V1.1: retenciones de asientos por función y contadores de ocupación de las funciones.
+-- Va antes de V2, que indexa active_seat_holds: las bases creadas con una versión anterior de schema.txt
+-- no tienen la tabla ni las columnas. Las instalaciones nuevas ya las crean desde schema.txt.
+
+-- Una fila por asiento ocupado (retenido o vendido) en cada función. La clave primaria impide la doble
+-- venta aunque haya varios nodos de la API. Sin FK a reservations: la retención se inserta antes que la reserva.
+-- El índice (show_id, status) lo agrega V2.
+CREATE TABLE IF NOT EXISTS active_seat_holds (
+    show_id CHAR(36) NOT NULL,
+    seat_id CHAR(36) NOT NULL,
+    reservation_id CHAR(36) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (show_id, seat_id),
+    INDEX idx_active_seat_holds_reservation (reservation_id),
+    FOREIGN KEY (show_id) REFERENCES shows(id) ON DELETE CASCADE,
+    FOREIGN KEY (seat_id) REFERENCES seats(id) ON DELETE CASCADE
+);
+
+ALTER TABLE shows
+    ADD COLUMN capacity INT NULL,
+    ADD COLUMN seats_sold INT DEFAULT 0,
+    ADD COLUMN seats_held INT DEFAULT 0,
+    ALGORITHM = INSTANT;
+
+-- Retenciones de las reservas vigentes (las de funciones terminadas las borra luego la limpieza del inventario)
+INSERT IGNORE INTO active_seat_holds (show_id, seat_id, reservation_id, status, created_at)
+SELECT r.show_id, rs.seat_id, r.id,
+       CASE WHEN r.status = 'CONFIRMED' THEN 'SOLD' ELSE 'HELD' END,
+       r.created_at
+FROM reserved_seats rs
+    JOIN reservations r ON r.id = rs.reservation_id
+WHERE r.status IN ('PENDING', 'CONFIRMED');
+
+-- Contadores de ocupación de las funciones existentes
+UPDATE shows s SET
+    capacity = (SELECT COUNT(*) FROM seats st WHERE st.room_id = s.room_id),
+    seats_sold = (SELECT COUNT(*) FROM active_seat_holds h WHERE h.show_id = s.id AND h.status = 'SOLD'),
+    seats_held = (SELECT COUNT(*) FROM active_seat_holds h WHERE h.show_id = s.id AND h.status = 'HELD');
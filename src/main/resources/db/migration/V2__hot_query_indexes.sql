@@ -0,0 +1,66 @@
+-- V2: índices compuestos para las consultas frecuentes de los repositorios.
+-- Se aplica una sola vez sobre bases creadas con una versión anterior de schema.txt
+-- (las instalaciones nuevas ya los crean desde schema.txt). Cada tabla se altera en una
+-- sola sentencia y en línea, sin bloquear lecturas ni escrituras mientras se construyen.
+
+-- users: login con proveedor externo (findByAuthProviderAndAuthProviderId)
+ALTER TABLE users
+    ADD INDEX idx_users_auth_provider (auth_provider, auth_provider_id),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- seats: mapa de asientos activos de una sala (findByRoomIdAndStatus)
+ALTER TABLE seats
+    ADD INDEX idx_seats_room_status (room_id, status),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- movies: cartelera y próximos estrenos por estado y fecha de estreno
+ALTER TABLE movies
+    ADD INDEX idx_movies_status_release (status, release_date),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- shows: funciones por película, por sala y por rango horario
+ALTER TABLE shows
+    ADD INDEX idx_shows_movie_start (movie_id, start_time),
+    ADD INDEX idx_shows_room_start (room_id, start_time),
+    ADD INDEX idx_shows_status_start (status, start_time),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- ticket_types: tipos de entrada activos del cine
+ALTER TABLE ticket_types
+    ADD INDEX idx_ticket_types_cinema_active (cinema_id, is_active),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- reservations: reservas vigentes por función y por usuario, y barrido de vencimientos.
+-- Los índices secundarios de InnoDB incluyen la clave primaria, así que (status, expires_at)
+-- cubre por completo la carga de vencimientos pendientes.
+ALTER TABLE reservations
+    ADD INDEX idx_reservations_status_expires (status, expires_at),
+    ADD INDEX idx_reservations_show_status (show_id, status),
+    ADD INDEX idx_reservations_user_status (user_id, status),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- active_seat_holds: carga del estado de los asientos de una función (findSeatStatesByShowId).
+-- El índice incluye seat_id por ser parte de la clave primaria, así que la carga no lee las filas.
+ALTER TABLE active_seat_holds
+    ADD INDEX idx_active_seat_holds_show_status (show_id, status),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- products: productos activos de una categoría
+ALTER TABLE products
+    ADD INDEX idx_products_category_active (category_id, is_active),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- orders: historial del usuario, estadísticas por estado y fecha, y búsquedas por reserva,
+-- referencia de pago (webhooks) y código QR (validación en puerta)
+ALTER TABLE orders
+    ADD INDEX idx_orders_user_created (user_id, created_at),
+    ADD INDEX idx_orders_status_created (status, created_at),
+    ADD INDEX idx_orders_reservation (reservation_id),
+    ADD INDEX idx_orders_payment_reference (payment_reference),
+    ADD INDEX idx_orders_qr_code (qr_code),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- promotions: promociones activas y vigentes (el código ya tiene índice único)
+ALTER TABLE promotions
+    ADD INDEX idx_promotions_active_dates (is_active, start_date, end_date),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,12 @@
+-- V3: índices para los listados por cursor, ordenados por (created_at DESC, id DESC).
+-- Con ellos cada página es un rango del índice, sin OFFSET ni COUNT sobre la tabla.
+
+-- orders: listado administrativo de todas las órdenes
+ALTER TABLE orders
+    ADD INDEX idx_orders_created_id (created_at, id),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- movies: listado administrativo del catálogo
+ALTER TABLE movies
+    ADD INDEX idx_movies_created_id (created_at, id),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,6 @@
+-- V4: versión de la lista de precios con la que se cotizó cada orden.
+-- Columna nullable: las órdenes anteriores quedan sin versión.
+
+ALTER TABLE orders
+    ADD COLUMN price_book_version BIGINT NULL,
+    ALGORITHM = INSTANT;
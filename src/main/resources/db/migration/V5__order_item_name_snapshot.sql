@@ -0,0 +1,16 @@
+-- V5: nombre del producto o combo guardado en cada item al momento de la compra.
+-- Se completa para los items existentes con el nombre actual; los que ya no existen quedan en NULL.
+
+ALTER TABLE order_items
+    ADD COLUMN item_name VARCHAR(255) NULL,
+    ALGORITHM = INSTANT;
+
+UPDATE order_items oi
+    JOIN products p ON p.id = oi.item_id
+SET oi.item_name = p.name
+WHERE oi.item_type = 'PRODUCT' AND oi.item_name IS NULL;
+
+UPDATE order_items oi
+    JOIN combos c ON c.id = oi.item_id
+SET oi.item_name = c.name
+WHERE oi.item_type = 'COMBO' AND oi.item_name IS NULL;
@@ -0,0 +1,47 @@
+-- V6: modelo de lectura de los listados de órdenes ("mis órdenes" y listado administrativo).
+-- Cada fila copia película, función, cine, sala, cantidad de asientos, totales y estados de una orden;
+-- la aplicación la escribe en la misma transacción que crea, paga o cancela la orden.
+-- Sin FK a orders: Hibernate no conoce la relación y podría ordenar los INSERT del lote al revés.
+
+CREATE TABLE IF NOT EXISTS order_summaries (
+    id CHAR(36) PRIMARY KEY,
+    user_id CHAR(36),
+    reservation_id CHAR(36),
+    cinema_id CHAR(36),
+    movie_title VARCHAR(255),
+    show_date_time TIMESTAMP NULL,
+    cinema_name VARCHAR(255),
+    room_name VARCHAR(255),
+    number_of_seats INT NOT NULL DEFAULT 0,
+    subtotal DECIMAL(10, 2) NOT NULL,
+    discount DECIMAL(10, 2) DEFAULT 0,
+    tax DECIMAL(10, 2) DEFAULT 0,
+    total DECIMAL(10, 2) NOT NULL,
+    payment_method VARCHAR(50),
+    payment_status VARCHAR(20) NOT NULL,
+    order_type VARCHAR(20) NOT NULL,
+    order_status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    INDEX idx_order_summaries_user_created (user_id, created_at, id),
+    INDEX idx_order_summaries_created_id (created_at, id),
+    INDEX idx_order_summaries_cinema_created (cinema_id, created_at, id),
+    INDEX idx_order_summaries_status_created (order_status, created_at, id)
+);
+
+-- Resúmenes de las órdenes existentes
+INSERT INTO order_summaries (id, user_id, reservation_id, cinema_id, movie_title, show_date_time, cinema_name,
+                             room_name, number_of_seats, subtotal, discount, tax, total, payment_method,
+                             payment_status, order_type, order_status, created_at, updated_at)
+SELECT o.id, o.user_id, o.reservation_id, rm.cinema_id, m.title, s.start_time, c.name,
+       rm.name, (SELECT COUNT(*) FROM reserved_seats rs WHERE rs.reservation_id = o.reservation_id),
+       o.subtotal, o.discount, o.tax, o.total, o.payment_method,
+       COALESCE(o.payment_status, 'PENDING'), o.order_type, COALESCE(o.status, 'PENDING'),
+       o.created_at, o.updated_at
+FROM orders o
+    JOIN reservations r ON r.id = o.reservation_id
+    JOIN shows s ON s.id = r.show_id
+    JOIN movies m ON m.id = s.movie_id
+    JOIN rooms rm ON rm.id = s.room_id
+    LEFT JOIN cinemas c ON c.id = rm.cinema_id
+WHERE NOT EXISTS (SELECT 1 FROM order_summaries os WHERE os.id = o.id);
@@ -0,0 +1,6 @@
+-- V7: puntos de fidelidad acreditados por cada orden.
+-- NULL mientras no se acreditaron; el pipeline post-compra la completa una sola vez por orden.
+
+ALTER TABLE orders
+    ADD COLUMN loyalty_points INT NULL,
+    ALGORITHM = INSTANT;
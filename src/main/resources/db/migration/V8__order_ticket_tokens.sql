@@ -0,0 +1,7 @@
+-- V8: orders.qr_code guarda solo el contenido firmado de las entradas; la imagen se genera a pedido.
+-- Las imágenes PNG en base64 guardadas antes se descartan: el contenido firmado de esas órdenes se
+-- emite de nuevo la primera vez que se piden sus entradas.
+
+UPDATE orders
+SET qr_code = NULL
+WHERE qr_code LIKE 'data:%';
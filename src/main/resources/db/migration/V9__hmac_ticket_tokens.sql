@@ -0,0 +1,7 @@
+-- V9: las entradas pasan a firmarse con HMAC-SHA256 en formato base32 (ver TicketTokenCodec).
+-- El contenido con separadores '|' tenía una firma falsificable y ya no se acepta en la puerta: se descarta
+-- y el contenido nuevo de esas órdenes se emite la primera vez que se piden sus entradas.
+
+UPDATE orders
+SET qr_code = NULL
+WHERE qr_code LIKE '%|%';
@@ -0,0 +1,98 @@
+package com.cinetickets.api.benchmark;
+
+import com.cinetickets.api.entity.Seat;
+import com.cinetickets.api.service.inventory.ShowSeatInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del buscador de mejores asientos juntos sobre una sala de 400 asientos (20 filas de 20)
+ * con el 90% de los asientos ya ocupados.
+ * No forma parte de la suite de tests: se ejecuta con el método main usando el classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestAvailableSeatFinderBenchmark {
+
+	private static final int ROWS = 20;
+	private static final int SEATS_PER_ROW = 20;
+
+	@Param({ "0.9" })
+	private double occupancy;
+
+	@Param({ "1", "2", "4" })
+	private int quantity;
+
+	private ShowSeatInventory inventory;
+
+	@Setup
+	public void setUp() {
+		List<Seat> seats = new ArrayList<>();
+		for (int row = 0; row < ROWS; row++) {
+			for (int number = 1; number <= SEATS_PER_ROW; number++) {
+				seats.add(Seat.builder()
+						.id(UUID.randomUUID())
+						.rowName(String.valueOf((char) ('A' + row)))
+						.number(String.valueOf(number))
+						.seatType(Seat.SeatType.REGULAR)
+						.status(Seat.SeatStatus.ACTIVE)
+						.build());
+			}
+		}
+		inventory = new ShowSeatInventory(UUID.randomUUID(), UUID.randomUUID(), ZonedDateTime.now().plusHours(2), seats);
+
+		List<Integer> indexes = new ArrayList<>();
+		for (int i = 0; i < inventory.getCapacity(); i++) {
+			indexes.add(i);
+		}
+		Collections.shuffle(indexes, new Random(42));
+		int taken = (int) (inventory.getCapacity() * occupancy);
+		inventory.markSold(indexes.subList(0, taken).stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	@Benchmark
+	public int[] findBestAvailable() {
+		return inventory.findBestAvailable(quantity, null);
+	}
+
+	@Benchmark
+	public boolean findAndClaim() {
+		int[] indexes = inventory.findBestAvailable(quantity, null);
+		if (indexes == null || !inventory.tryClaim(indexes)) {
+			return false;
+		}
+		// Liberar para que cada iteración vea la misma ocupación
+		inventory.release(indexes);
+		return true;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(BestAvailableSeatFinderBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,88 @@
+package com.cinetickets.api.benchmark;
+
+import com.cinetickets.api.service.QrCodeService;
+import com.cinetickets.api.service.qr.TicketQrRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por compra del QR de las entradas: antes se generaba el PNG y su data URI en la transacción
+ * del pago; ahora solo se firma el contenido, y la imagen se genera una vez por formato y tamaño
+ * y se sirve desde la caché.
+ * No forma parte de la suite de tests: se ejecuta con el método main usando el classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketQrEncodingBenchmark {
+
+	private QrCodeService qrCodeService;
+	private TicketQrRenderer renderer;
+	private UUID orderId;
+	private UUID showId;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		qrCodeService = new QrCodeService("benchmark-secret");
+		renderer = new TicketQrRenderer(new SimpleMeterRegistry(), 32L * 1024 * 1024, 60);
+		orderId = UUID.randomUUID();
+		showId = UUID.randomUUID();
+		token = qrCodeService.generateTicketToken(orderId, showId, System.currentTimeMillis());
+		renderer.render(token, TicketQrRenderer.QrFormat.PNG, TicketQrRenderer.DEFAULT_SIZE);
+	}
+
+	/**
+	 * Lo que hacía antes cada pago: firmar, generar el PNG y pasarlo a base64
+	 */
+	@Benchmark
+	public String legacyPngDataUriOnPurchase() {
+		String content = qrCodeService.generateTicketToken(orderId, showId, System.currentTimeMillis());
+		byte[] png = TicketQrRenderer.encode(content, TicketQrRenderer.QrFormat.PNG, TicketQrRenderer.DEFAULT_SIZE)
+				.getBytes();
+		return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+	}
+
+	/**
+	 * Lo que hace ahora cada pago
+	 */
+	@Benchmark
+	public String tokenOnPurchase() {
+		return qrCodeService.generateTicketToken(orderId, showId, System.currentTimeMillis());
+	}
+
+	@Benchmark
+	public TicketQrRenderer.QrImage svgOnDemand() {
+		return TicketQrRenderer.encode(token, TicketQrRenderer.QrFormat.SVG, TicketQrRenderer.DEFAULT_SIZE);
+	}
+
+	@Benchmark
+	public TicketQrRenderer.QrImage pngCacheHit() {
+		return renderer.render(token, TicketQrRenderer.QrFormat.PNG, TicketQrRenderer.DEFAULT_SIZE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TicketQrEncodingBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
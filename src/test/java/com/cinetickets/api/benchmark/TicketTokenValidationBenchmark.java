@@ -0,0 +1,70 @@
+package com.cinetickets.api.benchmark;
+
+import com.cinetickets.api.service.qr.TicketTokenCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validaciones por segundo en un solo hilo (un núcleo) de las entradas escaneadas en la puerta.
+ * El objetivo es al menos un millón por segundo en verify, para que los lectores nunca esperen CPU.
+ * No forma parte de la suite de tests: se ejecuta con el método main usando el classpath de test
+ * tras {@code mvn test-compile}. Las cifras dependen de la máquina, así que no se guardan aquí.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class TicketTokenValidationBenchmark {
+
+	private TicketTokenCodec codec;
+	private String valid;
+	private String forged;
+
+	@Setup
+	public void setUp() {
+		codec = new TicketTokenCodec("ClaveDeBenchmarkParaFirmarEntradas");
+		valid = codec.encode(UUID.randomUUID(), UUID.randomUUID(), Instant.now());
+		forged = new TicketTokenCodec("OtraClave").encode(UUID.randomUUID(), UUID.randomUUID(), Instant.now());
+	}
+
+	@Benchmark
+	public boolean verifyValid() {
+		return codec.verify(valid);
+	}
+
+	@Benchmark
+	public boolean verifyForged() {
+		return codec.verify(forged);
+	}
+
+	@Benchmark
+	public Optional<TicketTokenCodec.TicketToken> decodeValid() {
+		return codec.decode(valid);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TicketTokenValidationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
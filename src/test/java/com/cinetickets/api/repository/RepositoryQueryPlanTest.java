@@ -0,0 +1,324 @@
+package com.cinetickets.api.repository;
+
+import com.cinetickets.api.entity.Movie;
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.Reservation;
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Seat;
+import com.cinetickets.api.entity.Show;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ejecuta cada finder de los repositorios, captura el SQL que genera Hibernate y corre EXPLAIN
+ * sobre H2 en modo MySQL: ninguna consulta debe recorrer una tabla completa.
+ * Si una consulta nueva falla acá, hay que agregar el índice en la entidad, en schema.txt
+ * y en una migración de db/migration.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RepositoryQueryPlanTest.CapturingConfig.class)
+class RepositoryQueryPlanTest {
+
+	private static final UUID ID = UUID.randomUUID();
+	private static final ZonedDateTime NOW = ZonedDateTime.now();
+	private static final List<Reservation.ReservationStatus> ACTIVE_STATUSES = List.of(
+			Reservation.ReservationStatus.PENDING, Reservation.ReservationStatus.CONFIRMED);
+
+	@Autowired
+	private CapturingStatementInspector inspector;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private ShowRepository showRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderSummaryRepository orderSummaryRepository;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private SeatRepository seatRepository;
+
+	@Autowired
+	private ActiveSeatHoldRepository activeSeatHoldRepository;
+
+	@Autowired
+	private PromotionRepository promotionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TicketTypeRepository ticketTypeRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CinemaRepository cinemaRepository;
+
+	@Test
+	void reservationFindersUseIndexes() {
+		assertIndexed("findByUserIdAndStatusIn", () -> reservationRepository.findByUserIdAndStatusIn(ID, ACTIVE_STATUSES));
+		assertIndexed("findByIdAndUserId", () -> reservationRepository.findByIdAndUserId(ID, ID));
+		assertIndexed("findDetailsById", () -> reservationRepository.findDetailsById(ID));
+		assertIndexed("findDetailsByIdAndUserId", () -> reservationRepository.findDetailsByIdAndUserId(ID, ID));
+		assertIndexed("fetchReservedSeats", () -> reservationRepository.fetchReservedSeats(ID));
+		assertIndexed("countSeatsByReservationIds", () -> reservationRepository.countSeatsByReservationIds(Set.of(ID)));
+		assertIndexed("findShowIdById", () -> reservationRepository.findShowIdById(ID));
+		assertIndexed("findByShowIdAndStatusIn", () -> reservationRepository.findByShowIdAndStatusIn(ID, ACTIVE_STATUSES));
+		assertIndexed("findExpiredReservationIds", () -> reservationRepository.findExpiredReservationIds(NOW));
+		assertIndexed("findPendingExpirations", () -> reservationRepository.findPendingExpirations());
+		assertIndexed("expireIfPending", () -> reservationRepository.expireIfPending(ID, NOW));
+		assertIndexed("countReservationsForSeatInShow", () -> reservationRepository.countReservationsForSeatInShow(ID, ID));
+		assertIndexed("findReservedSeatIdsForShow", () -> reservationRepository.findReservedSeatIdsForShow(ID));
+	}
+
+	@Test
+	void showFindersUseIndexes() {
+		assertIndexed("findWithMovieAndRoomById", () -> showRepository.findWithMovieAndRoomById(ID));
+		assertIndexed("findAllActiveForMovieInDateRange",
+				() -> showRepository.findAllActiveForMovieInDateRange(ID, NOW, NOW.plusDays(1)));
+		assertIndexed("findByRoomIdAndStartTimeBetween",
+				() -> showRepository.findByRoomIdAndStartTimeBetween(ID, NOW, NOW.plusDays(1)));
+		assertIndexed("findAllActiveInCinemaForDateRange",
+				() -> showRepository.findAllActiveInCinemaForDateRange(ID, NOW, NOW.plusDays(1)));
+		assertIndexed("findAllActiveInCinemaForMovieInDateRange",
+				() -> showRepository.findAllActiveInCinemaForMovieInDateRange(ID, ID, NOW, NOW.plusDays(1)));
+		assertIndexed("findAllActiveForDateRange", () -> showRepository.findAllActiveForDateRange(NOW, NOW.plusDays(1)));
+		assertIndexed("findAllShowsCurrentlyPlaying", () -> showRepository.findAllShowsCurrentlyPlaying());
+		assertIndexed("findAllForAdmission",
+				() -> showRepository.findAllForAdmission(NOW.minusHours(12), NOW.plusHours(1), NOW));
+		assertIndexed("findFacetAttributesFrom", () -> showRepository.findFacetAttributesFrom(NOW));
+		assertIndexed("findScheduledIntervalsForRoom", () -> showRepository.findScheduledIntervalsForRoom(ID, NOW));
+		assertIndexed("updateOccupancy", () -> showRepository.updateOccupancy(ID, 100, 1, 1));
+	}
+
+	@Test
+	void showFilterSpecificationsUseIndexes() {
+		List<Show.ShowStatus> allStatuses = List.of(Show.ShowStatus.values());
+		Pageable page = PageRequest.of(1, 20, Sort.by("startTime", "id"));
+
+		assertIndexed("filter by date range", () -> showRepository.findAll(ShowSpecifications.matching(
+				null, null, NOW, NOW.plusDays(7), allStatuses, null, null, null, null), page));
+		assertIndexed("filter by cinema", () -> showRepository.findAll(ShowSpecifications.matching(
+				ID, null, NOW, NOW.plusDays(7), allStatuses, true, null, "es", Room.RoomType.IMAX), page));
+		assertIndexed("filter by movie", () -> showRepository.findAll(ShowSpecifications.matching(
+				null, ID, NOW, NOW.plusDays(7), List.of(Show.ShowStatus.SCHEDULED), null, false, null, null), page));
+	}
+
+	@Test
+	void orderFindersUseIndexes() {
+		assertIndexed("findByUserIdOrderByCreatedAtDesc", () -> orderRepository.findByUserIdOrderByCreatedAtDesc(ID));
+		assertIndexed("findByIdAndUserId", () -> orderRepository.findByIdAndUserId(ID, ID));
+		assertIndexed("findDetailsById", () -> orderRepository.findDetailsById(ID));
+		assertIndexed("findDetailsByIdAndUserId", () -> orderRepository.findDetailsByIdAndUserId(ID, ID));
+		assertIndexed("findByReservationId", () -> orderRepository.findByReservationId(ID));
+		assertIndexed("findPaidTicketsByShowIds", () -> orderRepository.findPaidTicketsByShowIds(List.of(ID)));
+		assertIndexed("findPaidTicketById", () -> orderRepository.findPaidTicketById(ID));
+		assertIndexed("markAdmitted", () -> orderRepository.markAdmitted(List.of(ID), NOW));
+		assertIndexed("findByQrCode", () -> orderRepository.findByQrCode("QR"));
+		assertIndexed("findByPaymentReference", () -> orderRepository.findByPaymentReference("REF"));
+		assertIndexed("findCompletedOrdersByCinemaAndDateRange",
+				() -> orderRepository.findCompletedOrdersByCinemaAndDateRange(ID, NOW.minusDays(7), NOW));
+		assertIndexed("calculateTotalSalesByCinemaAndDateRange",
+				() -> orderRepository.calculateTotalSalesByCinemaAndDateRange(ID, NOW.minusDays(7), NOW));
+		assertIndexed("findMostPopularDaysOfWeek",
+				() -> orderRepository.findMostPopularDaysOfWeek(ID, NOW.minusDays(7), NOW));
+	}
+
+	@Test
+	void orderSummaryFindersUseIndexes() {
+		PageRequest page = PageRequest.of(1, 10);
+		assertIndexed("summary findByUserId", () -> orderSummaryRepository.findByUserIdOrderByCreatedAtDescIdDesc(ID, page));
+		assertIndexed("summary findAll", () -> orderSummaryRepository.findAllByOrderByCreatedAtDescIdDesc(page));
+		assertIndexed("summary findByCinemaId", () -> orderSummaryRepository.findByCinemaIdOrderByCreatedAtDescIdDesc(ID, page));
+		assertIndexed("summary findByOrderStatus", () -> orderSummaryRepository
+				.findByOrderStatusOrderByCreatedAtDescIdDesc(Order.OrderStatus.COMPLETED, page));
+		assertIndexed("summary findByCinemaIdAndOrderStatus", () -> orderSummaryRepository
+				.findByCinemaIdAndOrderStatusOrderByCreatedAtDescIdDesc(ID, Order.OrderStatus.COMPLETED, page));
+		assertIndexed("summary findFirstPageByUserId",
+				() -> orderSummaryRepository.findFirstPageByUserId(ID, PageRequest.ofSize(21)));
+		assertIndexed("summary findPageByUserIdAfter",
+				() -> orderSummaryRepository.findPageByUserIdAfter(ID, NOW, ID, PageRequest.ofSize(21)));
+		assertIndexed("summary findFirstPage", () -> orderSummaryRepository.findFirstPage(PageRequest.ofSize(21)));
+		assertIndexed("summary findPageAfter",
+				() -> orderSummaryRepository.findPageAfter(NOW, ID, PageRequest.ofSize(21)));
+		assertIndexed("updateStatuses", () -> orderSummaryRepository.updateStatuses(ID, Order.PaymentStatus.PAID,
+				Order.OrderStatus.COMPLETED, NOW));
+	}
+
+	@Test
+	void catalogFindersUseIndexes() {
+		assertIndexed("findByStatus", () -> movieRepository.findByStatus(Movie.MovieStatus.ACTIVE));
+		assertIndexed("findAllCurrentlyShowing", () -> movieRepository.findAllCurrentlyShowing(NOW.toLocalDate()));
+		assertIndexed("findAllComingSoon", () -> movieRepository.findAllComingSoon(NOW.toLocalDate()));
+		assertIndexed("findAllActiveInCinema", () -> movieRepository.findAllActiveInCinema(ID));
+		assertIndexed("movie findFirstPage", () -> movieRepository.findFirstPage(PageRequest.ofSize(21)));
+		assertIndexed("movie findPageAfter", () -> movieRepository.findPageAfter(NOW, ID, PageRequest.ofSize(21)));
+		assertIndexed("findByRoomId", () -> seatRepository.findByRoomId(ID));
+		assertIndexed("findByRoomIdAndStatus", () -> seatRepository.findByRoomIdAndStatus(ID, Seat.SeatStatus.ACTIVE));
+		assertIndexed("seat findReservedSeatIdsForShow", () -> seatRepository.findReservedSeatIdsForShow(ID));
+		assertIndexed("findByCinemaIdAndIsActiveTrue", () -> ticketTypeRepository.findByCinemaIdAndIsActiveTrue(ID));
+		assertIndexed("findByCategoryIdAndIsActiveTrue", () -> productRepository.findByCategoryIdAndIsActiveTrue(ID));
+		assertIndexed("cinema findNameById", () -> cinemaRepository.findNameById(ID));
+		assertIndexed("findIdAndNameByIdIn", () -> cinemaRepository.findIdAndNameByIdIn(Set.of(ID)));
+	}
+
+	@Test
+	void seatHoldPromotionAndUserFindersUseIndexes() {
+		assertIndexed("findSeatStatesByShowId", () -> activeSeatHoldRepository.findSeatStatesByShowId(ID));
+		assertIndexed("markSoldByReservationId", () -> activeSeatHoldRepository.markSoldByReservationId(ID));
+		assertIndexed("deleteByReservationId", () -> activeSeatHoldRepository.deleteByReservationId(ID));
+		assertIndexed("deleteForShowsEndedBefore", () -> activeSeatHoldRepository.deleteForShowsEndedBefore(NOW));
+		assertIndexed("findByCode", () -> promotionRepository.findByCode("PROMO"));
+		assertIndexed("existsByCode", () -> promotionRepository.existsByCode("PROMO"));
+		assertIndexed("promotion findByIsActiveTrue", () -> promotionRepository.findByIsActiveTrue());
+		assertIndexed("promotion findByIsActiveTrueAndStartDateBeforeAndEndDateAfter",
+				() -> promotionRepository.findByIsActiveTrueAndStartDateBeforeAndEndDateAfter(NOW, NOW));
+		assertIndexed("findByEmail", () -> userRepository.findByEmail("a@b.com"));
+		assertIndexed("existsByEmail", () -> userRepository.existsByEmail("a@b.com"));
+		assertIndexed("findByAuthProviderAndAuthProviderId",
+				() -> userRepository.findByAuthProviderAndAuthProviderId("google", "uid"));
+	}
+
+	private void assertIndexed(String finder, Runnable call) {
+		for (String plan : plansFor(call)) {
+			assertThat(plan)
+					.as("%s recorre una tabla completa:%n%s", finder, plan)
+					.doesNotContain(".tableScan");
+		}
+	}
+
+	private List<String> plansFor(Runnable call) {
+		inspector.clear();
+		call.run();
+
+		List<String> plans = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection()) {
+			for (String sql : inspector.getStatements()) {
+				if (!sql.matches("(?is)^\\s*(select|update|delete)\\b.*")) {
+					continue;
+				}
+				try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+					bindSampleValues(explain);
+					try (ResultSet resultSet = explain.executeQuery()) {
+						resultSet.next();
+						plans.add(resultSet.getString(1));
+					}
+				}
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not explain captured statements", e);
+		}
+		assertThat(plans).as("no statements captured").isNotEmpty();
+		return plans;
+	}
+
+	/**
+	 * Enlaza un valor de ejemplo del tipo que H2 infiere para cada parámetro; con NULL el optimizador
+	 * puede simplificar la condición y ocultar el plan real.
+	 */
+	private static void bindSampleValues(PreparedStatement statement) throws SQLException {
+		ParameterMetaData metaData = statement.getParameterMetaData();
+		for (int i = 1; i <= metaData.getParameterCount(); i++) {
+			String type = metaData.getParameterTypeName(i).toUpperCase();
+			Object value;
+			if (type.equals("UUID")) {
+				value = UUID.randomUUID();
+			} else if (type.startsWith("TIMESTAMP WITH TIME ZONE")) {
+				value = OffsetDateTime.now();
+			} else if (type.startsWith("TIMESTAMP")) {
+				value = LocalDateTime.now();
+			} else if (type.equals("DATE")) {
+				value = LocalDate.now();
+			} else if (type.equals("BOOLEAN")) {
+				value = Boolean.TRUE;
+			} else if (type.matches("TINYINT|SMALLINT|INTEGER|BIGINT")) {
+				value = 1;
+			} else if (type.matches("NUMERIC|DECIMAL.*")) {
+				value = BigDecimal.ONE;
+			} else {
+				value = "x";
+			}
+			statement.setObject(i, value);
+		}
+	}
+
+	/**
+	 * Guarda el SQL que Hibernate prepara para poder analizar su plan
+	 */
+	static class CapturingStatementInspector implements StatementInspector {
+
+		private final List<String> statements = new ArrayList<>();
+
+		@Override
+		public synchronized String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+
+		synchronized List<String> getStatements() {
+			return new ArrayList<>(statements);
+		}
+
+		synchronized void clear() {
+			statements.clear();
+		}
+	}
+
+	@TestConfiguration
+	static class CapturingConfig {
+
+		@Bean
+		CapturingStatementInspector capturingStatementInspector() {
+			return new CapturingStatementInspector();
+		}
+
+		@Bean
+		HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+			return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.cinetickets.api.service.cache;
+
+import com.cinetickets.api.dto.response.ShowResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShowtimeCacheTest {
+
+	private final ShowtimeCache cache = new ShowtimeCache(new SimpleMeterRegistry(), 100, 10);
+	private final UUID cinemaId = UUID.randomUUID();
+	private final UUID movieId = UUID.randomUUID();
+	private final LocalDate date = LocalDate.of(2026, 3, 14);
+
+	@Test
+	void loadThatReadTheOldStateDoesNotOutliveTheInvalidation() throws Exception {
+		List<ShowResponse> stale = List.of(show("antes"));
+		List<ShowResponse> fresh = List.of(show("después"));
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch committed = new CountDownLatch(1);
+
+		// La carga lee el estado anterior y termina después de que la modificación se confirma
+		CompletableFuture<List<ShowResponse>> slowRead = CompletableFuture.supplyAsync(() ->
+				cache.get(ShowtimeCache.forMovieInCinema(movieId, cinemaId, date), () -> {
+					loading.countDown();
+					await(committed);
+					return stale;
+				}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		cache.invalidateShow(cinemaId, movieId, date);
+		committed.countDown();
+		assertThat(slowRead.get(5, TimeUnit.SECONDS)).isEqualTo(stale);
+
+		assertThat(cache.get(ShowtimeCache.forMovieInCinema(movieId, cinemaId, date), () -> fresh)).isEqualTo(fresh);
+		assertThat(cache.get(ShowtimeCache.forMovieInCinema(movieId, cinemaId, date), () -> stale)).isEqualTo(fresh);
+	}
+
+	@Test
+	void invalidationOnlyReachesListingsOfTheSameMovieOrCinemaAndDate() {
+		List<ShowResponse> cached = List.of(show("guardada"));
+		List<ShowResponse> reloaded = List.of(show("recargada"));
+		UUID otherCinemaId = UUID.randomUUID();
+		cache.get(ShowtimeCache.forCinema(cinemaId, date), () -> cached);
+		cache.get(ShowtimeCache.forCinema(otherCinemaId, date), () -> cached);
+		cache.get(ShowtimeCache.forMovie(movieId, date.plusDays(1)), () -> cached);
+
+		cache.invalidateShow(cinemaId, movieId, date);
+
+		assertThat(cache.get(ShowtimeCache.forCinema(cinemaId, date), () -> reloaded)).isEqualTo(reloaded);
+		assertThat(cache.get(ShowtimeCache.forCinema(otherCinemaId, date), () -> reloaded)).isEqualTo(cached);
+		assertThat(cache.get(ShowtimeCache.forMovie(movieId, date.plusDays(1)), () -> reloaded)).isEqualTo(cached);
+	}
+
+	private static ShowResponse show(String language) {
+		return ShowResponse.builder().id(UUID.randomUUID()).language(language).build();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
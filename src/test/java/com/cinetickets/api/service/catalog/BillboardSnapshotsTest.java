@@ -0,0 +1,67 @@
+package com.cinetickets.api.service.catalog;
+
+import com.cinetickets.api.dto.response.MovieResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BillboardSnapshotsTest {
+
+	private final BillboardSnapshots snapshots = new BillboardSnapshots(new ObjectMapper().findAndRegisterModules(),
+			"America/Argentina/Buenos_Aires");
+
+	@Test
+	void sameContentKeepsTheSameStrongEtag() {
+		MovieResponse movie = movie("Relatos salvajes");
+
+		snapshots.publish(Billboard.CURRENTLY_SHOWING, List.of(movie));
+		BillboardSnapshot first = snapshots.get(Billboard.CURRENTLY_SHOWING, List::of);
+		snapshots.publish(Billboard.CURRENTLY_SHOWING, List.of(movie));
+		BillboardSnapshot second = snapshots.get(Billboard.CURRENTLY_SHOWING, List::of);
+
+		assertThat(second.getEtag()).isEqualTo(first.getEtag()).startsWith("\"").endsWith("\"");
+		assertThat(new String(second.getJson(), StandardCharsets.UTF_8)).contains("Relatos salvajes");
+	}
+
+	@Test
+	void changedContentChangesTheEtag() {
+		snapshots.publish(Billboard.COMING_SOON, List.of(movie("Dune")));
+		String before = snapshots.get(Billboard.COMING_SOON, List::of).getEtag();
+
+		snapshots.publish(Billboard.COMING_SOON, List.of(movie("Dune"), movie("Arrival")));
+
+		assertThat(snapshots.get(Billboard.COMING_SOON, List::of).getEtag()).isNotEqualTo(before);
+	}
+
+	@Test
+	void loadsOnlyWhenNothingWasPublished() {
+		AtomicInteger loads = new AtomicInteger();
+
+		snapshots.get(Billboard.CURRENTLY_SHOWING, () -> {
+			loads.incrementAndGet();
+			return List.of(movie("Arrival"));
+		});
+		BillboardSnapshot cached = snapshots.get(Billboard.CURRENTLY_SHOWING, () -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+
+		assertThat(loads).hasValue(1);
+		assertThat(cached.getMovies()).hasSize(1);
+	}
+
+	private static MovieResponse movie(String title) {
+		return MovieResponse.builder()
+				.id(UUID.nameUUIDFromBytes(title.getBytes(StandardCharsets.UTF_8)))
+				.title(title)
+				.releaseDate(LocalDate.of(2024, 3, 1))
+				.build();
+	}
+}
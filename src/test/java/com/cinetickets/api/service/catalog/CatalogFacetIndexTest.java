@@ -0,0 +1,99 @@
+package com.cinetickets.api.service.catalog;
+
+import com.cinetickets.api.dto.response.CatalogBrowseResponse;
+import com.cinetickets.api.dto.response.MovieResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogFacetIndexTest {
+
+	private CatalogFacetIndex index;
+	private MovieResponse accion3d;
+	private MovieResponse drama;
+	private MovieResponse animada;
+
+	@BeforeEach
+	void setUp() {
+		accion3d = movie("Acción total");
+		drama = movie("Drama de época");
+		animada = movie("Animada");
+
+		index = new CatalogFacetIndex();
+		index.rebuild(List.of(
+				document(accion3d, Set.of("Acción"), Set.of("true", "false"), Set.of("IMAX", "REGULAR"), "+13"),
+				document(drama, Set.of("Drama"), Set.of("false"), Set.of("REGULAR"), "+16"),
+				document(animada, Set.of("Animación", "Acción"), Set.of("true"), Set.of("THREE_D"), "ATP")));
+	}
+
+	@Test
+	void withoutFiltersListsEverythingWithFullCounts() {
+		CatalogBrowseResponse response = index.browse(Map.of());
+
+		assertThat(response.getMovies()).containsExactly(accion3d, drama, animada);
+		assertThat(response.getFacets().get("genre")).containsEntry("Acción", 2).containsEntry("Drama", 1);
+		assertThat(response.getFacets().get("roomType")).containsEntry("REGULAR", 2);
+	}
+
+	@Test
+	void combinesValuesWithOrAndFacetsWithAnd() {
+		CatalogBrowseResponse response = index.browse(filters(
+				CatalogFacet.GENRE, List.of("acción", "drama"),
+				CatalogFacet.IS_3D, List.of("true")));
+
+		assertThat(response.getMovies()).containsExactly(accion3d, animada);
+		assertThat(response.getTotal()).isEqualTo(2);
+	}
+
+	@Test
+	void countsIgnoreTheFacetsOwnSelection() {
+		CatalogBrowseResponse response = index.browse(filters(
+				CatalogFacet.GENRE, List.of("Drama"),
+				CatalogFacet.ROOM_TYPE, List.of("REGULAR")));
+
+		assertThat(response.getMovies()).containsExactly(drama);
+		// Con sala REGULAR, sumar Acción agregaría una película aunque hoy solo esté marcado Drama
+		assertThat(response.getFacets().get("genre")).containsEntry("Acción", 1).containsEntry("Animación", 0);
+		// Con género Drama, solo hay funciones en salas REGULAR
+		assertThat(response.getFacets().get("roomType")).containsEntry("REGULAR", 1).containsEntry("IMAX", 0);
+	}
+
+	@Test
+	void unknownValuesMatchNothing() {
+		assertThat(index.browse(filters(CatalogFacet.RATING, List.of("+18"))).getMovies()).isEmpty();
+	}
+
+	private static Map<CatalogFacet, List<String>> filters(CatalogFacet first, List<String> firstValues,
+			CatalogFacet second, List<String> secondValues) {
+		Map<CatalogFacet, List<String>> filters = filters(first, firstValues);
+		filters.put(second, secondValues);
+		return filters;
+	}
+
+	private static Map<CatalogFacet, List<String>> filters(CatalogFacet facet, List<String> values) {
+		Map<CatalogFacet, List<String>> filters = new EnumMap<>(CatalogFacet.class);
+		filters.put(facet, values);
+		return filters;
+	}
+
+	private static CatalogFacetIndex.Document document(MovieResponse movie, Set<String> genres, Set<String> is3d,
+			Set<String> roomTypes, String rating) {
+		Map<CatalogFacet, Set<String>> values = new EnumMap<>(CatalogFacet.class);
+		values.put(CatalogFacet.GENRE, genres);
+		values.put(CatalogFacet.IS_3D, is3d);
+		values.put(CatalogFacet.ROOM_TYPE, roomTypes);
+		values.put(CatalogFacet.RATING, Set.of(rating));
+		return new CatalogFacetIndex.Document(movie, values);
+	}
+
+	private static MovieResponse movie(String title) {
+		return MovieResponse.builder().id(UUID.randomUUID()).title(title).build();
+	}
+}
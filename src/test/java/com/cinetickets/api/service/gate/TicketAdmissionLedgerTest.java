@@ -0,0 +1,237 @@
+package com.cinetickets.api.service.gate;
+
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.repository.ShowRepository;
+import com.cinetickets.api.service.qr.TicketTokenCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TicketAdmissionLedgerTest {
+
+	private static final Instant START = Instant.parse("2026-03-14T21:00:00Z");
+
+	private OrderRepository orderRepository;
+	private ShowRepository showRepository;
+	private SimpleMeterRegistry meterRegistry;
+	private TicketAdmissionLedger ledger;
+
+	private Show show;
+	private UUID paidOrderId;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository = mock(OrderRepository.class);
+		showRepository = mock(ShowRepository.class);
+		meterRegistry = new SimpleMeterRegistry();
+		ledger = new TicketAdmissionLedger(orderRepository, showRepository, mock(PlatformTransactionManager.class),
+				meterRegistry, 30, 60, 500);
+
+		show = Show.builder()
+				.id(UUID.randomUUID())
+				.startTime(ZonedDateTime.ofInstant(START, ZoneId.systemDefault()))
+				.endTime(ZonedDateTime.ofInstant(START.plusSeconds(2 * 3600), ZoneId.systemDefault()))
+				.build();
+		paidOrderId = UUID.randomUUID();
+		when(showRepository.findAllForAdmission(any(), any(), any())).thenReturn(List.of(show));
+		when(showRepository.findById(show.getId())).thenReturn(Optional.of(show));
+		when(orderRepository.findPaidTicketsByShowIds(anyCollection()))
+				.thenReturn(rows(new Object[] { paidOrderId, show.getId(), null }));
+	}
+
+	@Test
+	void preloadedTicketIsAdmittedOnceWithoutTouchingTheDatabase() {
+		ledger.preload(START.minusSeconds(3600));
+		Instant now = START.minusSeconds(600);
+
+		TicketAdmission first = ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), now);
+		TicketAdmission second = ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), now.plusSeconds(30));
+
+		assertThat(first.getStatus()).isEqualTo(TicketAdmission.Status.ADMITTED);
+		assertThat(second.getStatus()).isEqualTo(TicketAdmission.Status.ALREADY_USED);
+		assertThat(second.getAdmittedAt()).isEqualTo(now);
+		verify(showRepository, never()).findById(any());
+		verify(orderRepository, never()).findPaidTicketById(any());
+		verify(orderRepository, never()).markAdmitted(anyCollection(), any());
+		assertThat(ledger.pendingAdmissions()).isEqualTo(1);
+		assertThat(meterRegistry.get("gate.admissions").tag("result", "already_used").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void concurrentScansOfTheSameTicketAdmitOnlyOne() throws Exception {
+		ledger.preload(START.minusSeconds(3600));
+		int scanners = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(scanners);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Future<TicketAdmission>> results = new ArrayList<>();
+		for (int i = 0; i < scanners; i++) {
+			results.add(executor.submit(() -> {
+				go.await();
+				return ledger.admit(ticket(paidOrderId, show.getId()), null, START);
+			}));
+		}
+		go.countDown();
+
+		int admitted = 0;
+		for (Future<TicketAdmission> result : results) {
+			if (result.get(5, TimeUnit.SECONDS).getStatus() == TicketAdmission.Status.ADMITTED) {
+				admitted++;
+			}
+		}
+		executor.shutdown();
+
+		assertThat(admitted).isEqualTo(1);
+		assertThat(ledger.pendingAdmissions()).isEqualTo(1);
+	}
+
+	@Test
+	void wrongShowTooEarlyAndEndedAreReportedApart() {
+		UUID otherShowId = UUID.randomUUID();
+
+		TicketAdmission wrongShow = ledger.admit(ticket(paidOrderId, show.getId()), otherShowId, START);
+		TicketAdmission tooEarly = ledger.admit(ticket(paidOrderId, show.getId()), null, START.minusSeconds(3600));
+		TicketAdmission ended = ledger.admit(ticket(paidOrderId, show.getId()), null, START.plusSeconds(3 * 3600));
+
+		assertThat(wrongShow.getStatus()).isEqualTo(TicketAdmission.Status.WRONG_SHOW);
+		assertThat(wrongShow.getShowId()).isEqualTo(show.getId());
+		assertThat(tooEarly.getStatus()).isEqualTo(TicketAdmission.Status.TOO_EARLY);
+		assertThat(tooEarly.getDoorsOpenAt()).isEqualTo(START.minusSeconds(30 * 60));
+		assertThat(ended.getStatus()).isEqualTo(TicketAdmission.Status.EXPIRED);
+		// Ninguno de los tres consume la entrada
+		assertThat(ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), START).getStatus())
+				.isEqualTo(TicketAdmission.Status.ADMITTED);
+	}
+
+	@Test
+	void ticketsPaidAfterThePreloadAreLookedUpAndUnpaidOnesRejected() {
+		ledger.preload(START.minusSeconds(3600));
+		UUID latePaidOrderId = UUID.randomUUID();
+		UUID unpaidOrderId = UUID.randomUUID();
+		when(orderRepository.findPaidTicketById(latePaidOrderId))
+				.thenReturn(rows(new Object[] { latePaidOrderId, show.getId(), null }));
+		when(orderRepository.findPaidTicketById(unpaidOrderId)).thenReturn(List.of());
+
+		assertThat(ledger.admit(ticket(latePaidOrderId, show.getId()), null, START).getStatus())
+				.isEqualTo(TicketAdmission.Status.ADMITTED);
+		assertThat(ledger.admit(ticket(latePaidOrderId, show.getId()), null, START).getStatus())
+				.isEqualTo(TicketAdmission.Status.ALREADY_USED);
+		assertThat(ledger.admit(ticket(unpaidOrderId, show.getId()), null, START).getStatus())
+				.isEqualTo(TicketAdmission.Status.NOT_PAID);
+		verify(orderRepository, times(1)).findPaidTicketById(latePaidOrderId);
+	}
+
+	@Test
+	void ticketRefundedAfterThePreloadIsRejected() {
+		ledger.preload(START.minusSeconds(3600));
+		ledger.refund(paidOrderId, START.minusSeconds(1800));
+
+		TicketAdmission admission = ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), START);
+
+		assertThat(admission.getStatus()).isEqualTo(TicketAdmission.Status.NOT_PAID);
+		assertThat(ledger.pendingAdmissions()).isZero();
+		// Se recuerda mientras la función pueda seguir cargada, y después se olvida
+		ledger.preload(START.plusSeconds(3 * 3600));
+		assertThat(ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), START).getStatus())
+				.isEqualTo(TicketAdmission.Status.NOT_PAID);
+		ledger.preload(START.plusSeconds(24 * 3600));
+		assertThat(ledger.admit(ticket(paidOrderId, show.getId()), show.getId(), START).getStatus())
+				.isNotEqualTo(TicketAdmission.Status.NOT_PAID);
+	}
+
+	@Test
+	void showNotPreloadedIsLoadedOnceForAllItsScans() {
+		UUID secondOrderId = UUID.randomUUID();
+		when(orderRepository.findPaidTicketsByShowIds(anyCollection())).thenReturn(rows(
+				new Object[] { paidOrderId, show.getId(), null },
+				new Object[] { secondOrderId, show.getId(), null }));
+
+		TicketAdmission tooEarly = ledger.admit(ticket(paidOrderId, show.getId()), null, START.minusSeconds(3600));
+		TicketAdmission first = ledger.admit(ticket(paidOrderId, show.getId()), null, START);
+		TicketAdmission second = ledger.admit(ticket(secondOrderId, show.getId()), null, START);
+
+		assertThat(tooEarly.getStatus()).isEqualTo(TicketAdmission.Status.TOO_EARLY);
+		assertThat(first.getStatus()).isEqualTo(TicketAdmission.Status.ADMITTED);
+		assertThat(second.getStatus()).isEqualTo(TicketAdmission.Status.ADMITTED);
+		verify(showRepository, times(1)).findById(show.getId());
+		verify(orderRepository, times(1)).findPaidTicketsByShowIds(anyCollection());
+		verify(orderRepository, never()).findPaidTicketById(any());
+	}
+
+	@Test
+	void ticketsAlreadyAdmittedBeforeARestartStayUsed() {
+		ZonedDateTime admittedAt = ZonedDateTime.ofInstant(START.minusSeconds(300), ZoneId.systemDefault());
+		when(orderRepository.findPaidTicketsByShowIds(anyCollection()))
+				.thenReturn(rows(new Object[] { paidOrderId, show.getId(), admittedAt }));
+		ledger.preload(START.minusSeconds(3600));
+
+		TicketAdmission admission = ledger.admit(ticket(paidOrderId, show.getId()), null, START);
+
+		assertThat(admission.getStatus()).isEqualTo(TicketAdmission.Status.ALREADY_USED);
+		assertThat(admission.getAdmittedAt()).isEqualTo(admittedAt.toInstant());
+	}
+
+	@Test
+	void flushWritesOneStatementPerSecondAndRetriesFailedBatches() {
+		UUID secondOrderId = UUID.randomUUID();
+		UUID thirdOrderId = UUID.randomUUID();
+		when(orderRepository.findPaidTicketsByShowIds(anyCollection())).thenReturn(rows(
+				new Object[] { paidOrderId, show.getId(), null },
+				new Object[] { secondOrderId, show.getId(), null },
+				new Object[] { thirdOrderId, show.getId(), null }));
+		ledger.preload(START.minusSeconds(3600));
+		ledger.admit(ticket(paidOrderId, show.getId()), null, START);
+		ledger.admit(ticket(secondOrderId, show.getId()), null, START.plusMillis(400));
+		ledger.admit(ticket(thirdOrderId, show.getId()), null, START.plusSeconds(1));
+
+		when(orderRepository.markAdmitted(anyCollection(), any())).thenThrow(new QueryTimeoutException("timeout"));
+		ledger.flush();
+		assertThat(ledger.pendingAdmissions()).isEqualTo(3);
+
+		List<Collection<UUID>> batches = new ArrayList<>();
+		doAnswer(invocation -> {
+			Collection<UUID> ids = invocation.getArgument(0);
+			batches.add(List.copyOf(ids));
+			return ids.size();
+		}).when(orderRepository).markAdmitted(anyCollection(), any());
+		ledger.flush();
+
+		assertThat(batches).containsExactly(List.of(paidOrderId, secondOrderId), List.of(thirdOrderId));
+		assertThat(ledger.pendingAdmissions()).isZero();
+	}
+
+	private static TicketTokenCodec.TicketToken ticket(UUID orderId, UUID showId) {
+		return new TicketTokenCodec.TicketToken(orderId, showId, START.minusSeconds(86400));
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return List.of(rows);
+	}
+}
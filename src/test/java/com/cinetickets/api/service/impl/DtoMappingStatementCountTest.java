@@ -0,0 +1,430 @@
+package com.cinetickets.api.service.impl;
+
+import com.cinetickets.api.dto.request.ShowFilterRequest;
+import com.cinetickets.api.dto.response.CursorPageResponse;
+import com.cinetickets.api.dto.response.OrderDetailsResponse;
+import com.cinetickets.api.dto.response.OrderResponse;
+import com.cinetickets.api.dto.response.ShowResponse;
+import com.cinetickets.api.entity.Movie;
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.OrderItem;
+import com.cinetickets.api.entity.Reservation;
+import com.cinetickets.api.entity.ReservedSeat;
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Seat;
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.entity.TicketType;
+import com.cinetickets.api.entity.User;
+import com.cinetickets.api.exception.InvalidCursorException;
+import com.cinetickets.api.exception.InvalidFilterException;
+import com.cinetickets.api.job.ReservationExpiryWheel;
+import com.cinetickets.api.repository.MovieRepository;
+import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.repository.ReservationRepository;
+import com.cinetickets.api.repository.RoomRepository;
+import com.cinetickets.api.repository.SeatRepository;
+import com.cinetickets.api.repository.ShowRepository;
+import com.cinetickets.api.repository.TicketTypeRepository;
+import com.cinetickets.api.repository.UserRepository;
+import com.cinetickets.api.service.OrderService;
+import com.cinetickets.api.service.PromotionService;
+import com.cinetickets.api.service.QrCodeService;
+import com.cinetickets.api.service.ReservationService;
+import com.cinetickets.api.service.ShowService;
+import com.cinetickets.api.service.cache.ShowtimeCache;
+import com.cinetickets.api.service.inventory.SeatInventoryService;
+import com.cinetickets.api.service.lock.ShowLockStripes;
+import com.cinetickets.api.service.order.OrderSummaryWriter;
+import com.cinetickets.api.service.pricing.PriceBookService;
+import com.cinetickets.api.service.schedule.RoomScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los mapeos a DTO de funciones, órdenes y reservas deben ejecutar siempre la misma cantidad de
+ * sentencias SQL, sin importar cuántas filas o asientos tengan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ OrderServiceImpl.class, ReservationServiceImpl.class, ShowServiceImpl.class, SeatInventoryService.class,
+		ReservationExpiryWheel.class, ShowLockStripes.class, ShowtimeCache.class, RoomScheduleIndex.class,
+		PriceBookService.class, OrderSummaryWriter.class, QrCodeService.class, SimpleMeterRegistry.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DtoMappingStatementCountTest {
+
+	@MockitoBean
+	private PromotionService promotionService;
+
+	@Autowired
+	private ShowService showService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ReservationService reservationService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private SeatRepository seatRepository;
+
+	@Autowired
+	private ShowRepository showRepository;
+
+	@Autowired
+	private TicketTypeRepository ticketTypeRepository;
+
+	@Autowired
+	private PriceBookService priceBookService;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OrderSummaryWriter orderSummaryWriter;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+	private Statistics statistics;
+	private Room room;
+	private List<Seat> seats;
+	private TicketType ticketType;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		room = roomRepository.save(Room.builder()
+				.name("Sala " + UUID.randomUUID())
+				.capacity(20)
+				.roomType(Room.RoomType.REGULAR)
+				.status(Room.RoomStatus.ACTIVE)
+				.build());
+
+		List<Seat> newSeats = new ArrayList<>();
+		for (int number = 1; number <= 20; number++) {
+			newSeats.add(Seat.builder()
+					.room(room)
+					.rowName("A")
+					.number(String.valueOf(number))
+					.seatType(Seat.SeatType.REGULAR)
+					.status(Seat.SeatStatus.ACTIVE)
+					.build());
+		}
+		seats = seatRepository.saveAll(newSeats);
+
+		ticketType = ticketTypeRepository.save(TicketType.builder()
+				.name("General")
+				.price(new BigDecimal("5000.00"))
+				.isActive(true)
+				.build());
+		// Las entradas se cotizan contra la lista de precios en memoria
+		priceBookService.reload();
+	}
+
+	@Test
+	void showListingsUseTheSameStatementsForAnyNumberOfShows() {
+		Movie fewShows = newMovie();
+		Movie manyShows = newMovie();
+		for (int i = 0; i < 2; i++) {
+			newShow(fewShows, i);
+		}
+		for (int i = 0; i < 15; i++) {
+			newShow(manyShows, i);
+		}
+
+		String date = TOMORROW.toString();
+		long few = statementsFor(() -> showService.getShowsForMovie(fewShows.getId(), date));
+		long many = statementsFor(() -> showService.getShowsForMovie(manyShows.getId(), date));
+
+		assertThat(many).isEqualTo(few).isLessThanOrEqualTo(2);
+		assertThat(showService.getShowsForMovie(manyShows.getId(), date)).hasSize(15);
+		assertThat(showService.getShowsForMovie(manyShows.getId(), TOMORROW.plusDays(1).toString())).isEmpty();
+	}
+
+	@Test
+	void filteredShowPagesUseTheSameStatementsForAnyNumberOfShows() {
+		Movie fewShows = newMovie();
+		Movie manyShows = newMovie();
+		newShow(fewShows, 0);
+		for (int i = 0; i < 15; i++) {
+			newShow(manyShows, i);
+		}
+		ShowFilterRequest fewFilter = ShowFilterRequest.builder().movieId(fewShows.getId()).build();
+		ShowFilterRequest manyFilter = ShowFilterRequest.builder().movieId(manyShows.getId()).build();
+
+		Page<ShowResponse> page = showService.getAllShowsByFilter(manyFilter, PageRequest.of(0, 10));
+		assertThat(page.getTotalElements()).isEqualTo(15);
+		assertThat(page.getContent()).hasSize(10)
+				.extracting(ShowResponse::getStartTime)
+				.isSortedAccordingTo(Comparator.naturalOrder());
+
+		long few = statementsFor(() -> showService.getAllShowsByFilter(fewFilter, PageRequest.of(0, 10)));
+		long many = statementsFor(() -> showService.getAllShowsByFilter(manyFilter, PageRequest.of(0, 10)));
+
+		// Página, conteo y nombres de cines
+		assertThat(many).isLessThanOrEqualTo(few + 1).isLessThanOrEqualTo(3);
+		assertThatThrownBy(() -> showService.getAllShowsByFilter(ShowFilterRequest.builder()
+				.from(TOMORROW).to(TOMORROW.plusDays(40)).build(), PageRequest.of(0, 10)))
+				.isInstanceOf(InvalidFilterException.class);
+	}
+
+	@Test
+	void userOrderPagesUseTheSameStatementsForAnyNumberOfOrders() {
+		Show show = newShow(newMovie(), 0);
+		User fewOrders = newUser();
+		User manyOrders = newUser();
+		newOrder(show, fewOrders, 1, 0);
+		for (int i = 0; i < 8; i++) {
+			newOrder(show, manyOrders, 2, 1 + i * 2);
+		}
+
+		long few = statementsFor(() -> orderService.getUserOrders(fewOrders.getId(), PageRequest.of(0, 20)));
+		long many = statementsFor(() -> orderService.getUserOrders(manyOrders.getId(), PageRequest.of(0, 20)));
+
+		// Página y conteo sobre order_summaries, sin joins ni conteo de asientos
+		assertThat(many).isEqualTo(few).isLessThanOrEqualTo(2);
+		assertThat(orderService.getUserOrders(manyOrders.getId(), PageRequest.of(0, 20)).getContent())
+				.hasSize(8)
+				.allSatisfy(order -> {
+					assertThat(order.getMovieTitle()).isEqualTo(show.getMovie().getTitle());
+					assertThat(order.getRoomName()).isEqualTo(room.getName());
+					assertThat(order.getNumberOfSeats()).isEqualTo(2);
+				});
+	}
+
+	@Test
+	void adminOrderListsFilterSummariesByStatusAndFollowStatusChanges() {
+		Show show = newShow(newMovie(), 0);
+		User user = newUser();
+		Order kept = newOrder(show, user, 1, 0);
+		Order canceled = newOrder(show, user, 1, 1);
+
+		orderService.cancelOrder(canceled.getId());
+
+		Page<OrderResponse> canceledPage = orderService.getAllOrders(null, "canceled", PageRequest.of(0, 20));
+		assertThat(canceledPage.getContent()).extracting(OrderResponse::getId).contains(canceled.getId())
+				.doesNotContain(kept.getId());
+		assertThat(orderService.getAllOrders(null, "COMPLETED", PageRequest.of(0, 20)).getContent())
+				.extracting(OrderResponse::getId).contains(kept.getId()).doesNotContain(canceled.getId());
+
+		long statements = statementsFor(() -> orderService.getAllOrders(null, "COMPLETED", PageRequest.of(0, 20)));
+		assertThat(statements).isLessThanOrEqualTo(2);
+		assertThatThrownBy(() -> orderService.getAllOrders(null, "SHIPPED", PageRequest.of(0, 20)))
+				.isInstanceOf(InvalidFilterException.class);
+	}
+
+	@Test
+	void cursorPagesWalkEveryOrderOnceWithoutCounting() {
+		Show show = newShow(newMovie(), 0);
+		User user = newUser();
+		Set<UUID> created = new HashSet<>();
+		for (int i = 0; i < 7; i++) {
+			created.add(newOrder(show, user, 1, i).getId());
+		}
+
+		Set<UUID> walked = new HashSet<>();
+		List<Long> statementsPerPage = new ArrayList<>();
+		String cursor = null;
+		do {
+			String after = cursor;
+			statistics.clear();
+			CursorPageResponse<OrderResponse> page = orderService.getUserOrdersByCursor(user.getId(), after, 3);
+			statementsPerPage.add(statistics.getPrepareStatementCount());
+			page.getContent().forEach(order -> assertThat(walked.add(order.getId())).isTrue());
+			assertThat(page.getHasNext()).isEqualTo(page.getNextCursor() != null);
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(walked).isEqualTo(created);
+		assertThat(statementsPerPage).hasSize(3).containsOnly(statementsPerPage.get(0));
+		assertThatThrownBy(() -> orderService.getUserOrdersByCursor(user.getId(), "not-a-cursor", 3))
+				.isInstanceOf(InvalidCursorException.class);
+	}
+
+	@Test
+	void orderAndReservationDetailsUseTheSameStatementsForAnyNumberOfSeats() {
+		Show show = newShow(newMovie(), 0);
+		User user = newUser();
+		Order oneSeat = newOrder(show, user, 1, 0);
+		Order manySeats = newOrder(show, user, 8, 1);
+
+		long fewDetails = statementsFor(() -> orderService.getOrderDetailsById(oneSeat.getId()));
+		long manyDetails = statementsFor(() -> orderService.getOrderDetailsById(manySeats.getId()));
+		assertThat(manyDetails).isEqualTo(fewDetails).isLessThanOrEqualTo(3);
+
+		UUID oneSeatReservation = oneSeat.getReservation().getId();
+		UUID manySeatsReservation = manySeats.getReservation().getId();
+		long fewReservation = statementsFor(() -> reservationService.getReservationById(oneSeatReservation, null));
+		long manyReservation = statementsFor(() -> reservationService.getReservationById(manySeatsReservation, null));
+		assertThat(manyReservation).isEqualTo(fewReservation).isLessThanOrEqualTo(3);
+	}
+
+	@Test
+	void orderDetailsUseStoredItemNamesWithoutCatalogLookups() {
+		Show show = newShow(newMovie(), 0);
+		User user = newUser();
+		Order oneItem = withItems(newOrder(show, user, 1, 0), "Pochoclos grandes");
+		Order manyItems = withItems(newOrder(show, user, 1, 1), "Pochoclos", "Gaseosa", "Nachos", "Combo pareja");
+
+		long few = statementsFor(() -> orderService.getOrderDetailsById(oneItem.getId()));
+		long many = statementsFor(() -> orderService.getOrderDetailsById(manyItems.getId()));
+
+		assertThat(many).isEqualTo(few).isLessThanOrEqualTo(3);
+		// Los productos ya no existen en el catálogo: el nombre sale de la copia guardada en el item
+		assertThat(orderService.getOrderDetailsById(manyItems.getId()).getItems())
+				.extracting(OrderDetailsResponse.OrderItemResponse::getName)
+				.containsExactlyInAnyOrder("Pochoclos", "Gaseosa", "Nachos", "Combo pareja");
+	}
+
+	private long statementsFor(Supplier<?> call) {
+		statistics.clear();
+		call.get();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Movie newMovie() {
+		return movieRepository.save(Movie.builder()
+				.title("Estreno " + UUID.randomUUID())
+				.durationMinutes(120)
+				.status(Movie.MovieStatus.ACTIVE)
+				.build());
+	}
+
+	private Show newShow(Movie movie, int index) {
+		ZonedDateTime start = TOMORROW.atTime(10, 0).atZone(ZoneId.systemDefault()).plusMinutes(index * 30L);
+		return showRepository.save(Show.builder()
+				.movie(movie)
+				.room(room)
+				.startTime(start)
+				.endTime(start.plusMinutes(120))
+				.status(Show.ShowStatus.SCHEDULED)
+				.build());
+	}
+
+	private User newUser() {
+		return userRepository.save(User.builder()
+				.email(UUID.randomUUID() + "@test.com")
+				.firstName("Ana")
+				.lastName("Pérez")
+				.role(User.UserRole.CUSTOMER)
+				.status(User.UserStatus.ACTIVE)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build());
+	}
+
+	private Order withItems(Order order, String... names) {
+		List<OrderItem> items = new ArrayList<>();
+		for (String name : names) {
+			items.add(OrderItem.builder()
+					.order(order)
+					.itemType(OrderItem.ItemType.PRODUCT)
+					.itemId(UUID.randomUUID())
+					.itemName(name)
+					.quantity(1)
+					.unitPrice(new BigDecimal("3000.00"))
+					.subtotal(new BigDecimal("3000.00"))
+					.createdAt(ZonedDateTime.now())
+					.updatedAt(ZonedDateTime.now())
+					.build());
+		}
+		order.setItems(items);
+		return orderRepository.save(order);
+	}
+
+	private Order newOrder(Show show, User user, int seatCount, int firstSeat) {
+		Reservation reservation = Reservation.builder()
+				.id(UUID.randomUUID())
+				.user(user)
+				.show(show)
+				.status(Reservation.ReservationStatus.CONFIRMED)
+				.expiresAt(show.getStartTime())
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build();
+
+		List<ReservedSeat> reservedSeats = new ArrayList<>();
+		for (int i = 0; i < seatCount; i++) {
+			reservedSeats.add(ReservedSeat.builder()
+					.id(UUID.randomUUID())
+					.reservation(reservation)
+					.seat(seats.get(firstSeat + i))
+					.ticketType(ticketType)
+					.price(ticketType.getPrice())
+					.createdAt(ZonedDateTime.now())
+					.updatedAt(ZonedDateTime.now())
+					.build());
+		}
+		reservation.setReservedSeats(reservedSeats);
+		Reservation savedReservation = reservationRepository.save(reservation);
+
+		BigDecimal total = ticketType.getPrice().multiply(BigDecimal.valueOf(seatCount));
+		Order order = orderRepository.save(Order.builder()
+				.user(user)
+				.reservation(savedReservation)
+				.subtotal(total)
+				.discount(BigDecimal.ZERO)
+				.tax(BigDecimal.ZERO)
+				.total(total)
+				.paymentMethod("CARD")
+				.paymentStatus(Order.PaymentStatus.PAID)
+				.orderType(Order.OrderType.ONLINE)
+				.status(Order.OrderStatus.COMPLETED)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build());
+		// El resumen se copia como en OrderServiceImpl, con la orden y su función cargadas
+		transactionTemplate.executeWithoutResult(status -> orderSummaryWriter.created(
+				orderRepository.findDetailsById(order.getId()).orElseThrow()));
+		return order;
+	}
+}
@@ -0,0 +1,238 @@
+package com.cinetickets.api.service.impl;
+
+import com.cinetickets.api.dto.request.ReservationRequest;
+import com.cinetickets.api.entity.Movie;
+import com.cinetickets.api.entity.Reservation;
+import com.cinetickets.api.entity.Room;
+import com.cinetickets.api.entity.Seat;
+import com.cinetickets.api.entity.Show;
+import com.cinetickets.api.entity.TicketType;
+import com.cinetickets.api.exception.SeatUnavailableException;
+import com.cinetickets.api.job.ReservationExpiryWheel;
+import com.cinetickets.api.repository.MovieRepository;
+import com.cinetickets.api.repository.ReservationRepository;
+import com.cinetickets.api.repository.RoomRepository;
+import com.cinetickets.api.repository.SeatRepository;
+import com.cinetickets.api.repository.ShowRepository;
+import com.cinetickets.api.repository.TicketTypeRepository;
+import com.cinetickets.api.service.ReservationService;
+import com.cinetickets.api.service.cache.ShowtimeCache;
+import com.cinetickets.api.service.inventory.SeatInventoryService;
+import com.cinetickets.api.service.inventory.ShowSeatInventory;
+import com.cinetickets.api.service.lock.ShowLockStripes;
+import com.cinetickets.api.service.pricing.PriceBookService;
+import com.cinetickets.api.service.schedule.RoomScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de estrés del reclamo de asientos: miles de reservas concurrentes sobre la misma función
+ * no deben vender dos veces el mismo asiento.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ReservationServiceImpl.class, ShowServiceImpl.class, SeatInventoryService.class, ReservationExpiryWheel.class,
+		ShowLockStripes.class, ShowtimeCache.class, RoomScheduleIndex.class,
+		PriceBookService.class, SimpleMeterRegistry.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationServiceImplConcurrencyTest {
+
+	private static final int ROWS = 10;
+	private static final int SEATS_PER_ROW = 20;
+	private static final int REQUESTS = 3000;
+	private static final int THREADS = 32;
+
+	@Autowired
+	private ReservationService reservationService;
+
+	@Autowired
+	private SeatInventoryService seatInventoryService;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private SeatRepository seatRepository;
+
+	@Autowired
+	private ShowRepository showRepository;
+
+	@Autowired
+	private TicketTypeRepository ticketTypeRepository;
+
+	@Autowired
+	private PriceBookService priceBookService;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private ReservationExpiryWheel expiryWheel;
+
+	private Show show;
+	private List<UUID> seatIds;
+	private UUID ticketTypeId;
+
+	@BeforeEach
+	void setUp() {
+		Movie movie = movieRepository.save(Movie.builder()
+				.title("Estreno")
+				.durationMinutes(120)
+				.status(Movie.MovieStatus.ACTIVE)
+				.build());
+
+		Room room = roomRepository.save(Room.builder()
+				.name("Sala " + UUID.randomUUID())
+				.capacity(ROWS * SEATS_PER_ROW)
+				.roomType(Room.RoomType.REGULAR)
+				.status(Room.RoomStatus.ACTIVE)
+				.build());
+
+		List<Seat> seats = new ArrayList<>();
+		for (int row = 0; row < ROWS; row++) {
+			for (int number = 1; number <= SEATS_PER_ROW; number++) {
+				seats.add(Seat.builder()
+						.room(room)
+						.rowName(String.valueOf((char) ('A' + row)))
+						.number(String.valueOf(number))
+						.seatType(Seat.SeatType.REGULAR)
+						.status(Seat.SeatStatus.ACTIVE)
+						.build());
+			}
+		}
+		seatIds = seatRepository.saveAll(seats).stream().map(Seat::getId).collect(Collectors.toList());
+
+		show = showRepository.save(Show.builder()
+				.movie(movie)
+				.room(room)
+				.startTime(ZonedDateTime.now().plusDays(1))
+				.endTime(ZonedDateTime.now().plusDays(1).plusMinutes(120))
+				.status(Show.ShowStatus.SCHEDULED)
+				.build());
+
+		ticketTypeId = ticketTypeRepository.save(TicketType.builder()
+				.name("General")
+				.price(new BigDecimal("5000.00"))
+				.isActive(true)
+				.build()).getId();
+		// Las entradas se cotizan contra la lista de precios en memoria
+		priceBookService.reload();
+	}
+
+	@Test
+	void concurrentReservationsNeverSellTheSameSeatTwice() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int i = 0; i < REQUESTS; i++) {
+			Random random = new Random(i);
+			futures.add(executor.submit(() -> {
+				start.await();
+				try {
+					reservationService.createReservation(randomRequest(random), null);
+					succeeded.incrementAndGet();
+				} catch (SeatUnavailableException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		// Las recargas periódicas del inventario corren en medio de las reservas sin perder ningún reclamo
+		AtomicBoolean done = new AtomicBoolean();
+		Thread resync = new Thread(() -> {
+			while (!done.get()) {
+				seatInventoryService.resyncInventories();
+			}
+		});
+		resync.start();
+
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		done.set(true);
+		resync.join(TimeUnit.MINUTES.toMillis(1));
+		executor.shutdown();
+
+		// Ningún asiento puede aparecer en dos reservas activas
+		List<UUID> reservedSeatIds = seatRepository.findReservedSeatIdsForShow(show.getId());
+		assertThat(reservedSeatIds).doesNotHaveDuplicates();
+		assertThat(succeeded.get() + rejected.get()).isEqualTo(REQUESTS);
+		assertThat(reservationRepository.findByShowIdAndStatusIn(show.getId(),
+				List.of(Reservation.ReservationStatus.PENDING))).hasSize(succeeded.get());
+
+		// El inventario en memoria coincide con lo que quedó escrito en la base de datos
+		ShowSeatInventory inventory = seatInventoryService.getInventory(show.getId());
+		long heldInMemory = Arrays.stream(inventory.snapshot())
+				.filter(state -> state != ShowSeatInventory.SeatState.FREE)
+				.count();
+		assertThat(heldInMemory).isEqualTo(reservedSeatIds.size());
+		assertThat(inventory.getHeldCount()).isEqualTo(reservedSeatIds.size());
+		assertThat(inventory.getAvailableCount()).isEqualTo(seatIds.size() - reservedSeatIds.size());
+	}
+
+	@Test
+	void posSalesAreConfirmedWithoutEnteringTheExpiryWheel() {
+		int scheduled = expiryWheel.size();
+
+		reservationService.createPosReservation(randomRequest(new Random(7)), UUID.randomUUID());
+
+		assertThat(expiryWheel.size()).isEqualTo(scheduled);
+		assertThat(reservationRepository.findByShowIdAndStatusIn(show.getId(),
+				List.of(Reservation.ReservationStatus.CONFIRMED))).hasSize(1);
+	}
+
+	private ReservationRequest randomRequest(Random random) {
+		int count = 1 + random.nextInt(4);
+		Set<UUID> selected = new HashSet<>();
+		while (selected.size() < count) {
+			selected.add(seatIds.get(random.nextInt(seatIds.size())));
+		}
+
+		return ReservationRequest.builder()
+				.showId(show.getId())
+				.seats(selected.stream()
+						.map(seatId -> ReservationRequest.SeatSelectionRequest.builder()
+								.seatId(seatId)
+								.ticketTypeId(ticketTypeId)
+								.build())
+						.collect(Collectors.toList()))
+				.build();
+	}
+}
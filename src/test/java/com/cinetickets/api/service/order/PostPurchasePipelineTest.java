@@ -0,0 +1,153 @@
+package com.cinetickets.api.service.order;
+
+import com.cinetickets.api.dto.response.OrderDetailsResponse;
+import com.cinetickets.api.entity.Order;
+import com.cinetickets.api.entity.User;
+import com.cinetickets.api.repository.OrderRepository;
+import com.cinetickets.api.repository.UserRepository;
+import com.cinetickets.api.service.EmailService;
+import com.cinetickets.api.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostPurchasePipelineTest {
+
+	private OrderRepository orderRepository;
+	private UserRepository userRepository;
+	private OrderService orderService;
+	private EmailService emailService;
+	private SimpleMeterRegistry meterRegistry;
+	private List<Instant> retries;
+	private TaskScheduler taskScheduler;
+	private PostPurchasePipeline pipeline;
+
+	private User user;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository = mock(OrderRepository.class);
+		userRepository = mock(UserRepository.class);
+		orderService = mock(OrderService.class);
+		emailService = mock(EmailService.class);
+		meterRegistry = new SimpleMeterRegistry();
+
+		// Los reintentos se ejecutan en el momento, registrando cuándo estaban programados
+		retries = new ArrayList<>();
+		taskScheduler = mock(TaskScheduler.class);
+		when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+			retries.add(invocation.getArgument(1));
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		});
+
+		pipeline = new PostPurchasePipeline(orderRepository, userRepository, orderService, emailService,
+				Runnable::run, Runnable::run, taskScheduler, mock(PlatformTransactionManager.class), meterRegistry,
+				3, 1000, new BigDecimal("100"));
+
+		user = User.builder().id(UUID.randomUUID()).email("ana@test.com").firstName("Ana").build();
+		order = Order.builder()
+				.id(UUID.randomUUID())
+				.user(user)
+				.total(new BigDecimal("2550.00"))
+				.paymentStatus(Order.PaymentStatus.PAID)
+				.build();
+		when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+		when(orderRepository.awardLoyaltyPoints(eq(order.getId()), anyInt())).thenReturn(1);
+		when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+		when(orderService.getOrderDetailsWithQrById(order.getId(), null)).thenReturn(OrderDetailsResponse.builder()
+				.id(order.getId())
+				.userId(user.getId())
+				.build());
+	}
+
+	@Test
+	void paidOrderGetsItsPointsAndConfirmationEmail() {
+		pipeline.onOrderPaid(new OrderPaidEvent(order.getId()));
+
+		verify(orderRepository).awardLoyaltyPoints(order.getId(), 25);
+		verify(userRepository).addLoyaltyPoints(user.getId(), 25);
+		verify(emailService).sendTicketConfirmationEmail(eq(user), any());
+		assertThat(attempts("loyalty", "success")).isEqualTo(1);
+		assertThat(attempts("email", "success")).isEqualTo(1);
+		assertThat(retries).isEmpty();
+	}
+
+	@Test
+	void pointsAlreadyAwardedAreNotAddedAgain() {
+		when(orderRepository.awardLoyaltyPoints(eq(order.getId()), anyInt())).thenReturn(0);
+
+		pipeline.onOrderPaid(new OrderPaidEvent(order.getId()));
+
+		verify(userRepository, never()).addLoyaltyPoints(any(), anyInt());
+	}
+
+	@Test
+	void failedEmailIsRetriedWithExponentialBackoffAndThenGivenUp() {
+		doThrow(new MailSendException("SMTP down")).when(emailService).sendTicketConfirmationEmail(any(), any());
+
+		Instant before = Instant.now();
+		pipeline.onOrderPaid(new OrderPaidEvent(order.getId()));
+
+		verify(emailService, times(3)).sendTicketConfirmationEmail(eq(user), any());
+		assertThat(retries).hasSize(2);
+		assertThat(retries.get(0)).isBetween(before.plusMillis(1000), before.plusMillis(1500));
+		assertThat(retries.get(1)).isBetween(before.plusMillis(2000), before.plusMillis(2500));
+		assertThat(attempts("email", "retry")).isEqualTo(2);
+		assertThat(attempts("email", "failure")).isEqualTo(1);
+		// Los reintentos del email no vuelven a acreditar los puntos
+		assertThat(attempts("loyalty", "success")).isEqualTo(1);
+		verify(userRepository).addLoyaltyPoints(user.getId(), 25);
+	}
+
+	@Test
+	void stepRejectedByAFullExecutorIsResubmittedWithoutSpendingAnAttempt() {
+		AtomicInteger rejections = new AtomicInteger();
+		Executor fullOnce = task -> {
+			if (rejections.getAndIncrement() == 0) {
+				throw new RejectedExecutionException("mailExecutor is full");
+			}
+			task.run();
+		};
+		pipeline = new PostPurchasePipeline(orderRepository, userRepository, orderService, emailService,
+				Runnable::run, fullOnce, taskScheduler, mock(PlatformTransactionManager.class), meterRegistry,
+				3, 1000, new BigDecimal("100"));
+
+		pipeline.onOrderPaid(new OrderPaidEvent(order.getId()));
+
+		verify(emailService).sendTicketConfirmationEmail(eq(user), any());
+		assertThat(retries).hasSize(1);
+		assertThat(attempts("email", "success")).isEqualTo(1);
+		assertThat(attempts("email", "retry")).isZero();
+	}
+
+	private long attempts(String step, String outcome) {
+		return meterRegistry.find("order.post_purchase").tag("step", step).tag("outcome", outcome)
+				.timers().stream().mapToLong(timer -> timer.count()).sum();
+	}
+}
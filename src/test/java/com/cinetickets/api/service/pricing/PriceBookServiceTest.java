@@ -0,0 +1,132 @@
+package com.cinetickets.api.service.pricing;
+
+import com.cinetickets.api.entity.Combo;
+import com.cinetickets.api.entity.ComboItem;
+import com.cinetickets.api.entity.Product;
+import com.cinetickets.api.entity.ProductCategory;
+import com.cinetickets.api.entity.TicketType;
+import com.cinetickets.api.exception.ResourceNotFoundException;
+import com.cinetickets.api.repository.ComboRepository;
+import com.cinetickets.api.repository.ProductCategoryRepository;
+import com.cinetickets.api.repository.ProductRepository;
+import com.cinetickets.api.repository.TicketTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PriceBookService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceBookServiceTest {
+
+	@Autowired
+	private PriceBookService priceBookService;
+
+	@Autowired
+	private ProductCategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ComboRepository comboRepository;
+
+	@Autowired
+	private TicketTypeRepository ticketTypeRepository;
+
+	@Test
+	void reloadPublishesANewerSnapshotWithCombosAndTicketTypes() {
+		PriceBook before = priceBookService.current();
+		Product popcorn = newProduct("Pochoclos", "3500.00");
+		Product soda = newProduct("Gaseosa", "2500.00");
+		Combo combo = newCombo("Combo pareja", "9000.00", popcorn, 1, soda, 2);
+		TicketType general = ticketTypeRepository.save(TicketType.builder()
+				.name("General")
+				.price(new BigDecimal("5000.00"))
+				.isActive(true)
+				.build());
+
+		assertThatThrownBy(() -> priceBookService.current().product(popcorn.getId()))
+				.isInstanceOf(ResourceNotFoundException.class);
+
+		PriceBook after = priceBookService.reload();
+
+		assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+		assertThat(priceBookService.current()).isSameAs(after);
+		assertThat(after.product(popcorn.getId()).priceFor(3)).isEqualByComparingTo("10500.00");
+		assertThat(after.combo(combo.getId()).getPrice()).isEqualByComparingTo("9000.00");
+		assertThat(after.combo(combo.getId()).getComponents())
+				.isEqualTo(Map.of(popcorn.getId(), 1, soda.getId(), 2));
+		assertThat(after.ticketType(general.getId()).getName()).isEqualTo("General");
+	}
+
+	@Test
+	void oldSnapshotsKeepTheirPrices() {
+		Product nachos = newProduct("Nachos", "4000.00");
+		PriceBook original = priceBookService.reload();
+
+		nachos.setPrice(new BigDecimal("4500.00"));
+		productRepository.save(nachos);
+		PriceBook updated = priceBookService.reload();
+
+		assertThat(original.product(nachos.getId()).getPrice()).isEqualByComparingTo("4000.00");
+		assertThat(updated.product(nachos.getId()).getPrice()).isEqualByComparingTo("4500.00");
+		assertThatThrownBy(() -> updated.combo(UUID.randomUUID())).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	private Product newProduct(String name, String price) {
+		ProductCategory category = categoryRepository.save(ProductCategory.builder()
+				.name("Candy " + UUID.randomUUID())
+				.isActive(true)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build());
+		return productRepository.save(Product.builder()
+				.category(category)
+				.name(name)
+				.price(new BigDecimal(price))
+				.isActive(true)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build());
+	}
+
+	private Combo newCombo(String name, String price, Product first, int firstQuantity, Product second,
+			int secondQuantity) {
+		Combo combo = Combo.builder()
+				.name(name)
+				.price(new BigDecimal(price))
+				.isActive(true)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build();
+		combo.setItems(List.of(comboItem(combo, first, firstQuantity), comboItem(combo, second, secondQuantity)));
+		return comboRepository.save(combo);
+	}
+
+	private static ComboItem comboItem(Combo combo, Product product, int quantity) {
+		return ComboItem.builder()
+				.combo(combo)
+				.product(product)
+				.quantity(quantity)
+				.createdAt(ZonedDateTime.now())
+				.updatedAt(ZonedDateTime.now())
+				.build();
+	}
+}
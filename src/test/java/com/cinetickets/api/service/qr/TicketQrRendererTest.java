@@ -0,0 +1,57 @@
+package com.cinetickets.api.service.qr;
+
+import com.cinetickets.api.exception.InvalidFilterException;
+import com.cinetickets.api.service.QrCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketQrRendererTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final TicketQrRenderer renderer = new TicketQrRenderer(meterRegistry, 1024 * 1024, 60);
+	private final String token = new QrCodeService("test-secret")
+			.generateTicketToken(UUID.randomUUID(), UUID.randomUUID(), 1_700_000_000_000L);
+
+	@Test
+	void pngIsRenderedOnceAndServedFromTheCache() {
+		TicketQrRenderer.QrImage first = renderer.render(token, TicketQrRenderer.QrFormat.PNG, 250);
+		TicketQrRenderer.QrImage second = renderer.render(token, TicketQrRenderer.QrFormat.PNG, 250);
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.getMediaType()).isEqualTo("image/png");
+		// Firma de un PNG
+		assertThat(first.getBytes()).startsWith((byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G');
+		assertThat(first.getEtag()).startsWith("\"").endsWith("\"");
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "ticket-qr").tag("result", "hit")
+				.functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void svgIsAScalableVectorWithItsOwnEtag() {
+		TicketQrRenderer.QrImage svg = renderer.render(token, TicketQrRenderer.QrFormat.SVG, 300);
+		TicketQrRenderer.QrImage png = renderer.render(token, TicketQrRenderer.QrFormat.PNG, 300);
+
+		String body = new String(svg.getBytes(), StandardCharsets.UTF_8);
+		assertThat(body).startsWith("<svg").contains("width=\"300\"").contains("<path").endsWith("</svg>");
+		assertThat(svg.getMediaType()).isEqualTo("image/svg+xml");
+		assertThat(svg.getEtag()).isNotEqualTo(png.getEtag());
+		// Mismo contenido, misma imagen: el ETag no depende de la caché
+		assertThat(TicketQrRenderer.encode(token, TicketQrRenderer.QrFormat.SVG, 300).getEtag())
+				.isEqualTo(svg.getEtag());
+	}
+
+	@Test
+	void rejectsUnknownFormatsAndSizesOutOfRange() {
+		assertThat(TicketQrRenderer.QrFormat.parse(" SVG ")).isEqualTo(TicketQrRenderer.QrFormat.SVG);
+		assertThatThrownBy(() -> TicketQrRenderer.QrFormat.parse("gif"))
+				.isInstanceOf(InvalidFilterException.class);
+		assertThatThrownBy(() -> renderer.render(token, TicketQrRenderer.QrFormat.PNG, 5000))
+				.isInstanceOf(InvalidFilterException.class);
+	}
+}
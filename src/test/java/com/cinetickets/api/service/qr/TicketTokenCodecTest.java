@@ -0,0 +1,59 @@
+package com.cinetickets.api.service.qr;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketTokenCodecTest {
+
+	private final TicketTokenCodec codec = new TicketTokenCodec("ClaveDeTestParaFirmarEntradas");
+	private final UUID orderId = UUID.randomUUID();
+	private final UUID showId = UUID.randomUUID();
+	private final Instant issuedAt = Instant.parse("2026-03-14T20:30:15Z");
+
+	@Test
+	void encodedTokenIsCompactBase32AndDecodesBack() {
+		String token = codec.encode(orderId, showId, issuedAt);
+
+		assertThat(token).hasSize(TicketTokenCodec.TOKEN_LENGTH).matches("[A-Z2-7]+");
+		assertThat(codec.verify(token)).isTrue();
+		assertThat(codec.decode(token)).hasValueSatisfying(ticket -> {
+			assertThat(ticket.getOrderId()).isEqualTo(orderId);
+			assertThat(ticket.getShowId()).isEqualTo(showId);
+			assertThat(ticket.getIssuedAt()).isEqualTo(issuedAt);
+		});
+	}
+
+	@Test
+	void anyChangedCharacterInvalidatesTheToken() {
+		String token = codec.encode(orderId, showId, issuedAt);
+
+		for (int i = 0; i < token.length(); i++) {
+			char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+			String tampered = token.substring(0, i) + replacement + token.substring(i + 1);
+			assertThat(codec.verify(tampered)).as("position %d", i).isFalse();
+		}
+	}
+
+	@Test
+	void tokensSignedWithAnotherKeyAreRejected() {
+		String forged = new TicketTokenCodec("OtraClave").encode(orderId, showId, issuedAt);
+
+		assertThat(codec.verify(forged)).isFalse();
+		assertThat(codec.decode(forged)).isEmpty();
+	}
+
+	@Test
+	void malformedContentIsRejectedWithoutExceptions() {
+		String token = codec.encode(orderId, showId, issuedAt);
+
+		assertThat(codec.verify(null)).isFalse();
+		assertThat(codec.verify("")).isFalse();
+		assertThat(codec.verify(token.toLowerCase())).isFalse();
+		assertThat(codec.verify(token.substring(1))).isFalse();
+		assertThat(codec.verify(orderId + "|" + showId + "|1700000000000|1a2b3c")).isFalse();
+	}
+}
@@ -0,0 +1,81 @@
+package com.cinetickets.api.service.queue;
+
+import com.cinetickets.api.dto.response.QueueTicketResponse;
+import com.cinetickets.api.exception.AdmissionRequiredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionQueueServiceTest {
+
+	private final AdmissionQueueService service = new AdmissionQueueService("ClaveDeTestParaLaSalaDeEspera", 15, true);
+	private final UUID showId = UUID.randomUUID();
+	private final UUID userId = UUID.randomUUID();
+
+	@BeforeEach
+	void setUp() {
+		service.activate(showId, 600);
+	}
+
+	@Test
+	void joiningAgainKeepsThePlaceInsteadOfIssuingAnotherTicket() {
+		QueueTicketResponse first = service.join(showId, userId);
+		QueueTicketResponse again = service.join(showId, userId);
+		QueueTicketResponse other = service.join(showId, UUID.randomUUID());
+
+		assertThat(again.getTicket()).isEqualTo(first.getTicket());
+		assertThat(again.getPosition()).isEqualTo(first.getPosition());
+		assertThat(other.getPosition()).isEqualTo(first.getPosition() + 1);
+	}
+
+	@Test
+	void admittedTokenOnlyWorksForItsUser() {
+		String token = service.join(showId, userId).getTicket();
+		service.admitNext();
+
+		assertThatThrownBy(() -> service.withAdmission(showId, token, UUID.randomUUID(), () -> "reserva"))
+				.isInstanceOf(AdmissionRequiredException.class)
+				.hasMessage("Invalid admission token");
+		assertThatThrownBy(() -> service.getStatus(showId, token, UUID.randomUUID()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(service.withAdmission(showId, token, userId, () -> "reserva")).isEqualTo("reserva");
+	}
+
+	@Test
+	void tokenIsConsumedBySuccessfulReservationButNotByAFailedOne() {
+		String token = service.join(showId, userId).getTicket();
+		service.admitNext();
+
+		assertThatThrownBy(() -> service.withAdmission(showId, token, userId, () -> {
+			throw new IllegalStateException("seats taken");
+		})).isInstanceOf(IllegalStateException.class);
+		assertThat(service.withAdmission(showId, token, userId, () -> "reserva")).isEqualTo("reserva");
+
+		assertThatThrownBy(() -> service.withAdmission(showId, token, userId, () -> "reserva"))
+				.isInstanceOf(AdmissionRequiredException.class)
+				.hasMessage("Admission token has already been used");
+		// Después de usarlo, volver a entrar da un lugar nuevo al final de la cola
+		assertThat(service.join(showId, userId).getTicket()).isNotEqualTo(token);
+	}
+
+	@Test
+	void activationIsRejectedWhenTheQueueCannotBeEnforcedOnEveryNode() {
+		AdmissionQueueService multiNode = new AdmissionQueueService("ClaveDeTestParaLaSalaDeEspera", 15, false);
+
+		assertThatThrownBy(() -> multiNode.activate(showId, 600)).isInstanceOf(IllegalStateException.class);
+		assertThat(multiNode.isActive(showId)).isFalse();
+	}
+
+	@Test
+	void tokenIsNotAcceptedBeforeAdmission() {
+		String token = service.join(showId, userId).getTicket();
+
+		assertThatThrownBy(() -> service.withAdmission(showId, token, userId, () -> "reserva"))
+				.isInstanceOf(AdmissionRequiredException.class)
+				.hasMessage("Admission token has not been admitted yet");
+	}
+}
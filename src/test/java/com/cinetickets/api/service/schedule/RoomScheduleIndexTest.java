@@ -0,0 +1,129 @@
+package com.cinetickets.api.service.schedule;
+
+import com.cinetickets.api.repository.ShowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoomScheduleIndexTest {
+
+	private static final UUID ROOM = UUID.randomUUID();
+	private static final ZonedDateTime BASE = ZonedDateTime.of(2030, 5, 10, 18, 0, 0, 0,
+			ZoneId.of("America/Argentina/Buenos_Aires"));
+
+	private ShowRepository showRepository;
+	private RoomScheduleIndex index;
+	private UUID evening;
+
+	@BeforeEach
+	void setUp() {
+		showRepository = mock(ShowRepository.class);
+		evening = UUID.randomUUID();
+		// Función de 18:00 a 20:00, ocupa la sala hasta las 20:15 con la limpieza
+		List<Object[]> rows = List.<Object[]>of(new Object[] { evening, BASE, BASE.plusHours(2) });
+		when(showRepository.findScheduledIntervalsForRoom(eq(ROOM), any())).thenReturn(rows);
+		index = new RoomScheduleIndex(showRepository, 15);
+	}
+
+	@Test
+	void detectsOverlapsIncludingCleaningBuffer() {
+		assertThat(conflict(BASE.plusHours(1), BASE.plusHours(3))).isEqualTo(evening);
+		assertThat(conflict(BASE.minusHours(2), BASE.plusMinutes(1))).isEqualTo(evening);
+		assertThat(conflict(BASE.plusHours(2).plusMinutes(10), BASE.plusHours(4))).isEqualTo(evening);
+		assertThat(conflict(BASE.minusHours(2), BASE.minusMinutes(10))).isEqualTo(evening);
+	}
+
+	@Test
+	void acceptsSlotsAfterCleaning() {
+		assertThat(conflict(BASE.plusHours(2).plusMinutes(15), BASE.plusHours(4))).isNull();
+		assertThat(conflict(BASE.minusHours(3), BASE.minusMinutes(15))).isNull();
+	}
+
+	@Test
+	void ignoresTheShowBeingRescheduled() {
+		UUID found = index.withRooms(List.of(ROOM), () -> {
+			RoomScheduleIndex.Slot slot = index.findConflict(ROOM, BASE.plusMinutes(30), BASE.plusHours(2), evening);
+			return slot != null ? slot.getShowId() : null;
+		});
+
+		assertThat(found).isNull();
+	}
+
+	@Test
+	void tracksAddedAndRemovedShows() {
+		conflict(BASE, BASE);
+		UUID late = UUID.randomUUID();
+		index.add(ROOM, late, BASE.plusHours(3), BASE.plusHours(5));
+		assertThat(conflict(BASE.plusHours(4), BASE.plusHours(6))).isEqualTo(late);
+
+		index.remove(ROOM, evening);
+		assertThat(conflict(BASE, BASE.plusHours(2))).isNull();
+
+		// Mover la función a otro horario libera el anterior
+		index.add(ROOM, late, BASE.plusHours(8), BASE.plusHours(10));
+		assertThat(conflict(BASE.plusHours(4), BASE.plusHours(6))).isNull();
+		verify(showRepository, times(1)).findScheduledIntervalsForRoom(eq(ROOM), any());
+	}
+
+	@Test
+	void keepsShowsThatAlreadyShareTheSameStart() {
+		UUID twin = UUID.randomUUID();
+		List<Object[]> rows = List.<Object[]>of(
+				new Object[] { evening, BASE, BASE.plusHours(2) },
+				new Object[] { twin, BASE, BASE.plusHours(1) });
+		when(showRepository.findScheduledIntervalsForRoom(eq(ROOM), any())).thenReturn(rows);
+
+		assertThat(conflict(BASE.plusHours(3), BASE.plusHours(4))).isNull();
+
+		// Quitar una de las dos no libera el horario de la otra
+		index.remove(ROOM, evening);
+		assertThat(conflict(BASE.plusMinutes(30), BASE.plusMinutes(45))).isEqualTo(twin);
+		assertThat(conflict(BASE.minusHours(1), BASE)).isEqualTo(twin);
+	}
+
+	@Test
+	void findsLongEarlierShowBehindAShorterOne() {
+		conflict(BASE, BASE);
+		// Una función corta que empieza dentro de la larga (superposición llegada desde otro nodo)
+		UUID inside = UUID.randomUUID();
+		index.add(ROOM, inside, BASE.plusMinutes(10), BASE.plusMinutes(20));
+
+		// Entre el fin de la corta y el de la larga la sala sigue ocupada por la larga
+		assertThat(conflict(BASE.plusHours(1), BASE.plusHours(1).plusMinutes(30))).isEqualTo(evening);
+	}
+
+	@Test
+	void reloadsAfterInvalidation() {
+		conflict(BASE, BASE);
+		index.invalidateAll();
+		conflict(BASE, BASE);
+
+		verify(showRepository, times(2)).findScheduledIntervalsForRoom(eq(ROOM), any());
+	}
+
+	@Test
+	void requiresTheRoomLock() {
+		assertThatThrownBy(() -> index.findConflict(ROOM, BASE, BASE.plusHours(1), null))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private UUID conflict(ZonedDateTime start, ZonedDateTime end) {
+		return index.withRooms(List.of(ROOM), () -> {
+			RoomScheduleIndex.Slot slot = index.findConflict(ROOM, start, end, null);
+			return slot != null ? slot.getShowId() : null;
+		});
+	}
+}
@@ -0,0 +1,72 @@
+package com.cinetickets.api.service.search;
+
+import com.cinetickets.api.dto.response.MovieResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieSearchIndexTest {
+
+	private MovieSearchIndex index;
+	private MovieResponse pelicula;
+	private MovieResponse dune;
+	private MovieResponse relatos;
+
+	@BeforeEach
+	void setUp() {
+		index = new MovieSearchIndex();
+		pelicula = put("La película del año", "Juan Pérez", "Ricardo Darín, Érica Rivas");
+		dune = put("Dune: Parte Dos", "Denis Villeneuve", "Timothée Chalamet, Zendaya");
+		relatos = put("Relatos salvajes", "Damián Szifron", "Ricardo Darín, Leonardo Sbaraglia");
+	}
+
+	@Test
+	void foldsAccentsAndCase() {
+		assertThat(index.search("PELICULA", 10)).containsExactly(pelicula);
+		assertThat(index.search("timothee", 10)).containsExactly(dune);
+	}
+
+	@Test
+	void answersTypeAheadPrefixes() {
+		assertThat(index.search("du", 10)).containsExactly(dune);
+		assertThat(index.search("rel", 10)).containsExactly(relatos);
+	}
+
+	@Test
+	void ranksTitleMatchesAboveCastMatches() {
+		MovieResponse darin = put("Darín en escena", "Ana García", null);
+
+		List<MovieResponse> results = index.search("darin", 10);
+
+		assertThat(results).first().isEqualTo(darin);
+		assertThat(results).containsExactlyInAnyOrder(darin, pelicula, relatos);
+	}
+
+	@Test
+	void toleratesSmallTypos() {
+		assertThat(index.search("salvages", 10)).containsExactly(relatos);
+	}
+
+	@Test
+	void reindexesAndRemovesMovies() {
+		MovieResponse renamed = MovieResponse.builder().id(dune.getId()).title("Arrival").build();
+		index.put(renamed, "Denis Villeneuve", null);
+		assertThat(index.search("dune", 10)).isEmpty();
+		assertThat(index.search("arrival", 10)).containsExactly(renamed);
+
+		index.remove(relatos.getId());
+		assertThat(index.search("salvajes", 10)).isEmpty();
+		assertThat(index.search("darin", 10)).containsExactly(pelicula);
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	private MovieResponse put(String title, String director, String cast) {
+		MovieResponse movie = MovieResponse.builder().id(UUID.randomUUID()).title(title).build();
+		index.put(movie, director, cast);
+		return movie;
+	}
+}